@@ -1,15 +1,25 @@
 package com.brkygngr.banking.accessor;
 
 import com.brkygngr.banking.dto.keycloak.KeycloakClientResponse;
+import com.brkygngr.banking.dto.keycloak.KeycloakProtocolMapperResponse;
 import com.brkygngr.banking.dto.keycloak.KeycloakRealmResponse;
 import com.brkygngr.banking.dto.keycloak.KeycloakTokenResponse;
 import com.brkygngr.banking.entity.User;
 import com.brkygngr.banking.exception.KeycloakException;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -18,12 +28,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @Slf4j
 @Component
 public class KeycloakAccessor {
 
+  private static final String UNMANAGED_ATTRIBUTE_POLICY = "ADMIN_EDIT";
+
   private final RestTemplate restTemplate;
   private final String keycloakUrl;
   private final String adminClientId;
@@ -33,8 +46,11 @@ public class KeycloakAccessor {
   private final String backendRealm;
   private final String backendClientId;
   private final String backendClientSecret;
+  private final String userIdClaim;
+  private final ScheduledExecutorService adminTokenScheduler;
+  private final KeycloakAdminTokenHolder adminTokenHolder;
 
-  public KeycloakAccessor(final RestTemplate restTemplate,
+  public KeycloakAccessor(@Qualifier("keycloakRestTemplate") final RestTemplate restTemplate,
                           @Value("${keycloak.url}") final String keycloakUrl,
                           @Value("${keycloak.clientId}") final String adminClientId,
                           @Value("${keycloak.admin.realm}") final String adminRealm,
@@ -42,7 +58,8 @@ public class KeycloakAccessor {
                           @Value("${keycloak.admin.password}") final String adminPassword,
                           @Value("${keycloak.backend.realm}") final String backendRealm,
                           @Value("${keycloak.backend.clientId}") final String backendClientId,
-                          @Value("${keycloak.backend.clientSecret}") final String backendClientSecret) {
+                          @Value("${keycloak.backend.clientSecret}") final String backendClientSecret,
+                          @Value("${user.idClaim}") final String userIdClaim) {
     this.restTemplate = restTemplate;
     this.keycloakUrl = keycloakUrl;
     this.adminClientId = adminClientId;
@@ -52,29 +69,45 @@ public class KeycloakAccessor {
     this.backendRealm = backendRealm;
     this.backendClientId = backendClientId;
     this.backendClientSecret = backendClientSecret;
+    this.userIdClaim = userIdClaim;
+    this.adminTokenScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual()
+                                                                                .name("keycloak-admin-token-refresh")
+                                                                                .factory());
+    this.adminTokenHolder = new KeycloakAdminTokenHolder(this::fetchAdminToken,
+                                                         Clock.systemUTC(),
+                                                         command -> Thread.ofVirtual()
+                                                                          .name("keycloak-admin-token")
+                                                                          .start(command),
+                                                         adminTokenScheduler);
   }
 
   @PostConstruct
   public void postConstruct() {
     log.info("Initializing keycloak.");
 
-    HttpHeaders headers = getHttpHeaders(getAccessToken(adminRealm, createAdminTokenRequestBody()));
+    withAdminHeaders(headers -> {
+      createRealmIfNotExists(headers);
+      createClientIfNotExists(headers);
+      allowAdminManagedAttributes(headers);
+      disableVerifyProfile(headers);
+    });
+  }
 
-    createRealmIfNotExists(headers);
-    createClientIfNotExists(headers);
-    disableVerifyProfile(headers);
+  @PreDestroy
+  public void preDestroy() {
+    adminTokenHolder.close();
+    adminTokenScheduler.shutdownNow();
   }
 
+  // The admin token is cached and refreshed ahead of expiry, so a sign-up makes only the create user call.
   public void registerUser(final User user) {
-    HttpHeaders headers = getHttpHeaders(getAccessToken(adminRealm, createAdminTokenRequestBody()));
-
     Map<String, Object> userMap = createRegisterUserBody(user);
 
-    HttpEntity<Map<String, Object>> request = new HttpEntity<>(userMap, headers);
-
     String registerUserUrl = keycloakUrl + "/admin/realms/" + backendRealm + "/users";
 
-    restTemplate.postForEntity(registerUserUrl, request, Void.class);
+    withAdminHeaders(headers -> restTemplate.postForEntity(registerUserUrl,
+                                                           new HttpEntity<>(userMap, headers),
+                                                           Void.class));
   }
 
   public KeycloakTokenResponse loginUser(final User user) {
@@ -94,6 +127,22 @@ public class KeycloakAccessor {
     return response.getBody();
   }
 
+  // A token Keycloak no longer accepts, e.g. after a restart or a revoked session, is dropped and the call is retried
+  // once with a fresh one instead of failing every admin call until the cached token would have expired.
+  private void withAdminHeaders(final Consumer<HttpHeaders> call) {
+    String token = adminTokenHolder.getToken();
+
+    try {
+      call.accept(getHttpHeaders(token));
+    } catch (HttpClientErrorException.Unauthorized exception) {
+      log.warn("Keycloak rejected the cached admin token, fetching a new one.");
+
+      adminTokenHolder.invalidate(token);
+
+      call.accept(getHttpHeaders(adminTokenHolder.getToken()));
+    }
+  }
+
   private HttpHeaders getHttpHeaders(final String token) {
     HttpHeaders headers = new HttpHeaders();
     headers.setContentType(MediaType.APPLICATION_JSON);
@@ -102,6 +151,8 @@ public class KeycloakAccessor {
     return headers;
   }
 
+  // The user id travels as an admin managed attribute, so the token claim saves the per request lookup and the user
+  // can not change it from the account console.
   private Map<String, Object> createRegisterUserBody(final User user) {
     return Map.of("username",
                   user.getUsername(),
@@ -109,6 +160,8 @@ public class KeycloakAccessor {
                   user.getEmail(),
                   "enabled",
                   true,
+                  "attributes",
+                  Map.of(userIdClaim, List.of(user.getId().toString())),
                   "credentials",
                   Collections.singletonList(Map.of("type",
                                                    "password",
@@ -185,16 +238,16 @@ public class KeycloakAccessor {
       throw new KeycloakException("app.keycloak.clients.not.found");
     }
 
-    boolean isClientExists = false;
+    KeycloakClientResponse existingClient = null;
 
     for (KeycloakClientResponse keycloakClientResponse : response.getBody()) {
       if (keycloakClientResponse.clientId().equals(backendClientId)) {
-        isClientExists = true;
+        existingClient = keycloakClientResponse;
         break;
       }
     }
 
-    if (!isClientExists) {
+    if (existingClient == null) {
       log.info("Keycloak client does not exists. Creating client.");
 
       Map<String, Object> clientMap = Map.of("clientId",
@@ -212,16 +265,91 @@ public class KeycloakAccessor {
                                              "serviceAccountsEnabled",
                                              true,
                                              "enabled",
-                                             true);
+                                             true,
+                                             "protocolMappers",
+                                             List.of(createUserIdMapperBody()));
 
       restTemplate.postForEntity(clientsUrl, new HttpEntity<>(clientMap, headers), Void.class);
 
       log.info("Keycloak client created.");
     } else {
       log.info("Keycloak client already exists. Returning without creating the client.");
+
+      addUserIdMapperIfNotExists(clientsUrl, existingClient, headers);
     }
   }
 
+  private void addUserIdMapperIfNotExists(final String clientsUrl,
+                                          final KeycloakClientResponse client,
+                                          final HttpHeaders headers) {
+    List<KeycloakProtocolMapperResponse> mapperList = client.protocolMappers() == null
+        ? List.of()
+        : client.protocolMappers();
+
+    for (KeycloakProtocolMapperResponse mapper : mapperList) {
+      if (mapper.name().equals(userIdClaim)) {
+        return;
+      }
+    }
+
+    log.info("Keycloak client has no user id mapper. Creating mapper.");
+
+    String mappersUrl = clientsUrl + "/" + client.id() + "/protocol-mappers/models";
+
+    restTemplate.postForEntity(mappersUrl, new HttpEntity<>(createUserIdMapperBody(), headers), Void.class);
+
+    log.info("Keycloak user id mapper created.");
+  }
+
+  private Map<String, Object> createUserIdMapperBody() {
+    return Map.of("name",
+                  userIdClaim,
+                  "protocol",
+                  "openid-connect",
+                  "protocolMapper",
+                  "oidc-usermodel-attribute-mapper",
+                  "config",
+                  Map.of("user.attribute",
+                         userIdClaim,
+                         "claim.name",
+                         userIdClaim,
+                         "jsonType.label",
+                         "String",
+                         "access.token.claim",
+                         "true",
+                         "id.token.claim",
+                         "false",
+                         "userinfo.token.claim",
+                         "false"));
+  }
+
+  // Newer Keycloak versions drop attributes the user profile does not declare, so undeclared ones are kept but only
+  // administrators may see or edit them.
+  private void allowAdminManagedAttributes(final HttpHeaders headers) {
+    String profileUrl = keycloakUrl + "/admin/realms/" + backendRealm + "/users/profile";
+
+    ResponseEntity<Map<String, Object>> response = restTemplate.exchange(profileUrl,
+                                                                         HttpMethod.GET,
+                                                                         new HttpEntity<>(headers),
+                                                                         new ParameterizedTypeReference<>() {
+                                                                         });
+
+    if (response.getBody() == null) {
+      throw new KeycloakException("app.keycloak.user.profile.not.found");
+    }
+
+    if (UNMANAGED_ATTRIBUTE_POLICY.equals(response.getBody().get("unmanagedAttributePolicy"))) {
+      return;
+    }
+
+    Map<String, Object> profileMap = new HashMap<>(response.getBody());
+    profileMap.put("unmanagedAttributePolicy", UNMANAGED_ATTRIBUTE_POLICY);
+
+    restTemplate.exchange(profileUrl, HttpMethod.PUT, new HttpEntity<>(profileMap, headers), Void.class);
+
+    log.info("Keycloak user profile allows admin managed attributes.");
+  }
+
   private void disableVerifyProfile(final HttpHeaders headers) {
     log.info("Keycloak disabling verify profile.");
 
@@ -250,7 +378,12 @@ public class KeycloakAccessor {
     log.info("Keycloak disabled verify profile.");
   }
 
-  private String getAccessToken(final String realm, final MultiValueMap<String, String> tokenFormBody) {
+  private KeycloakTokenResponse fetchAdminToken() {
+    return getAccessToken(adminRealm, createAdminTokenRequestBody());
+  }
+
+  private KeycloakTokenResponse getAccessToken(final String realm,
+                                               final MultiValueMap<String, String> tokenFormBody) {
     String tokenUri = keycloakUrl + "/realms/" + realm + "/protocol/openid-connect/token";
 
     HttpHeaders headers = new HttpHeaders();
@@ -265,6 +398,6 @@ public class KeycloakAccessor {
       throw new KeycloakException("app.keycloak.admin.token.invalid");
     }
 
-    return response.getBody().accessToken();
+    return response.getBody();
   }
 }
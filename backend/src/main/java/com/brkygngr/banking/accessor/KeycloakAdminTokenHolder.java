@@ -0,0 +1,164 @@
+package com.brkygngr.banking.accessor;
+
+import com.brkygngr.banking.dto.keycloak.KeycloakTokenResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+class KeycloakAdminTokenHolder {
+
+  // A token is refreshed at three quarters of its life and no longer handed out at nine tenths, so a request that
+  // picks it up still has time to reach Keycloak before it expires.
+  private static final double REFRESH_RATIO = 0.75;
+
+  private static final double EXPIRY_RATIO = 0.9;
+
+  // A token granted with a tiny or zero lifetime would otherwise be refreshed back to back.
+  private static final Duration MIN_REFRESH_DELAY = Duration.ofSeconds(5);
+
+  private final Supplier<KeycloakTokenResponse> tokenSupplier;
+
+  private final Clock clock;
+
+  private final Executor executor;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final AtomicReference<CachedToken> cachedToken = new AtomicReference<>();
+
+  private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+
+  private final AtomicReference<ScheduledFuture<?>> scheduledRefresh = new AtomicReference<>();
+
+  private volatile boolean closed;
+
+  KeycloakAdminTokenHolder(final Supplier<KeycloakTokenResponse> tokenSupplier,
+                           final Clock clock,
+                           final Executor executor,
+                           final ScheduledExecutorService scheduler) {
+    this.tokenSupplier = tokenSupplier;
+    this.clock = clock;
+    this.executor = executor;
+    this.scheduler = scheduler;
+  }
+
+  String getToken() {
+    CachedToken token = cachedToken.get();
+    Instant now = clock.instant();
+
+    if (token != null && now.isBefore(token.expiresAt())) {
+      // Covers a scheduled refresh that failed; the caller keeps the still valid token either way.
+      if (!now.isBefore(token.refreshAt())) {
+        refresh();
+      }
+
+      return token.accessToken();
+    }
+
+    try {
+      return refresh().join().accessToken();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+
+      throw exception;
+    }
+  }
+
+  // Only the rejected token is dropped, so a 401 racing with a refresh never throws away the newer token.
+  void invalidate(final String accessToken) {
+    cachedToken.updateAndGet(token -> token != null && token.accessToken().equals(accessToken) ? null : token);
+  }
+
+  void close() {
+    closed = true;
+
+    cancel(scheduledRefresh.getAndSet(null));
+  }
+
+  // Every caller that finds the token stale joins the same request, so a burst of sign-ups costs one token grant.
+  private CompletableFuture<CachedToken> refresh() {
+    while (true) {
+      CompletableFuture<CachedToken> current = inFlight.get();
+
+      if (current != null) {
+        return current;
+      }
+
+      CompletableFuture<CachedToken> future = new CompletableFuture<>();
+
+      if (inFlight.compareAndSet(null, future)) {
+        executor.execute(() -> fetch(future));
+
+        return future;
+      }
+    }
+  }
+
+  private void fetch(final CompletableFuture<CachedToken> future) {
+    try {
+      CachedToken token = CachedToken.of(tokenSupplier.get(), clock.instant());
+
+      cachedToken.set(token);
+      future.complete(token);
+
+      scheduleRefresh(token);
+    } catch (RuntimeException exception) {
+      log.warn("Keycloak admin token could not be refreshed.", exception);
+
+      future.completeExceptionally(exception);
+    } finally {
+      inFlight.compareAndSet(future, null);
+    }
+  }
+
+  private void scheduleRefresh(final CachedToken token) {
+    if (closed) {
+      return;
+    }
+
+    long delayMillis = Math.max(MIN_REFRESH_DELAY.toMillis(),
+                                Duration.between(clock.instant(), token.refreshAt()).toMillis());
+
+    ScheduledFuture<?> next = scheduler.schedule(() -> {
+      if (!closed && cachedToken.get() == token) {
+        refresh();
+      }
+    }, delayMillis, TimeUnit.MILLISECONDS);
+
+    cancel(scheduledRefresh.getAndSet(next));
+
+    // A close that ran while this refresh was being scheduled has already missed it.
+    if (closed) {
+      cancel(scheduledRefresh.getAndSet(null));
+    }
+  }
+
+  private static void cancel(final ScheduledFuture<?> scheduled) {
+    if (scheduled != null) {
+      scheduled.cancel(false);
+    }
+  }
+
+  private record CachedToken(String accessToken, Instant refreshAt, Instant expiresAt) {
+
+    static CachedToken of(final KeycloakTokenResponse response, final Instant fetchedAt) {
+      long lifeMillis = TimeUnit.SECONDS.toMillis(response.expiresIn());
+
+      return new CachedToken(response.accessToken(),
+                             fetchedAt.plusMillis((long) (lifeMillis * REFRESH_RATIO)),
+                             fetchedAt.plusMillis((long) (lifeMillis * EXPIRY_RATIO)));
+    }
+  }
+}
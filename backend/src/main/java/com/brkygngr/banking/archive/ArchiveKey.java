@@ -0,0 +1,51 @@
+package com.brkygngr.banking.archive;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+// Uuids compare unsigned, the same order PostgreSQL and the history cursors use.
+record ArchiveKey(UUID accountId, LocalDateTime transactionDate, UUID transactionId) implements Comparable<ArchiveKey> {
+
+  static final int SIZE = Long.BYTES * 5 + Integer.BYTES;
+
+  void writeTo(final ByteBuffer buffer) {
+    putUuid(buffer, accountId);
+    buffer.putLong(transactionDate.toEpochSecond(ZoneOffset.UTC));
+    buffer.putInt(transactionDate.getNano());
+    putUuid(buffer, transactionId);
+  }
+
+  static ArchiveKey readFrom(final ByteBuffer buffer) {
+    return new ArchiveKey(getUuid(buffer),
+                          LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC),
+                          getUuid(buffer));
+  }
+
+  @Override
+  public int compareTo(final ArchiveKey other) {
+    int result = compareUuid(accountId, other.accountId);
+
+    if (result == 0) {
+      result = transactionDate.compareTo(other.transactionDate);
+    }
+
+    return result == 0 ? compareUuid(transactionId, other.transactionId) : result;
+  }
+
+  static int compareUuid(final UUID left, final UUID right) {
+    int result = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+
+    return result == 0 ? Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits()) : result;
+  }
+
+  static void putUuid(final ByteBuffer buffer, final UUID uuid) {
+    buffer.putLong(uuid.getMostSignificantBits());
+    buffer.putLong(uuid.getLeastSignificantBits());
+  }
+
+  static UUID getUuid(final ByteBuffer buffer) {
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+}
@@ -0,0 +1,33 @@
+package com.brkygngr.banking.archive;
+
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.money.Money;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+// Each transaction is stored once per account it touches, so an account's history is one contiguous key range.
+record ArchiveRecord(ArchiveKey key, UUID from, UUID to, Money amount, TransactionStatus status) {
+
+  static final int SIZE = ArchiveKey.SIZE + Long.BYTES * 5 + Byte.BYTES;
+
+  void writeTo(final ByteBuffer buffer) {
+    key.writeTo(buffer);
+    ArchiveKey.putUuid(buffer, from);
+    ArchiveKey.putUuid(buffer, to);
+    buffer.putLong(amount.minorUnits());
+    buffer.put((byte) status.ordinal());
+  }
+
+  static ArchiveRecord readFrom(final ByteBuffer buffer) {
+    return new ArchiveRecord(ArchiveKey.readFrom(buffer),
+                             ArchiveKey.getUuid(buffer),
+                             ArchiveKey.getUuid(buffer),
+                             Money.ofMinorUnits(buffer.getLong()),
+                             TransactionStatus.values()[buffer.get()]);
+  }
+
+  TransactionHistoryResponse toResponse() {
+    return new TransactionHistoryResponse(key.transactionId(), from, to, amount, key.transactionDate(), status);
+  }
+}
@@ -0,0 +1,156 @@
+package com.brkygngr.banking.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+class ArchiveSegment {
+
+  static final int MAGIC = 0x54584152;
+
+  static final int INDEX_ENTRY_SIZE = ArchiveKey.SIZE + Long.BYTES + Integer.BYTES * 2;
+
+  static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES * 2;
+
+  private final Path path;
+
+  private final MappedByteBuffer mapped;
+
+  private final List<BlockIndex> indexList;
+
+  // Segments are immutable, so the mapping is shared by every reader and pages are cached by the OS.
+  ArchiveSegment(final Path path) throws IOException {
+    this.path = path;
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      this.mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    int footerStart = mapped.capacity() - FOOTER_SIZE;
+
+    if (footerStart < 0 || mapped.getInt(footerStart + Long.BYTES + Integer.BYTES) != MAGIC) {
+      throw new IOException("Archive segment " + path + " has no valid footer");
+    }
+
+    int indexStart = (int) mapped.getLong(footerStart);
+    int blockCount = mapped.getInt(footerStart + Long.BYTES);
+
+    ByteBuffer index = mapped.slice(indexStart, blockCount * INDEX_ENTRY_SIZE);
+    List<BlockIndex> blockList = new ArrayList<>(blockCount);
+
+    for (int i = 0; i < blockCount; i++) {
+      blockList.add(BlockIndex.readFrom(index));
+    }
+
+    this.indexList = blockList;
+  }
+
+  // Visits records strictly between the two keys in ascending order.
+  void scan(final ArchiveKey lower, final ArchiveKey upper, final Consumer<ArchiveRecord> consumer) {
+    for (int block = findStartBlock(lower); block < indexList.size(); block++) {
+      BlockIndex index = indexList.get(block);
+
+      if (index.firstKey().compareTo(upper) >= 0) {
+        return;
+      }
+
+      ByteBuffer records = inflate(index);
+
+      while (records.hasRemaining()) {
+        ArchiveRecord record = ArchiveRecord.readFrom(records);
+
+        if (record.key().compareTo(upper) >= 0) {
+          return;
+        }
+
+        if (record.key().compareTo(lower) > 0) {
+          consumer.accept(record);
+        }
+      }
+    }
+  }
+
+  // Inflates every block, so a torn or corrupt segment is caught before the rows it holds are dropped elsewhere.
+  long verify() {
+    long records = 0;
+
+    for (BlockIndex index : indexList) {
+      records += inflate(index).remaining() / ArchiveRecord.SIZE;
+    }
+
+    return records;
+  }
+
+  private int findStartBlock(final ArchiveKey lower) {
+    int low = 0;
+    int high = indexList.size() - 1;
+    int start = 0;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+
+      if (indexList.get(middle).firstKey().compareTo(lower) <= 0) {
+        start = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+
+    return start;
+  }
+
+  private ByteBuffer inflate(final BlockIndex index) {
+    Inflater inflater = new Inflater();
+
+    try {
+      inflater.setInput(mapped.slice((int) index.offset(), index.length()));
+
+      byte[] records = new byte[index.records() * ArchiveRecord.SIZE];
+      int inflated = 0;
+
+      while (inflated < records.length) {
+        int count = inflater.inflate(records, inflated, records.length - inflated);
+
+        if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+
+        inflated += count;
+      }
+
+      if (inflated != records.length) {
+        throw new IllegalStateException("Archive segment " + path + " has a truncated block at " + index.offset());
+      }
+
+      return ByteBuffer.wrap(records);
+    } catch (DataFormatException exception) {
+      throw new IllegalStateException("Archive segment " + path + " has a corrupt block at " + index.offset(),
+                                      exception);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  record BlockIndex(ArchiveKey firstKey, long offset, int length, int records) {
+
+    void writeTo(final ByteBuffer buffer) {
+      firstKey.writeTo(buffer);
+      buffer.putLong(offset);
+      buffer.putInt(length);
+      buffer.putInt(records);
+    }
+
+    static BlockIndex readFrom(final ByteBuffer buffer) {
+      return new BlockIndex(ArchiveKey.readFrom(buffer), buffer.getLong(), buffer.getInt(), buffer.getInt());
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.brkygngr.banking.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+class ArchiveSegmentWriter implements Closeable {
+
+  private final FileChannel channel;
+
+  private final ByteBuffer block;
+
+  private final List<ArchiveSegment.BlockIndex> indexList = new ArrayList<>();
+
+  private ArchiveKey blockFirstKey;
+
+  private ArchiveKey lastKey;
+
+  private int blockRecords;
+
+  private long offset;
+
+  ArchiveSegmentWriter(final Path path, final int blockSize) throws IOException {
+    this.channel = FileChannel.open(path,
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                    StandardOpenOption.WRITE);
+    this.block = ByteBuffer.allocate(blockSize * ArchiveRecord.SIZE);
+  }
+
+  void append(final ArchiveRecord record) throws IOException {
+    if (lastKey != null && lastKey.compareTo(record.key()) >= 0) {
+      throw new IllegalStateException("Archive records must be appended in key order, " + record.key()
+                                          + " came after " + lastKey);
+    }
+
+    if (blockRecords == 0) {
+      blockFirstKey = record.key();
+    }
+
+    record.writeTo(block);
+    lastKey = record.key();
+    blockRecords++;
+
+    if (!block.hasRemaining()) {
+      flushBlock();
+    }
+  }
+
+  // Only the first key of each block is indexed; a lookup inflates one block and scans it.
+  @Override
+  public void close() throws IOException {
+    try {
+      if (blockRecords > 0) {
+        flushBlock();
+      }
+
+      ByteBuffer footer = ByteBuffer.allocate(indexList.size() * ArchiveSegment.INDEX_ENTRY_SIZE
+                                                  + ArchiveSegment.FOOTER_SIZE);
+
+      for (ArchiveSegment.BlockIndex index : indexList) {
+        index.writeTo(footer);
+      }
+
+      footer.putLong(offset);
+      footer.putInt(indexList.size());
+      footer.putInt(ArchiveSegment.MAGIC);
+      footer.flip();
+
+      write(footer);
+      channel.force(true);
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void flushBlock() throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(block.position() / 2);
+
+    try (DeflaterOutputStream output = new DeflaterOutputStream(compressed)) {
+      output.write(block.array(), 0, block.position());
+    }
+
+    indexList.add(new ArchiveSegment.BlockIndex(blockFirstKey, offset, compressed.size(), blockRecords));
+
+    write(ByteBuffer.wrap(compressed.toByteArray()));
+
+    block.clear();
+    blockRecords = 0;
+  }
+
+  private void write(final ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      offset += channel.write(buffer);
+    }
+  }
+}
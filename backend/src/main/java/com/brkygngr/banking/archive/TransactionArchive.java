@@ -0,0 +1,282 @@
+package com.brkygngr.banking.archive;
+
+import com.brkygngr.banking.dto.transaction.TransactionCursor;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class TransactionArchive {
+
+  private static final DateTimeFormatter MONTH_DIRECTORY = DateTimeFormatter.ofPattern("uuuu_MM");
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  private static final UUID MIN_ID = new UUID(0L, 0L);
+
+  private final Path directory;
+
+  private final int blockSize;
+
+  private final NavigableSet<YearMonth> monthSet = new ConcurrentSkipListSet<>();
+
+  private final Map<Path, Optional<ArchiveSegment>> segmentMap = new ConcurrentHashMap<>();
+
+  public TransactionArchive(@Value("${archive.directory}") final String directory,
+                            @Value("${archive.blockSize}") final int blockSize) throws IOException {
+    Path archiveDirectory = Path.of(directory);
+
+    // Any node may archive a partition and every node serves history from it, so all of them must share one directory.
+    if (!archiveDirectory.isAbsolute()) {
+      throw new IllegalStateException("archive.directory must be an absolute path on storage shared by every node, "
+                                          + "got '" + directory + "'");
+    }
+
+    this.directory = Files.createDirectories(archiveDirectory);
+    this.blockSize = blockSize;
+
+    try (Stream<Path> pathStream = Files.list(this.directory)) {
+      pathStream.map(path -> path.getFileName().toString())
+                .filter(name -> !name.endsWith(TEMPORARY_SUFFIX))
+                .forEach(name -> parseMonth(name).ifPresent(monthSet::add));
+    }
+
+    log.info("Transaction archive at {} holds {} months", this.directory, monthSet.size());
+  }
+
+  public NavigableSet<YearMonth> archivedMonths() {
+    return Collections.unmodifiableNavigableSet(monthSet);
+  }
+
+  // Only months that were archived are opened, so a history page for recent dates never touches the disk.
+  public List<TransactionHistoryResponse> findHistory(final UUID accountId,
+                                                      final TransactionCursor lower,
+                                                      final TransactionCursor upper,
+                                                      final int limit,
+                                                      final boolean ascending) {
+    final List<TransactionHistoryResponse> resultList = new ArrayList<>();
+
+    if (limit <= 0 || lower.transactionDate().isAfter(upper.transactionDate())) {
+      return resultList;
+    }
+
+    final NavigableSet<YearMonth> months = monthSet.subSet(YearMonth.from(lower.transactionDate()),
+                                                           true,
+                                                           YearMonth.from(upper.transactionDate()),
+                                                           true);
+    final ArchiveKey lowerKey = new ArchiveKey(accountId, lower.transactionDate(), lower.id());
+    final ArchiveKey upperKey = new ArchiveKey(accountId, upper.transactionDate(), upper.id());
+
+    for (YearMonth month : ascending ? months : months.descendingSet()) {
+      List<ArchiveRecord> recordList = scan(month, lowerKey, upperKey);
+
+      if (!ascending) {
+        Collections.reverse(recordList);
+      }
+
+      for (ArchiveRecord record : recordList) {
+        resultList.add(record.toResponse());
+
+        if (resultList.size() == limit) {
+          return resultList;
+        }
+      }
+    }
+
+    return resultList;
+  }
+
+  // Records are handed over as each block is inflated, so an export never holds a whole month in memory.
+  public void forEachInMonth(final UUID accountId,
+                             final YearMonth month,
+                             final Consumer<TransactionHistoryResponse> consumer) {
+    final ArchiveKey lowerKey = new ArchiveKey(accountId, month.atDay(1).atStartOfDay(), MIN_ID);
+    final ArchiveKey upperKey = new ArchiveKey(accountId, month.plusMonths(1).atDay(1).atStartOfDay(), MIN_ID);
+
+    findSegment(month, accountId).ifPresent(segment -> segment.scan(lowerKey,
+                                                                    upperKey,
+                                                                    record -> consumer.accept(record.toResponse())));
+  }
+
+  boolean isArchived(final YearMonth month) {
+    return monthSet.contains(month);
+  }
+
+  MonthWriter beginMonth(final YearMonth month) throws IOException {
+    Path temporaryDirectory = directory.resolve(month.format(MONTH_DIRECTORY) + TEMPORARY_SUFFIX);
+
+    deleteRecursively(temporaryDirectory);
+
+    return new MonthWriter(month, Files.createDirectories(temporaryDirectory));
+  }
+
+  // Segments are re-opened from disk instead of the cached mappings, so the count reflects what was actually written.
+  long verifyMonth(final YearMonth month) throws IOException {
+    long records = 0;
+
+    try (Stream<Path> pathStream = Files.list(directory.resolve(month.format(MONTH_DIRECTORY)))) {
+      for (Path path : pathStream.toList()) {
+        records += new ArchiveSegment(path).verify();
+      }
+    }
+
+    return records;
+  }
+
+  private List<ArchiveRecord> scan(final YearMonth month, final ArchiveKey lowerKey, final ArchiveKey upperKey) {
+    final List<ArchiveRecord> recordList = new ArrayList<>();
+
+    findSegment(month, lowerKey.accountId()).ifPresent(segment -> segment.scan(lowerKey, upperKey, recordList::add));
+
+    return recordList;
+  }
+
+  private Optional<ArchiveSegment> findSegment(final YearMonth month, final UUID accountId) {
+    Path path = directory.resolve(month.format(MONTH_DIRECTORY)).resolve(segmentName(rangeOf(accountId)));
+
+    return segmentMap.computeIfAbsent(path, segmentPath -> {
+      if (!Files.exists(segmentPath)) {
+        return Optional.empty();
+      }
+
+      try {
+        return Optional.of(new ArchiveSegment(segmentPath));
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      }
+    });
+  }
+
+  // Accounts are split into sixteen ranges by their leading hex digit, which keeps each segment small enough to map.
+  private static int rangeOf(final UUID accountId) {
+    return (int) (accountId.getMostSignificantBits() >>> 60);
+  }
+
+  private static String segmentName(final int range) {
+    return Integer.toHexString(range) + SEGMENT_SUFFIX;
+  }
+
+  private static Optional<YearMonth> parseMonth(final String name) {
+    try {
+      return Optional.of(YearMonth.parse(name, MONTH_DIRECTORY));
+    } catch (DateTimeParseException exception) {
+      return Optional.empty();
+    }
+  }
+
+  // New entries and renames only survive a crash once the directory holding them is synced as well.
+  private static void forceDirectory(final Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      channel.force(true);
+    }
+  }
+
+  private static void deleteRecursively(final Path path) throws IOException {
+    if (!Files.exists(path)) {
+      return;
+    }
+
+    try (Stream<Path> pathStream = Files.walk(path)) {
+      for (Path child : pathStream.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(child);
+      }
+    }
+  }
+
+  // A month is written to a temporary directory and renamed into place, so readers never see half a month.
+  final class MonthWriter implements Closeable {
+
+    private final YearMonth month;
+
+    private final Path temporaryDirectory;
+
+    private ArchiveSegmentWriter writer;
+
+    private int range = -1;
+
+    private long records;
+
+    private boolean committed;
+
+    private MonthWriter(final YearMonth month, final Path temporaryDirectory) {
+      this.month = month;
+      this.temporaryDirectory = temporaryDirectory;
+    }
+
+    void append(final ArchiveRecord record) throws IOException {
+      int recordRange = rangeOf(record.key().accountId());
+
+      if (recordRange != range) {
+        if (recordRange < range) {
+          throw new IllegalStateException("Archive records must be appended in account order");
+        }
+
+        closeWriter();
+
+        writer = new ArchiveSegmentWriter(temporaryDirectory.resolve(segmentName(recordRange)), blockSize);
+        range = recordRange;
+      }
+
+      writer.append(record);
+      records++;
+    }
+
+    long commit() throws IOException {
+      closeWriter();
+      forceDirectory(temporaryDirectory);
+
+      Files.move(temporaryDirectory,
+                 directory.resolve(month.format(MONTH_DIRECTORY)),
+                 StandardCopyOption.ATOMIC_MOVE);
+
+      forceDirectory(directory);
+
+      monthSet.add(month);
+      committed = true;
+
+      return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!committed) {
+        closeWriter();
+        deleteRecursively(temporaryDirectory);
+      }
+    }
+
+    private void closeWriter() throws IOException {
+      if (writer != null) {
+        writer.close();
+        writer = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.brkygngr.banking.archive;
+
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.service.TransactionPartitionManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.UUID;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Component
+public class TransactionArchiver {
+
+  private static final String FIND_DETACHED_PARTITIONS = "SELECT relname FROM pg_class "
+      + "WHERE relkind = 'r' AND NOT relispartition AND relnamespace = current_schema()::regnamespace "
+      + "AND relname LIKE 'transaction\\_p%'";
+
+  // One row per account a transaction touches, in the key order the segments are written in.
+  private static final String ARCHIVE_ROWS = "SELECT from_account_id AS account_id, id, from_account_id, "
+      + "to_account_id, amount, transaction_date, status FROM %1$s UNION ALL "
+      + "SELECT to_account_id, id, from_account_id, to_account_id, amount, transaction_date, status FROM %1$s "
+      + "WHERE to_account_id <> from_account_id ORDER BY account_id, transaction_date, id";
+
+  private static final String ARCHIVE_ROW_COUNT = "SELECT (SELECT count(*) FROM %1$s) "
+      + "+ (SELECT count(*) FROM %1$s WHERE to_account_id <> from_account_id)";
+
+  private final TransactionArchive transactionArchive;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  public TransactionArchiver(final TransactionArchive transactionArchive,
+                             final DataSource dataSource,
+                             final PlatformTransactionManager transactionManager,
+                             @Value("${archive.fetchSize}") final int fetchSize) {
+    this.transactionArchive = transactionArchive;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(fetchSize);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  // Only partitions TransactionPartitionManager has detached are archived, so no transfer can still write to them.
+  @Scheduled(fixedDelayString = "${archive.intervalMillis}")
+  public void archiveDetachedPartitions() {
+    for (String partition : jdbcTemplate.queryForList(FIND_DETACHED_PARTITIONS, String.class)) {
+      TransactionPartitionManager.partitionMonth(partition).ifPresent(month -> archive(partition, month));
+    }
+  }
+
+  private void archive(final String partition, final YearMonth month) {
+    try {
+      if (!transactionArchive.isArchived(month)) {
+        long records = write(partition, month);
+
+        log.info("Archived {} transaction records of {} from {}", records, month, partition);
+      }
+
+      // The table is dropped only once the synced month reads back with every row, so a crash or a bad write keeps it.
+      long expected = jdbcTemplate.queryForObject(ARCHIVE_ROW_COUNT.formatted(partition), Long.class);
+      long archived = transactionArchive.verifyMonth(month);
+
+      if (archived != expected) {
+        throw new IllegalStateException("Archive of " + month + " holds " + archived + " records, " + partition
+                                            + " has " + expected);
+      }
+
+      jdbcTemplate.execute("DROP TABLE " + partition);
+    } catch (IOException | RuntimeException exception) {
+      log.error("Could not archive transaction partition {}", partition, exception);
+    }
+  }
+
+  private long write(final String partition, final YearMonth month) throws IOException {
+    try (TransactionArchive.MonthWriter monthWriter = transactionArchive.beginMonth(month)) {
+      // The cursor only streams inside a transaction, so a month is never held in memory at once.
+      transactionTemplate.executeWithoutResult(
+          status -> jdbcTemplate.query(ARCHIVE_ROWS.formatted(partition),
+                                       (RowCallbackHandler) resultSet -> append(monthWriter, resultSet)));
+
+      return monthWriter.commit();
+    }
+  }
+
+  private void append(final TransactionArchive.MonthWriter monthWriter,
+                      final ResultSet resultSet) throws SQLException {
+    ArchiveKey key = new ArchiveKey(resultSet.getObject("account_id", UUID.class),
+                                    resultSet.getObject("transaction_date", LocalDateTime.class),
+                                    resultSet.getObject("id", UUID.class));
+
+    try {
+      monthWriter.append(new ArchiveRecord(key,
+                                           resultSet.getObject("from_account_id", UUID.class),
+                                           resultSet.getObject("to_account_id", UUID.class),
+                                           Money.of(resultSet.getBigDecimal("amount")),
+                                           TransactionStatus.valueOf(resultSet.getString("status"))));
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+}
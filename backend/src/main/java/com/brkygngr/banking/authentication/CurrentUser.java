@@ -0,0 +1,7 @@
+package com.brkygngr.banking.authentication;
+
+import java.util.UUID;
+
+public record CurrentUser(UUID id, String username) {
+
+}
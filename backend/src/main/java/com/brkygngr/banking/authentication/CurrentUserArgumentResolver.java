@@ -0,0 +1,78 @@
+package com.brkygngr.banking.authentication;
+
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.exception.UserNotFoundException;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+@Slf4j
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+  private static final String USERNAME_CLAIM = "preferred_username";
+
+  private static final String REQUEST_ATTRIBUTE = CurrentUser.class.getName();
+
+  private final UserIdentityCache userIdentityCache;
+
+  private final String userIdClaim;
+
+  public CurrentUserArgumentResolver(final UserIdentityCache userIdentityCache,
+                                     @Value("${user.idClaim}") final String userIdClaim) {
+    this.userIdentityCache = userIdentityCache;
+    this.userIdClaim = userIdClaim;
+  }
+
+  @Override
+  public boolean supportsParameter(final MethodParameter parameter) {
+    return CurrentUser.class.equals(parameter.getParameterType());
+  }
+
+  @Override
+  public CurrentUser resolveArgument(final MethodParameter parameter,
+                                     final ModelAndViewContainer mavContainer,
+                                     final NativeWebRequest webRequest,
+                                     final WebDataBinderFactory binderFactory) {
+    Object resolved = webRequest.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+    if (resolved instanceof CurrentUser currentUser) {
+      return currentUser;
+    }
+
+    if (!(webRequest.getUserPrincipal() instanceof JwtAuthenticationToken authentication)) {
+      throw UserNotFoundException.withDefaultMessage();
+    }
+
+    CurrentUser currentUser = resolve((Jwt) authentication.getPrincipal());
+
+    webRequest.setAttribute(REQUEST_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+
+    return currentUser;
+  }
+
+  // Tokens carrying the user id claim skip the lookup entirely; older tokens fall back to the identity cache.
+  private CurrentUser resolve(final Jwt principal) {
+    String username = principal.getClaimAsString(USERNAME_CLAIM);
+    String userId = principal.getClaimAsString(userIdClaim);
+
+    if (userId != null) {
+      try {
+        return new CurrentUser(UUID.fromString(userId), username);
+      } catch (IllegalArgumentException exception) {
+        log.warn("Token of user {} carries a malformed {} claim, resolving the user by name.", username, userIdClaim);
+      }
+    }
+
+    return userIdentityCache.findCurrentUser(username).orElseThrow(UserNotFoundException::withDefaultMessage);
+  }
+}
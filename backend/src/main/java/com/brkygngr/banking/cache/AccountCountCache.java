@@ -0,0 +1,40 @@
+package com.brkygngr.banking.cache;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AccountCountCache {
+
+  private final ExpiringLruCache<CountKey, Long> countCache;
+
+  public AccountCountCache(@Value("${account.countCache.maxSize}") final int maxSize,
+                           @Value("${account.countCache.ttlMillis}") final long ttlMillis) {
+    this.countCache = new ExpiringLruCache<>(maxSize, Duration.ofMillis(ttlMillis));
+  }
+
+  // Totals may lag behind by the ttl, which is fine for a page count and saves a COUNT per search.
+  public long count(final UUID userId, final String number, final String name, final LongSupplier counter) {
+    CountKey key = new CountKey(userId, number, name);
+
+    return countCache.get(key).orElseGet(() -> {
+      long count = counter.getAsLong();
+
+      countCache.put(key, count);
+
+      return count;
+    });
+  }
+
+  // Only the unfiltered total is dropped, since that is the one every account list shows right after a change.
+  public void invalidate(final UUID userId) {
+    countCache.invalidate(new CountKey(userId, "", ""));
+  }
+
+  private record CountKey(UUID userId, String number, String name) {
+
+  }
+}
@@ -0,0 +1,71 @@
+package com.brkygngr.banking.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+public class ExpiringLruCache<K, V> {
+
+  private final int maxSize;
+
+  private final long ttlNanos;
+
+  private final LongSupplier clock;
+
+  private final LinkedHashMap<K, CacheEntry<V>> entryMap;
+
+  public ExpiringLruCache(final int maxSize, final Duration ttl) {
+    this(maxSize, ttl, System::nanoTime);
+  }
+
+  ExpiringLruCache(final int maxSize, final Duration ttl, final LongSupplier clock) {
+    this.maxSize = maxSize;
+    this.ttlNanos = ttl.toNanos();
+    this.clock = clock;
+    this.entryMap = new LinkedHashMap<>(16, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<K, CacheEntry<V>> eldest) {
+        return size() > ExpiringLruCache.this.maxSize;
+      }
+    };
+  }
+
+  public synchronized Optional<V> get(final K key) {
+    CacheEntry<V> entry = entryMap.get(key);
+
+    if (entry == null) {
+      return Optional.empty();
+    }
+
+    if (clock.getAsLong() - entry.createdNanos() >= ttlNanos) {
+      entryMap.remove(key);
+
+      return Optional.empty();
+    }
+
+    return Optional.of(entry.value());
+  }
+
+  public synchronized void put(final K key, final V value) {
+    entryMap.put(key, new CacheEntry<>(value, clock.getAsLong()));
+  }
+
+  public synchronized void invalidate(final K key) {
+    entryMap.remove(key);
+  }
+
+  public synchronized void clear() {
+    entryMap.clear();
+  }
+
+  public synchronized int size() {
+    return entryMap.size();
+  }
+
+  private record CacheEntry<V>(V value, long createdNanos) {
+
+  }
+}
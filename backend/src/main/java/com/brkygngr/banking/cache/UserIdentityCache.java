@@ -0,0 +1,70 @@
+package com.brkygngr.banking.cache;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserIdentityCache {
+
+  private static final String METRIC_NAME = "user.identity.cache";
+
+  private final UserRepository userRepository;
+
+  private final ExpiringLruCache<String, CurrentUser> currentUserCache;
+
+  private final Counter hitCounter;
+
+  private final Counter missCounter;
+
+  public UserIdentityCache(final UserRepository userRepository,
+                           final MeterRegistry meterRegistry,
+                           @Value("${user.identityCache.maxSize}") final int maxSize,
+                           @Value("${user.identityCache.ttlMillis}") final long ttlMillis) {
+    this.userRepository = userRepository;
+    this.currentUserCache = new ExpiringLruCache<>(maxSize, Duration.ofMillis(ttlMillis));
+    this.hitCounter = Counter.builder(METRIC_NAME + ".requests")
+                             .tag("result", "hit")
+                             .register(meterRegistry);
+    this.missCounter = Counter.builder(METRIC_NAME + ".requests")
+                              .tag("result", "miss")
+                              .register(meterRegistry);
+
+    Gauge.builder(METRIC_NAME + ".size", currentUserCache, ExpiringLruCache::size).register(meterRegistry);
+  }
+
+  public Optional<CurrentUser> findCurrentUser(final String username) {
+    Optional<CurrentUser> cached = currentUserCache.get(username);
+
+    if (cached.isPresent()) {
+      hitCounter.increment();
+
+      return cached;
+    }
+
+    missCounter.increment();
+
+    Optional<CurrentUser> currentUser = userRepository.findByUsername(username)
+                                                      .map(user -> new CurrentUser(user.getId(), user.getUsername()));
+
+    currentUser.ifPresent(value -> currentUserCache.put(username, value));
+
+    return currentUser;
+  }
+
+  // A lazy reference is enough for ownership filters and foreign keys, so app_user is never queried.
+  public User getReference(final CurrentUser currentUser) {
+    return userRepository.getReferenceById(currentUser.id());
+  }
+
+  public void invalidate(final String username) {
+    currentUserCache.invalidate(username);
+  }
+}
@@ -0,0 +1,22 @@
+package com.brkygngr.banking.configuration;
+
+import java.util.concurrent.Callable;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+// A StreamingResponseBody has no timeout of its own, so a handler that needs longer than the default asks per request.
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+  public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".timeoutMillis";
+
+  // Runs before the request goes async, which is the last point its timeout can still be changed.
+  @Override
+  public <T> void beforeConcurrentHandling(final NativeWebRequest request, final Callable<T> task) {
+    if (request instanceof AsyncWebRequest asyncWebRequest
+        && request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long timeoutMillis) {
+      asyncWebRequest.setTimeout(timeoutMillis);
+    }
+  }
+}
@@ -1,14 +1,75 @@
 package com.brkygngr.banking.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestConfig {
 
+  // Connections stay open between calls and every wait is bounded, so a slow Keycloak fails a request instead of
+  // holding its thread.
   @Bean
-  public RestTemplate restTemplate() {
-    return new RestTemplate();
+  public CloseableHttpClient keycloakHttpClient(final MeterRegistry meterRegistry,
+                                                @Value("${keycloak.http.maxConnections}") final int maxConnections,
+                                                @Value("${keycloak.http.maxConnectionsPerRoute}")
+                                                final int maxConnectionsPerRoute,
+                                                @Value("${keycloak.http.connectTimeoutMillis}")
+                                                final long connectTimeoutMillis,
+                                                @Value("${keycloak.http.readTimeoutMillis}")
+                                                final long readTimeoutMillis,
+                                                @Value("${keycloak.http.poolTimeoutMillis}")
+                                                final long poolTimeoutMillis,
+                                                @Value("${keycloak.http.idleTimeoutMillis}")
+                                                final long idleTimeoutMillis,
+                                                @Value("${keycloak.http.timeToLiveMillis}")
+                                                final long timeToLiveMillis) {
+    ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                                                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                                                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                                                        .setTimeToLive(TimeValue.ofMilliseconds(timeToLiveMillis))
+                                                        .build();
+
+    PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder
+        .create()
+        .setMaxConnTotal(maxConnections)
+        .setMaxConnPerRoute(maxConnectionsPerRoute)
+        .setDefaultConnectionConfig(connectionConfig)
+        .build();
+
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "keycloak").bindTo(meterRegistry);
+
+    RequestConfig requestConfig = RequestConfig.custom()
+                                               .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMillis))
+                                               .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                                               .build();
+
+    return HttpClients.custom()
+                      .setConnectionManager(connectionManager)
+                      .setDefaultRequestConfig(requestConfig)
+                      .evictExpiredConnections()
+                      .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeoutMillis))
+                      .build();
+  }
+
+  // Built from the builder so calls are still recorded as http.client.requests.
+  @Bean
+  public RestTemplate keycloakRestTemplate(final RestTemplateBuilder restTemplateBuilder,
+                                           @Qualifier("keycloakHttpClient") final CloseableHttpClient httpClient) {
+    return restTemplateBuilder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient)).build();
   }
 }
@@ -34,7 +34,13 @@ public class SecurityConfig {
     CorsConfiguration configuration = new CorsConfiguration();
     configuration.setAllowedOrigins(List.of("http://localhost:3000"));
     configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE"));
-    configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
+    configuration.setAllowedHeaders(List.of("Authorization",
+                                             "Cache-Control",
+                                             "Content-Type",
+                                             "Idempotency-Key",
+                                             "If-None-Match",
+                                             "Prefer"));
+    configuration.setExposedHeaders(List.of("ETag", "Location", "Preference-Applied"));
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/**", configuration);
@@ -0,0 +1,32 @@
+package com.brkygngr.banking.configuration;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.authentication.CurrentUserArgumentResolver;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springdoc.core.utils.SpringDocUtils;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@RequiredArgsConstructor
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  static {
+    SpringDocUtils.getConfig().addRequestWrapperToIgnore(CurrentUser.class);
+  }
+
+  private final CurrentUserArgumentResolver currentUserArgumentResolver;
+
+  @Override
+  public void addArgumentResolvers(final List<HandlerMethodArgumentResolver> resolvers) {
+    resolvers.add(currentUserArgumentResolver);
+  }
+
+  @Override
+  public void configureAsyncSupport(final AsyncSupportConfigurer configurer) {
+    configurer.registerCallableInterceptors(new AsyncTimeoutInterceptor());
+  }
+}
@@ -1,7 +1,13 @@
 package com.brkygngr.banking.controller;
 
+import com.brkygngr.banking.authentication.CurrentUser;
 import com.brkygngr.banking.dto.ExceptionResponse;
 import com.brkygngr.banking.dto.account.AccountResponse;
+import com.brkygngr.banking.dto.account.AccountStatementQuery;
+import com.brkygngr.banking.dto.account.AccountStatementResponse;
+import com.brkygngr.banking.dto.account.BulkAccountsResponse;
+import com.brkygngr.banking.dto.account.BulkCreateAccountsRequest;
+import com.brkygngr.banking.dto.account.BulkUpdateAccountsRequest;
 import com.brkygngr.banking.dto.account.CreateAccountRequest;
 import com.brkygngr.banking.dto.account.CreateAccountResponse;
 import com.brkygngr.banking.dto.account.SearchAccountsQuery;
@@ -15,8 +21,10 @@ import java.util.UUID;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface AccountController {
 
@@ -36,22 +44,41 @@ public interface AccountController {
                                       schema = @Schema(implementation = ExceptionResponse.class)))
   })
   public ResponseEntity<CreateAccountResponse> createAccount(@ParameterObject CreateAccountRequest createAccountRequest,
-                                                             JwtAuthenticationToken authentication);
+                                                             CurrentUser currentUser);
 
-  @Operation(summary = "Searches accounts.")
+  @Operation(summary = "Creates many accounts for the authenticated user in one request.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200",
-                   description = "Successful response that returns found accounts.",
+                   description = "Successful response that returns the result of each account in request order.",
                    content = @Content(mediaType = "application/json",
-                                      schema = @Schema(implementation = Page.class))),
+                                      schema = @Schema(implementation = BulkAccountsResponse.class))),
+      @ApiResponse(responseCode = "400",
+                   description = "Failure response that returns request validation errors.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class))),
+      @ApiResponse(responseCode = "404",
+                   description = "Failure response when user is not found.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  public ResponseEntity<BulkAccountsResponse> createAccounts(
+      @ParameterObject BulkCreateAccountsRequest bulkCreateAccountsRequest,
+      CurrentUser currentUser);
+
+  @Operation(summary = "Searches accounts. Send withTotal=false to skip totals, or after to page by account id.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+                   description = "Successful response that returns found accounts, as a page when totals are asked.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(oneOf = {Page.class, Slice.class}))),
       @ApiResponse(responseCode = "400",
                    description = "Failure response that returns request validation errors",
                    content = @Content(mediaType = "application/json",
                                       schema = @Schema(implementation = ExceptionResponse.class)))
   })
-  public ResponseEntity<Page<AccountResponse>> searchAccounts(@ParameterObject SearchAccountsQuery searchAccountsQuery,
-                                                              @ParameterObject Pageable pageable,
-                                                              JwtAuthenticationToken authentication);
+  public ResponseEntity<Slice<AccountResponse>> searchAccounts(@ParameterObject SearchAccountsQuery searchAccountsQuery,
+                                                               @ParameterObject Pageable pageable,
+                                                               CurrentUser currentUser);
 
   @Operation(summary = "Updates account.")
   @ApiResponses(value = {
@@ -68,7 +95,26 @@ public interface AccountController {
   })
   public ResponseEntity<Void> updateAccount(UUID accountId,
                                             @ParameterObject UpdateAccountRequest updateAccountRequest,
-                                            JwtAuthenticationToken authentication);
+                                            CurrentUser currentUser);
+
+  @Operation(summary = "Updates many accounts in one request.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+                   description = "Successful response that returns the result of each account in request order.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = BulkAccountsResponse.class))),
+      @ApiResponse(responseCode = "400",
+                   description = "Failure response that returns request validation errors.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class))),
+      @ApiResponse(responseCode = "404",
+                   description = "Failure response when user is not found.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  public ResponseEntity<BulkAccountsResponse> updateAccounts(
+      @ParameterObject BulkUpdateAccountsRequest bulkUpdateAccountsRequest,
+      CurrentUser currentUser);
 
   @Operation(summary = "Deletes account.")
   @ApiResponses(value = {
@@ -83,7 +129,7 @@ public interface AccountController {
                    content = @Content(mediaType = "application/json",
                                       schema = @Schema(implementation = ExceptionResponse.class)))
   })
-  public ResponseEntity<Void> deleteAccount(UUID accountId, JwtAuthenticationToken authentication);
+  public ResponseEntity<Void> deleteAccount(UUID accountId, CurrentUser currentUser);
 
   @Operation(summary = "View account details.")
   @ApiResponses(value = {
@@ -91,6 +137,8 @@ public interface AccountController {
                    description = "Successful response returned when user is authenticated.",
                    content = @Content(mediaType = "application/json",
                                       schema = @Schema(implementation = AccountResponse.class))),
+      @ApiResponse(responseCode = "304",
+                   description = "Account has not changed since the ETag sent in If-None-Match."),
       @ApiResponse(responseCode = "400",
                    description = "Failure response that returns request validation errors",
                    content = @Content(mediaType = "application/json",
@@ -100,6 +148,33 @@ public interface AccountController {
                    content = @Content(mediaType = "application/json",
                                       schema = @Schema(implementation = ExceptionResponse.class)))
   })
-  public ResponseEntity<AccountResponse> getAccount(UUID accountId, JwtAuthenticationToken authentication);
+  public ResponseEntity<AccountResponse> getAccount(UUID accountId, CurrentUser currentUser, WebRequest webRequest);
 
+  @Operation(summary = "Returns daily inflow, outflow, transaction count and closing balance of an account.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+                   description = "Successful response that returns the statement of the account.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = AccountStatementResponse.class))),
+      @ApiResponse(responseCode = "400",
+                   description = "Failure response that returns request validation errors",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class))),
+      @ApiResponse(responseCode = "404",
+                   description = "Account not found.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  public ResponseEntity<AccountStatementResponse> getStatement(UUID accountId,
+                                                               @ParameterObject
+                                                               AccountStatementQuery accountStatementQuery,
+                                                               CurrentUser currentUser);
+
+  @Operation(summary = "Streams new transactions and balance changes of the authenticated user's accounts.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+                   description = "Server-sent events named transaction and balance, plus periodic heartbeats.",
+                   content = @Content(mediaType = "text/event-stream"))
+  })
+  public SseEmitter streamAccounts(CurrentUser currentUser);
 }
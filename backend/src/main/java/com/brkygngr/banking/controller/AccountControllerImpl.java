@@ -1,20 +1,28 @@
 package com.brkygngr.banking.controller;
 
+import com.brkygngr.banking.authentication.CurrentUser;
 import com.brkygngr.banking.dto.account.AccountResponse;
+import com.brkygngr.banking.dto.account.AccountStatementQuery;
+import com.brkygngr.banking.dto.account.AccountStatementResponse;
+import com.brkygngr.banking.dto.account.BulkAccountsResponse;
+import com.brkygngr.banking.dto.account.BulkCreateAccountsRequest;
+import com.brkygngr.banking.dto.account.BulkUpdateAccountsRequest;
 import com.brkygngr.banking.dto.account.CreateAccountRequest;
 import com.brkygngr.banking.dto.account.CreateAccountResponse;
 import com.brkygngr.banking.dto.account.SearchAccountsQuery;
 import com.brkygngr.banking.dto.account.UpdateAccountRequest;
 import com.brkygngr.banking.service.AccountService;
+import com.brkygngr.banking.service.AccountStatementService;
+import com.brkygngr.banking.service.AccountStreamService;
 import jakarta.validation.Valid;
 import java.net.URI;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -23,6 +31,8 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RequiredArgsConstructor
@@ -30,18 +40,21 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 @RequestMapping("/api/accounts")
 public class AccountControllerImpl implements AccountController {
 
+  // Clients may keep a copy but must revalidate it, which is what makes If-None-Match worth sending.
+  private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
   private final AccountService accountService;
 
+  private final AccountStatementService accountStatementService;
+
+  private final AccountStreamService accountStreamService;
+
   @PostMapping
   @Override
   public ResponseEntity<CreateAccountResponse> createAccount(@RequestBody
                                                              @Valid final CreateAccountRequest createAccountRequest,
-                                                             final JwtAuthenticationToken authentication) {
-    Jwt principal = (Jwt) authentication.getPrincipal();
-
-    String username = principal.getClaim("preferred_username");
-
-    CreateAccountResponse response = accountService.createAccount(username, createAccountRequest);
+                                                             final CurrentUser currentUser) {
+    CreateAccountResponse response = accountService.createAccount(currentUser, createAccountRequest);
 
     URI location = ServletUriComponentsBuilder.fromCurrentRequest()
                                               .path("/{id}")
@@ -51,18 +64,22 @@ public class AccountControllerImpl implements AccountController {
     return ResponseEntity.created(location).body(response);
   }
 
-  @GetMapping
+  @PostMapping("/bulk")
   @Override
-  public ResponseEntity<Page<AccountResponse>> searchAccounts(@Valid final SearchAccountsQuery searchAccountsQuery,
-                                                              final Pageable pageable,
-                                                              final JwtAuthenticationToken authentication) {
-    Jwt principal = (Jwt) authentication.getPrincipal();
-
-    String username = principal.getClaim("preferred_username");
+  public ResponseEntity<BulkAccountsResponse> createAccounts(
+      @RequestBody @Valid final BulkCreateAccountsRequest bulkCreateAccountsRequest,
+      final CurrentUser currentUser) {
+    return ResponseEntity.ok(accountService.createAccounts(currentUser, bulkCreateAccountsRequest));
+  }
 
+  @GetMapping
+  @Override
+  public ResponseEntity<Slice<AccountResponse>> searchAccounts(@Valid final SearchAccountsQuery searchAccountsQuery,
+                                                               final Pageable pageable,
+                                                               final CurrentUser currentUser) {
     SearchAccountsQuery query = searchAccountsQuery == null ? SearchAccountsQuery.empty() : searchAccountsQuery;
 
-    Page<AccountResponse> response = accountService.searchAccounts(username, query, pageable);
+    Slice<AccountResponse> response = accountService.searchAccounts(currentUser, query, pageable);
 
     return ResponseEntity.ok(response);
   }
@@ -71,25 +88,25 @@ public class AccountControllerImpl implements AccountController {
   @Override
   public ResponseEntity<Void> updateAccount(@PathVariable final UUID accountId,
                                             @RequestBody @Valid final UpdateAccountRequest updateAccountRequest,
-                                            final JwtAuthenticationToken authentication) {
-    Jwt principal = (Jwt) authentication.getPrincipal();
-
-    String username = principal.getClaim("preferred_username");
-
-    accountService.updateAccount(username, accountId, updateAccountRequest);
+                                            final CurrentUser currentUser) {
+    accountService.updateAccount(currentUser, accountId, updateAccountRequest);
 
     return ResponseEntity.noContent().build();
   }
 
+  @PutMapping("/bulk")
+  @Override
+  public ResponseEntity<BulkAccountsResponse> updateAccounts(
+      @RequestBody @Valid final BulkUpdateAccountsRequest bulkUpdateAccountsRequest,
+      final CurrentUser currentUser) {
+    return ResponseEntity.ok(accountService.updateAccounts(currentUser, bulkUpdateAccountsRequest));
+  }
+
   @DeleteMapping("/{accountId}")
   @Override
   public ResponseEntity<Void> deleteAccount(@PathVariable final UUID accountId,
-                                            final JwtAuthenticationToken authentication) {
-    Jwt principal = (Jwt) authentication.getPrincipal();
-
-    String username = principal.getClaim("preferred_username");
-
-    accountService.deleteAccount(username, accountId);
+                                            final CurrentUser currentUser) {
+    accountService.deleteAccount(currentUser, accountId);
 
     return ResponseEntity.noContent().build();
   }
@@ -97,13 +114,33 @@ public class AccountControllerImpl implements AccountController {
   @GetMapping("/{accountId}")
   @Override
   public ResponseEntity<AccountResponse> getAccount(@PathVariable final UUID accountId,
-                                                    final JwtAuthenticationToken authentication) {
-    Jwt principal = (Jwt) authentication.getPrincipal();
+                                                    final CurrentUser currentUser,
+                                                    final WebRequest webRequest) {
+    // The tag is read before the account, so it never describes newer data than the body sent with it.
+    if (webRequest.checkNotModified(accountService.getAccountETag(currentUser, accountId))) {
+      return null;
+    }
 
-    String username = principal.getClaim("preferred_username");
+    AccountResponse response = accountService.getAccount(currentUser, accountId);
 
-    AccountResponse response = accountService.getAccount(username, accountId);
+    return ResponseEntity.ok().cacheControl(REVALIDATE).body(response);
+  }
+
+  @GetMapping("/{accountId}/statements")
+  @Override
+  public ResponseEntity<AccountStatementResponse> getStatement(@PathVariable final UUID accountId,
+                                                               @Valid final AccountStatementQuery accountStatementQuery,
+                                                               final CurrentUser currentUser) {
+    AccountStatementResponse response = accountStatementService.getStatement(currentUser,
+                                                                              accountId,
+                                                                              accountStatementQuery);
 
     return ResponseEntity.ok(response);
   }
-}
\ No newline at end of file
+
+  @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Override
+  public SseEmitter streamAccounts(final CurrentUser currentUser) {
+    return accountStreamService.subscribe(currentUser);
+  }
+}
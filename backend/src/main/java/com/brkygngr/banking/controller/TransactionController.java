@@ -1,18 +1,26 @@
 package com.brkygngr.banking.controller;
 
+import com.brkygngr.banking.authentication.CurrentUser;
 import com.brkygngr.banking.dto.ExceptionResponse;
+import com.brkygngr.banking.dto.transaction.AccountHistoryQuery;
+import com.brkygngr.banking.dto.transaction.AccountHistoryResponse;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.ExportFormat;
 import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
 import com.brkygngr.banking.dto.transaction.TransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.TransferSubmittedResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
-import java.util.List;
 import java.util.UUID;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface TransactionController {
 
@@ -20,6 +28,10 @@ public interface TransactionController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "204",
                    description = "Successful response returned when money is transferred."),
+      @ApiResponse(responseCode = "202",
+                   description = "Transfer is queued when the request prefers respond-async.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = TransferSubmittedResponse.class))),
       @ApiResponse(responseCode = "400",
                    description = "Failure response that returns request validation errors.",
                    content = @Content(mediaType = "application/json",
@@ -32,25 +44,90 @@ public interface TransactionController {
                    description = "Account not found.",
                    content = @Content(mediaType = "application/json",
                                       schema = @Schema(implementation = ExceptionResponse.class))),
+      @ApiResponse(responseCode = "409",
+                   description = "Idempotency key is in progress or was used with a different request.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class))),
       @ApiResponse(responseCode = "422",
                    description = "Transaction was unsuccessful.")
   })
   public ResponseEntity<?> transferMoney(@ParameterObject TransferMoneyRequest transferMoneyRequest,
-                                         JwtAuthenticationToken authentication);
+                                         @Parameter(description = "Repeated keys return the first result.")
+                                         String idempotencyKey,
+                                         @Parameter(description = "Send respond-async to queue the transfer.")
+                                         String prefer,
+                                         CurrentUser currentUser);
 
-  @Operation(summary = "View account transaction history.")
+  @Operation(summary = "Transfer money between accounts in a single batch.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200",
-                   description = "Successful response returned when money is transferred."),
+                   description = "Successful response that returns the result of each transfer in request order.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = BatchTransferMoneyResponse.class))),
       @ApiResponse(responseCode = "400",
                    description = "Failure response that returns request validation errors.",
                    content = @Content(mediaType = "application/json",
-                                      schema = @Schema(implementation = TransactionHistoryResponse[].class))),
+                                      schema = @Schema(implementation = ExceptionResponse.class))),
+      @ApiResponse(responseCode = "404",
+                   description = "User not found.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  public ResponseEntity<BatchTransferMoneyResponse> transferMoneyBatch(
+      @ParameterObject BatchTransferMoneyRequest batchTransferMoneyRequest,
+      CurrentUser currentUser);
+
+  @Operation(summary = "View a transaction and its status.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+                   description = "Successful response that returns the transaction.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = TransactionHistoryResponse.class))),
+      @ApiResponse(responseCode = "404",
+                   description = "Transaction not found.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  public ResponseEntity<TransactionHistoryResponse> getTransaction(UUID transactionId,
+                                                                   CurrentUser currentUser);
+
+  @Operation(summary = "View account transaction history, newest first, one page at a time.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+                   description = "Successful response that returns a page of transactions and the cursors around it.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = AccountHistoryResponse.class))),
+      @ApiResponse(responseCode = "304",
+                   description = "No transaction of the account has changed since the ETag sent in If-None-Match."),
+      @ApiResponse(responseCode = "400",
+                   description = "Failure response that returns request validation errors.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class))),
+      @ApiResponse(responseCode = "404",
+                   description = "Account not found.",
+                   content = @Content(mediaType = "application/json",
+                                      schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  public ResponseEntity<AccountHistoryResponse> accountHistory(UUID accountId,
+                                                               @ParameterObject AccountHistoryQuery accountHistoryQuery,
+                                                               CurrentUser currentUser,
+                                                               WebRequest webRequest);
+
+  @Operation(summary = "Download the full account transaction history, oldest first.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+                   description = "Successful response that streams one transaction per line.",
+                   content = {
+                       @Content(mediaType = "application/x-ndjson"),
+                       @Content(mediaType = "text/csv")
+                   }),
       @ApiResponse(responseCode = "404",
                    description = "Account not found.",
                    content = @Content(mediaType = "application/json",
                                       schema = @Schema(implementation = ExceptionResponse.class)))
   })
-  public ResponseEntity<List<TransactionHistoryResponse>> accountHistory(UUID accountId,
-                                                                         JwtAuthenticationToken authentication);
+  public ResponseEntity<StreamingResponseBody> exportAccountHistory(UUID accountId,
+                                                                    ExportFormat format,
+                                                                    CurrentUser currentUser,
+                                                                    WebRequest webRequest);
 }
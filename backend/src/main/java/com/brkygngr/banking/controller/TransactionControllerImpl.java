@@ -1,43 +1,87 @@
 package com.brkygngr.banking.controller;
 
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.configuration.AsyncTimeoutInterceptor;
 import com.brkygngr.banking.dto.ExceptionResponse;
+import com.brkygngr.banking.dto.transaction.AccountHistoryQuery;
+import com.brkygngr.banking.dto.transaction.AccountHistoryResponse;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.ExportFormat;
 import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
 import com.brkygngr.banking.dto.transaction.TransferMoneyRequest;
 import com.brkygngr.banking.dto.transaction.TransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.TransferSubmittedResponse;
 import com.brkygngr.banking.entity.Transaction.TransactionStatus;
 import com.brkygngr.banking.exception.ExceptionCode;
+import com.brkygngr.banking.service.AccountService;
+import com.brkygngr.banking.service.IdempotencyService;
+import com.brkygngr.banking.service.TransactionExportService;
 import com.brkygngr.banking.service.TransactionService;
 import jakarta.validation.Valid;
+import java.net.URI;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionControllerImpl implements TransactionController {
 
+  private static final String RESPOND_ASYNC = "respond-async";
+
+  private static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+  private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
   private final TransactionService transactionService;
 
+  private final IdempotencyService idempotencyService;
+
+  private final TransactionExportService transactionExportService;
+
+  private final AccountService accountService;
+
   @PostMapping("/transfer")
   @Override
   public ResponseEntity<?> transferMoney(@RequestBody @Valid final TransferMoneyRequest transferMoneyRequest,
-                                         final JwtAuthenticationToken authentication) {
-    Jwt principal = (Jwt) authentication.getPrincipal();
+                                         @RequestHeader(name = "Idempotency-Key", required = false)
+                                         final String idempotencyKey,
+                                         @RequestHeader(name = "Prefer", required = false)
+                                         final String prefer,
+                                         final CurrentUser currentUser) {
+    if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+      // A retried submission replays the stored transaction id, so the client keeps polling the same Location.
+      TransferSubmittedResponse submittedResponse = idempotencyKey == null
+          ? transactionService.submitTransfer(currentUser, transferMoneyRequest)
+          : idempotencyService.submitTransfer(currentUser, idempotencyKey, transferMoneyRequest);
 
-    String username = principal.getClaim("preferred_username");
+      return ResponseEntity.accepted()
+                           .location(URI.create("/api/transactions/" + submittedResponse.transactionId()))
+                           .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                           .body(submittedResponse);
+    }
 
-    TransferMoneyResponse transferMoneyResponse = transactionService.transferMoney(username, transferMoneyRequest);
+    TransferMoneyResponse transferMoneyResponse = idempotencyKey == null
+        ? transactionService.transferMoney(currentUser, transferMoneyRequest)
+        : idempotencyService.transferMoney(currentUser, idempotencyKey, transferMoneyRequest);
 
     if (transferMoneyResponse.status().equals(TransactionStatus.SUCCESS)) {
       return ResponseEntity.noContent().build();
@@ -50,14 +94,61 @@ public class TransactionControllerImpl implements TransactionController {
     return ResponseEntity.unprocessableEntity().body(exceptionResponse);
   }
 
+  @PostMapping("/transfer/batch")
+  @Override
+  public ResponseEntity<BatchTransferMoneyResponse> transferMoneyBatch(
+      @RequestBody @Valid final BatchTransferMoneyRequest batchTransferMoneyRequest,
+      final CurrentUser currentUser) {
+    return ResponseEntity.ok(transactionService.transferMoneyBatch(currentUser, batchTransferMoneyRequest));
+  }
+
+  @GetMapping("/{transactionId}")
+  @Override
+  public ResponseEntity<TransactionHistoryResponse> getTransaction(@PathVariable final UUID transactionId,
+                                                                   final CurrentUser currentUser) {
+    return ResponseEntity.ok(transactionService.getTransaction(currentUser, transactionId));
+  }
+
   @GetMapping("/account/{accountId}")
   @Override
-  public ResponseEntity<List<TransactionHistoryResponse>> accountHistory(@PathVariable final UUID accountId,
-                                                                         final JwtAuthenticationToken authentication) {
-    Jwt principal = (Jwt) authentication.getPrincipal();
+  public ResponseEntity<AccountHistoryResponse> accountHistory(@PathVariable final UUID accountId,
+                                                               @Valid final AccountHistoryQuery accountHistoryQuery,
+                                                               final CurrentUser currentUser,
+                                                               final WebRequest webRequest) {
+    // New and settled transactions move the tag as well, so it covers the newest history rows too.
+    if (webRequest.checkNotModified(accountService.getAccountETag(currentUser, accountId))) {
+      return null;
+    }
+
+    AccountHistoryQuery query = accountHistoryQuery == null ? AccountHistoryQuery.empty() : accountHistoryQuery;
+
+    return ResponseEntity.ok()
+                         .cacheControl(REVALIDATE)
+                         .body(transactionService.accountHistory(currentUser, accountId, query));
+  }
+
+  @GetMapping("/account/{accountId}/export")
+  @Override
+  public ResponseEntity<StreamingResponseBody> exportAccountHistory(@PathVariable final UUID accountId,
+                                                                    @RequestParam(defaultValue = "NDJSON")
+                                                                    final ExportFormat format,
+                                                                    final CurrentUser currentUser,
+                                                                    final WebRequest webRequest) {
+    StreamingResponseBody body = transactionExportService.exportAccountHistory(currentUser, accountId, format);
+
+    // Only the download may outlive the default async timeout, every other async request keeps it.
+    webRequest.setAttribute(AsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE,
+                            transactionExportService.getTimeoutMillis(),
+                            RequestAttributes.SCOPE_REQUEST);
 
-    String username = principal.getClaim("preferred_username");
+    ContentDisposition contentDisposition = ContentDisposition.attachment()
+                                                              .filename("account-" + accountId + "."
+                                                                            + format.getExtension())
+                                                              .build();
 
-    return ResponseEntity.ok(transactionService.accountHistory(username, accountId));
+    return ResponseEntity.ok()
+                         .contentType(MediaType.parseMediaType(format.getContentType()))
+                         .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                         .body(body);
   }
 }
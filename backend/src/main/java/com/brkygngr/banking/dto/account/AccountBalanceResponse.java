@@ -0,0 +1,8 @@
+package com.brkygngr.banking.dto.account;
+
+import com.brkygngr.banking.money.Money;
+import java.util.UUID;
+
+public record AccountBalanceResponse(UUID accountId, Money balance) {
+
+}
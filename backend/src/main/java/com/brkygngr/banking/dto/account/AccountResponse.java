@@ -1,12 +1,16 @@
 package com.brkygngr.banking.dto.account;
 
 import com.brkygngr.banking.entity.Account;
-import java.math.BigDecimal;
+import com.brkygngr.banking.money.Money;
 import java.util.UUID;
 
-public record AccountResponse(UUID id, String number, String name, BigDecimal balance) {
+public record AccountResponse(UUID id, String number, String name, Money balance) {
 
   public static AccountResponse fromAccount(Account account) {
-    return new AccountResponse(account.getId(), account.getNumber(), account.getName(), account.getBalance());
+    return fromAccount(account, account.getBalance());
+  }
+
+  public static AccountResponse fromAccount(Account account, Money balance) {
+    return new AccountResponse(account.getId(), account.getNumber(), account.getName(), balance);
   }
 }
@@ -0,0 +1,21 @@
+package com.brkygngr.banking.dto.account;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+import org.springframework.format.annotation.DateTimeFormat;
+
+public record AccountStatementQuery(@NotNull(message = "{app.statement.date.required}")
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                    LocalDate from,
+                                    @NotNull(message = "{app.statement.date.required}")
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                    LocalDate to) {
+
+  public static final int MAX_DAYS = 366;
+
+  @AssertTrue(message = "{app.statement.date.range.invalid}")
+  public boolean isDateRangeValid() {
+    return from == null || to == null || (!from.isAfter(to) && !from.plusDays(MAX_DAYS).isBefore(to));
+  }
+}
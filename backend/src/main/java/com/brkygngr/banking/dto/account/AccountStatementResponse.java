@@ -0,0 +1,18 @@
+package com.brkygngr.banking.dto.account;
+
+import com.brkygngr.banking.money.Money;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public record AccountStatementResponse(UUID accountId,
+                                       LocalDate from,
+                                       LocalDate to,
+                                       Money openingBalance,
+                                       Money closingBalance,
+                                       Money inflow,
+                                       Money outflow,
+                                       long transactionCount,
+                                       List<DailyStatementResponse> days) {
+
+}
@@ -0,0 +1,11 @@
+package com.brkygngr.banking.dto.account;
+
+import java.util.UUID;
+
+public record BulkAccountResult(UUID accountId, BulkAccountStatus status, String reason) {
+
+  public enum BulkAccountStatus {
+    SUCCESS,
+    FAILED
+  }
+}
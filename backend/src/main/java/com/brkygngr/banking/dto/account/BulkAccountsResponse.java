@@ -0,0 +1,7 @@
+package com.brkygngr.banking.dto.account;
+
+import java.util.List;
+
+public record BulkAccountsResponse(List<BulkAccountResult> results) {
+
+}
@@ -0,0 +1,17 @@
+package com.brkygngr.banking.dto.account;
+
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.validation.PositiveMoney;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.util.UUID;
+
+public record BulkUpdateAccountRequest(@NotNull(message = "{app.account.id.required}")
+                                       UUID accountId,
+                                       @NotBlank(message = "{app.account.name.required}")
+                                       String name,
+                                       @NotNull(message = "{app.account.balance.required}")
+                                       @PositiveMoney(message = "{app.account.balance.positive}")
+                                       Money balance) {
+
+}
@@ -0,0 +1,13 @@
+package com.brkygngr.banking.dto.account;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BulkUpdateAccountsRequest(@NotEmpty(message = "{app.account.bulk.required}")
+                                        @Size(max = 1000, message = "{app.account.bulk.size.invalid}")
+                                        List<@Valid @NotNull BulkUpdateAccountRequest> accounts) {
+
+}
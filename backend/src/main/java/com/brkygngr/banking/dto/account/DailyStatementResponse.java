@@ -0,0 +1,12 @@
+package com.brkygngr.banking.dto.account;
+
+import com.brkygngr.banking.money.Money;
+import java.time.LocalDate;
+
+public record DailyStatementResponse(LocalDate date,
+                                     Money inflow,
+                                     Money outflow,
+                                     long transactionCount,
+                                     Money closingBalance) {
+
+}
@@ -1,10 +1,18 @@
 package com.brkygngr.banking.dto.account;
 
 import java.util.Optional;
+import java.util.UUID;
 
-public record SearchAccountsQuery(Optional<String> number, Optional<String> name) {
+public record SearchAccountsQuery(Optional<String> number,
+                                  Optional<String> name,
+                                  Optional<Boolean> withTotal,
+                                  Optional<UUID> after) {
 
   public static SearchAccountsQuery empty() {
-    return new SearchAccountsQuery(Optional.empty(), Optional.empty());
+    return new SearchAccountsQuery(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+  }
+
+  public boolean withTotalOrDefault() {
+    return withTotal.orElse(true);
   }
 }
@@ -1,5 +1,7 @@
 package com.brkygngr.banking.dto.keycloak;
 
-public record KeycloakClientResponse(String clientId) {
+import java.util.List;
+
+public record KeycloakClientResponse(String id, String clientId, List<KeycloakProtocolMapperResponse> protocolMappers) {
 
 }
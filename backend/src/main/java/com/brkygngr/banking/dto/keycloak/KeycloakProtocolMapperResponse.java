@@ -0,0 +1,5 @@
+package com.brkygngr.banking.dto.keycloak;
+
+public record KeycloakProtocolMapperResponse(String name) {
+
+}
@@ -0,0 +1,34 @@
+package com.brkygngr.banking.dto.transaction;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.format.annotation.DateTimeFormat;
+
+public record AccountHistoryQuery(@Min(value = 1, message = "{app.history.limit.invalid}")
+                                  @Max(value = 500, message = "{app.history.limit.invalid}")
+                                  Integer limit,
+                                  Optional<String> before,
+                                  Optional<String> after,
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                  Optional<LocalDateTime> fromDate,
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                  Optional<LocalDateTime> toDate) {
+
+  public static final int DEFAULT_LIMIT = 50;
+
+  public static AccountHistoryQuery empty() {
+    return new AccountHistoryQuery(null, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+  }
+
+  public int limitOrDefault() {
+    return limit == null ? DEFAULT_LIMIT : limit;
+  }
+
+  @AssertTrue(message = "{app.history.date.range.invalid}")
+  public boolean isDateRangeValid() {
+    return fromDate.isEmpty() || toDate.isEmpty() || fromDate.get().isBefore(toDate.get());
+  }
+}
@@ -0,0 +1,9 @@
+package com.brkygngr.banking.dto.transaction;
+
+import java.util.List;
+
+public record AccountHistoryResponse(List<TransactionHistoryResponse> transactions,
+                                     String nextCursor,
+                                     String previousCursor) {
+
+}
@@ -0,0 +1,13 @@
+package com.brkygngr.banking.dto.transaction;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BatchTransferMoneyRequest(@NotEmpty(message = "{app.transaction.batch.required}")
+                                        @Size(max = 1000, message = "{app.transaction.batch.size.invalid}")
+                                        List<@Valid @NotNull TransferMoneyRequest> transfers) {
+
+}
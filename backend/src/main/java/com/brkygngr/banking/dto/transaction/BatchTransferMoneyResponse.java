@@ -0,0 +1,7 @@
+package com.brkygngr.banking.dto.transaction;
+
+import java.util.List;
+
+public record BatchTransferMoneyResponse(List<TransferMoneyResponse> results) {
+
+}
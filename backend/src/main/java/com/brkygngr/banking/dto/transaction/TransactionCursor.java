@@ -0,0 +1,35 @@
+package com.brkygngr.banking.dto.transaction;
+
+import com.brkygngr.banking.exception.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+public record TransactionCursor(LocalDateTime transactionDate, UUID id) {
+
+  private static final String SEPARATOR = "_";
+
+  public static TransactionCursor of(final TransactionHistoryResponse transaction) {
+    return new TransactionCursor(transaction.transactionDate(), transaction.id());
+  }
+
+  public static TransactionCursor decode(final String cursor) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separatorIndex = decoded.indexOf(SEPARATOR);
+
+      return new TransactionCursor(LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                                   UUID.fromString(decoded.substring(separatorIndex + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException exception) {
+      throw InvalidCursorException.withDefaultMessage();
+    }
+  }
+
+  public String encode() {
+    String raw = transactionDate + SEPARATOR + id;
+
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -2,14 +2,16 @@ package com.brkygngr.banking.dto.transaction;
 
 import com.brkygngr.banking.entity.Transaction;
 import com.brkygngr.banking.entity.Transaction.TransactionStatus;
-import java.math.BigDecimal;
+import com.brkygngr.banking.ledger.LedgerRecord;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.projection.TransactionHistoryRow;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 public record TransactionHistoryResponse(UUID id,
                                          UUID from,
                                          UUID to,
-                                         BigDecimal amount,
+                                         Money amount,
                                          LocalDateTime transactionDate,
                                          TransactionStatus status) {
 
@@ -21,4 +23,22 @@ public record TransactionHistoryResponse(UUID id,
                                           transaction.getTransactionDate(),
                                           transaction.getStatus());
   }
+
+  public static TransactionHistoryResponse fromLedgerRecord(final LedgerRecord record) {
+    return new TransactionHistoryResponse(record.transactionId(),
+                                          record.from(),
+                                          record.to(),
+                                          record.amount(),
+                                          record.transactionDate(),
+                                          record.status());
+  }
+
+  public static TransactionHistoryResponse fromRow(final TransactionHistoryRow row) {
+    return new TransactionHistoryResponse(row.getId(),
+                                          row.getFromAccountId(),
+                                          row.getToAccountId(),
+                                          Money.of(row.getAmount()),
+                                          row.getTransactionDate(),
+                                          row.getStatus());
+  }
 }
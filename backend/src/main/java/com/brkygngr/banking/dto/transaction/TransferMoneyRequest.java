@@ -1,15 +1,15 @@
 package com.brkygngr.banking.dto.transaction;
 
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.validation.PositiveMoney;
 import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
-import java.math.BigDecimal;
 import java.util.UUID;
 
 public record TransferMoneyRequest(@NotNull(message = "{app.transaction.from.required}") UUID from,
                                    @NotNull(message = "{app.transaction.to.required}") UUID to,
                                    @NotNull(message = "{app.transaction.amount.required}")
-                                   @Positive(message = "{app.transaction.amount.positive}") BigDecimal amount) {
+                                   @PositiveMoney(message = "{app.transaction.amount.positive}") Money amount) {
 
   @AssertTrue(message = "{app.transaction.from.and.to.equal}")
   private boolean isFromAndToDifferent() {
@@ -0,0 +1,8 @@
+package com.brkygngr.banking.dto.transaction;
+
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import java.util.UUID;
+
+public record TransferSubmittedResponse(UUID transactionId, TransactionStatus status) {
+
+}
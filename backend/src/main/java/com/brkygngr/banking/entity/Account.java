@@ -1,14 +1,16 @@
 package com.brkygngr.banking.entity;
 
+import com.brkygngr.banking.money.Money;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import java.math.BigDecimal;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import lombok.EqualsAndHashCode;
@@ -16,6 +18,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -24,8 +27,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 @Getter
 @Setter
 @NoArgsConstructor
-@ToString(exclude = {"user", "createdAt", "updatedAt"})
-@EqualsAndHashCode(exclude = {"user", "balance", "createdAt", "updatedAt"})
+@ToString(exclude = {"user", "version", "createdAt", "updatedAt"})
+@EqualsAndHashCode(exclude = {"user", "balance", "version", "createdAt", "updatedAt"})
 public class Account {
 
   @Id
@@ -39,7 +42,12 @@ public class Account {
   private String name;
 
   @Column(nullable = false, precision = 24, scale = 6)
-  private BigDecimal balance;
+  private Money balance;
+
+  @Version
+  @ColumnDefault("0")
+  @Column(nullable = false)
+  private Long version;
 
   @CreationTimestamp
   private LocalDateTime createdAt;
@@ -47,7 +55,7 @@ public class Account {
   @UpdateTimestamp
   private LocalDateTime updatedAt;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "user_id")
   private User user;
 }
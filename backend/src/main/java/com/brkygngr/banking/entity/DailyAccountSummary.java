@@ -0,0 +1,53 @@
+package com.brkygngr.banking.entity;
+
+import com.brkygngr.banking.money.Money;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Entity
+@Table(name = "daily_account_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class DailyAccountSummary {
+
+  @EmbeddedId
+  private Key key;
+
+  @Column(nullable = false, precision = 24, scale = 6)
+  private Money inflow;
+
+  @Column(nullable = false, precision = 24, scale = 6)
+  private Money outflow;
+
+  @Column(nullable = false)
+  private long transactionCount;
+
+  @Embeddable
+  @Getter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @EqualsAndHashCode
+  @ToString
+  public static class Key implements Serializable {
+
+    @Column(nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private LocalDate summaryDate;
+  }
+}
@@ -0,0 +1,57 @@
+package com.brkygngr.banking.entity;
+
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+@Entity
+@Table(name = "idempotency_record",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "idempotency_key"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = "user")
+public class IdempotencyRecord {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.UUID)
+  private UUID id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "user_id", nullable = false)
+  private User user;
+
+  @Column(name = "idempotency_key", nullable = false)
+  private String idempotencyKey;
+
+  @Column(nullable = false, length = 64)
+  private String requestHash;
+
+  @Enumerated(EnumType.STRING)
+  private TransactionStatus status;
+
+  private String reason;
+
+  private UUID transactionId;
+
+  @CreationTimestamp
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+}
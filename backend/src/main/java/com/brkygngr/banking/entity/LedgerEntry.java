@@ -0,0 +1,64 @@
+package com.brkygngr.banking.entity;
+
+import com.brkygngr.banking.money.Money;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Entity
+@Table(name = "ledger_entry",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"transaction_id", "account_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString(exclude = {"account", "transaction"})
+public class LedgerEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+  @SequenceGenerator(name = "ledger_entry_seq", sequenceName = "ledger_entry_seq", allocationSize = 50)
+  private Long id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "account_id", nullable = false)
+  private Account account;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "transaction_id")
+  private Transaction transaction;
+
+  @Column(nullable = false, precision = 24, scale = 6)
+  private Money amount;
+
+  @Column(nullable = false)
+  private LocalDateTime entryDate;
+
+  @Column(nullable = false)
+  private boolean compacted;
+
+  @Column(nullable = false)
+  private boolean summarized;
+
+  public LedgerEntry(final Account account,
+                     final Transaction transaction,
+                     final Money amount,
+                     final LocalDateTime entryDate) {
+    this.account = account;
+    this.transaction = transaction;
+    this.amount = amount;
+    this.entryDate = entryDate;
+  }
+}
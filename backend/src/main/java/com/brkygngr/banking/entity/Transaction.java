@@ -1,39 +1,43 @@
 package com.brkygngr.banking.entity;
 
+import com.brkygngr.banking.money.Money;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity
 @Table(name = "transaction")
 @Data
+@ToString(exclude = {"from", "to"})
+@EqualsAndHashCode(exclude = {"from", "to"})
 public class Transaction {
 
+  // Time-ordered ids let a lookup by id open only the partitions around the time the id was issued.
   @Id
-  @GeneratedValue(strategy = GenerationType.UUID)
+  @GeneratedTransactionId
   private UUID id;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "from_account_id", nullable = false)
   private Account from;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "to_account_id", nullable = false)
   private Account to;
 
   @Column(nullable = false, precision = 24, scale = 6)
-  private BigDecimal amount;
+  private Money amount;
 
   @Column(nullable = false)
   private LocalDateTime transactionDate;
@@ -44,6 +48,7 @@ public class Transaction {
 
   public enum TransactionStatus {
     SUCCESS,
-    FAILED
+    FAILED,
+    PENDING
   }
 }
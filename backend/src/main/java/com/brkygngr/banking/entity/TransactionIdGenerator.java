@@ -0,0 +1,23 @@
+package com.brkygngr.banking.entity;
+
+import java.util.EnumSet;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+public class TransactionIdGenerator implements BeforeExecutionGenerator {
+
+  @Override
+  public Object generate(final SharedSessionContractImplementor session,
+                         final Object owner,
+                         final Object currentValue,
+                         final EventType eventType) {
+    return TransactionIds.next();
+  }
+
+  @Override
+  public EnumSet<EventType> getEventTypes() {
+    return EventTypeSets.INSERT_ONLY;
+  }
+}
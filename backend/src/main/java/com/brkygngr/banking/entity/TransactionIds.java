@@ -0,0 +1,37 @@
+package com.brkygngr.banking.entity;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+// Transaction ids are version 7 UUIDs, whose leading 48 bits are the creation time in epoch milliseconds.
+public final class TransactionIds {
+
+  private static final SecureRandom random = new SecureRandom();
+
+  private static final int VERSION = 7;
+
+  private TransactionIds() {
+  }
+
+  public static UUID next() {
+    long mostSignificantBits = System.currentTimeMillis() << 16 | (long) VERSION << 12 | random.nextInt(1 << 12);
+    long leastSignificantBits = random.nextLong() >>> 2 | Long.MIN_VALUE;
+
+    return new UUID(mostSignificantBits, leastSignificantBits);
+  }
+
+  // Ids issued before the switch are random, so they carry no time and the caller has to search every partition.
+  public static Optional<LocalDateTime> createdAt(final UUID transactionId) {
+    if (transactionId.version() != VERSION) {
+      return Optional.empty();
+    }
+
+    Instant instant = Instant.ofEpochMilli(transactionId.getMostSignificantBits() >>> 16);
+
+    return Optional.of(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()));
+  }
+}
@@ -0,0 +1,21 @@
+package com.brkygngr.banking.event;
+
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public record AccountActivityEvent(UUID userId, List<TransactionHistoryResponse> transactionList) {
+
+  public Set<UUID> accountIds() {
+    Set<UUID> accountIdSet = new LinkedHashSet<>();
+
+    for (TransactionHistoryResponse transaction : transactionList) {
+      accountIdSet.add(transaction.from());
+      accountIdSet.add(transaction.to());
+    }
+
+    return accountIdSet;
+  }
+}
@@ -0,0 +1,73 @@
+package com.brkygngr.banking.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+public class AccountEventBus {
+
+  private static final String METRIC_NAME = "account.stream";
+
+  private final Map<UUID, Set<AccountEventSubscription>> subscriptionMap = new ConcurrentHashMap<>();
+
+  private final Counter overflowCounter;
+
+  private final int bufferSize;
+
+  public AccountEventBus(final MeterRegistry meterRegistry,
+                         @Value("${account.stream.bufferSize}") final int bufferSize) {
+    this.overflowCounter = Counter.builder(METRIC_NAME + ".overflows")
+                                  .description("Subscribers ended because their buffer filled up.")
+                                  .register(meterRegistry);
+    this.bufferSize = bufferSize;
+
+    Gauge.builder(METRIC_NAME + ".subscribers", this, AccountEventBus::subscriberCount).register(meterRegistry);
+  }
+
+  public AccountEventSubscription subscribe(final UUID userId) {
+    AccountEventSubscription subscription = new AccountEventSubscription(userId, bufferSize, this);
+
+    subscriptionMap.compute(userId, (id, subscriptionSet) -> {
+      Set<AccountEventSubscription> set = subscriptionSet == null ? ConcurrentHashMap.newKeySet() : subscriptionSet;
+      set.add(subscription);
+
+      return set;
+    });
+
+    return subscription;
+  }
+
+  // Delivered after commit only, so a subscriber never hears of a transfer that was rolled back.
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAccountActivity(final AccountActivityEvent event) {
+    for (AccountEventSubscription subscription : subscriptionMap.getOrDefault(event.userId(), Set.of())) {
+      if (!subscription.isOverflowed() && !subscription.offer(event)) {
+        overflowCounter.increment();
+
+        log.warn("User#{} account stream subscriber fell behind and will be closed", event.userId());
+      }
+    }
+  }
+
+  int subscriberCount() {
+    return subscriptionMap.values().stream().mapToInt(Set::size).sum();
+  }
+
+  void unsubscribe(final AccountEventSubscription subscription) {
+    subscriptionMap.computeIfPresent(subscription.userId(), (id, subscriptionSet) -> {
+      subscriptionSet.remove(subscription);
+
+      return subscriptionSet.isEmpty() ? null : subscriptionSet;
+    });
+  }
+}
@@ -0,0 +1,65 @@
+package com.brkygngr.banking.event;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public final class AccountEventSubscription implements Closeable {
+
+  private final UUID userId;
+
+  private final BlockingQueue<AccountActivityEvent> queue;
+
+  private final AccountEventBus accountEventBus;
+
+  private volatile boolean overflowed;
+
+  AccountEventSubscription(final UUID userId, final int bufferSize, final AccountEventBus accountEventBus) {
+    this.userId = userId;
+    this.queue = new ArrayBlockingQueue<>(bufferSize);
+    this.accountEventBus = accountEventBus;
+  }
+
+  public UUID userId() {
+    return userId;
+  }
+
+  // Returns every event buffered so far, or an empty list once the timeout passes without one.
+  public List<AccountActivityEvent> poll(final long timeoutMillis) throws InterruptedException {
+    AccountActivityEvent first = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+
+    if (first == null) {
+      return List.of();
+    }
+
+    List<AccountActivityEvent> eventList = new ArrayList<>();
+    eventList.add(first);
+    queue.drainTo(eventList);
+
+    return eventList;
+  }
+
+  // A subscriber that fell behind has lost events, so it is ended instead of silently skipping them.
+  public boolean isOverflowed() {
+    return overflowed;
+  }
+
+  @Override
+  public void close() {
+    accountEventBus.unsubscribe(this);
+  }
+
+  boolean offer(final AccountActivityEvent event) {
+    if (!queue.offer(event)) {
+      overflowed = true;
+
+      return false;
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,12 @@
+package com.brkygngr.banking.exception;
+
+public class BalanceManagedByLedgerException extends RuntimeException {
+
+  public BalanceManagedByLedgerException(final String message) {
+    super(message);
+  }
+
+  public static BalanceManagedByLedgerException withDefaultMessage() {
+    return new BalanceManagedByLedgerException("app.account.balance.ledger");
+  }
+}
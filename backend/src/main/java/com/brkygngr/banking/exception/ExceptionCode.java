@@ -11,7 +11,10 @@ public enum ExceptionCode {
   USER_ALREADY_EXISTS("APP0002"),
   USER_NOT_FOUND("APP0003"),
   RESOURCE_ALREADY_EXISTS("APP0004"),
-  TRANSACTION_NOT_ENOUGH_MONEY("APP0005");
+  TRANSACTION_NOT_ENOUGH_MONEY("APP0005"),
+  RESOURCE_CONFLICT("APP0006"),
+  SERVICE_UNAVAILABLE("APP0007"),
+  RESOURCE_NOT_FOUND("APP0008");
 
   private final String code;
 
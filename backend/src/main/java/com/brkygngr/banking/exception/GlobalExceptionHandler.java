@@ -12,8 +12,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.MessageSource;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -44,6 +46,24 @@ public class GlobalExceptionHandler {
                          .body(new ExceptionResponse(LocalDateTime.now(), ExceptionCode.INVALID_REQUEST, errors));
   }
 
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "400",
+                   description = "Request body could not be read.",
+                   content = @Content(
+                       mediaType = "application/json",
+                       schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  @ExceptionHandler(HttpMessageNotReadableException.class)
+  public ResponseEntity<ExceptionResponse> handleHttpMessageNotReadable(
+      final HttpMessageNotReadableException exception) {
+    String error = messageSource.getMessage("app.request.body.invalid", null, Locale.ENGLISH);
+
+    return ResponseEntity.badRequest()
+                         .body(new ExceptionResponse(LocalDateTime.now(),
+                                                     ExceptionCode.INVALID_REQUEST,
+                                                     new String[]{error}));
+  }
+
   @ApiResponses(value = {
       @ApiResponse(responseCode = "400",
                    description = "User already exists.",
@@ -111,6 +131,23 @@ public class GlobalExceptionHandler {
                                 HttpStatus.NOT_FOUND);
   }
 
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "404",
+                   description = "Transaction not found.",
+                   content = @Content(
+                       mediaType = "application/json",
+                       schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  @ExceptionHandler(TransactionNotFoundException.class)
+  public ResponseEntity<ExceptionResponse> handleTransactionNotFound(final TransactionNotFoundException exception) {
+    String error = messageSource.getMessage(exception.getMessage(), null, Locale.ENGLISH);
+
+    return new ResponseEntity<>(new ExceptionResponse(LocalDateTime.now(),
+                                                      ExceptionCode.RESOURCE_NOT_FOUND,
+                                                      new String[]{error}),
+                                HttpStatus.NOT_FOUND);
+  }
+
   @ApiResponses(value = {
       @ApiResponse(responseCode = "400",
                    description = "Data values are already taken.",
@@ -128,6 +165,128 @@ public class GlobalExceptionHandler {
                                                      new String[]{error}));
   }
 
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "409",
+                   description = "Transfer accounts were busy.",
+                   content = @Content(
+                       mediaType = "application/json",
+                       schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  @ExceptionHandler(TransferConflictException.class)
+  public ResponseEntity<ExceptionResponse> handleTransferConflict(final TransferConflictException exception) {
+    String error = messageSource.getMessage(exception.getMessage(), null, Locale.ENGLISH);
+
+    return new ResponseEntity<>(new ExceptionResponse(LocalDateTime.now(),
+                                                      ExceptionCode.RESOURCE_CONFLICT,
+                                                      new String[]{error}),
+                                HttpStatus.CONFLICT);
+  }
+
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "409",
+                   description = "Account balance is managed by the transfer ledger.",
+                   content = @Content(
+                       mediaType = "application/json",
+                       schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  @ExceptionHandler(BalanceManagedByLedgerException.class)
+  public ResponseEntity<ExceptionResponse> handleBalanceManagedByLedger(
+      final BalanceManagedByLedgerException exception) {
+    String error = messageSource.getMessage(exception.getMessage(), null, Locale.ENGLISH);
+
+    return new ResponseEntity<>(new ExceptionResponse(LocalDateTime.now(),
+                                                      ExceptionCode.RESOURCE_CONFLICT,
+                                                      new String[]{error}),
+                                HttpStatus.CONFLICT);
+  }
+
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "409",
+                   description = "Idempotency key is in progress or was used with a different request.",
+                   content = @Content(
+                       mediaType = "application/json",
+                       schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  @ExceptionHandler(IdempotencyKeyConflictException.class)
+  public ResponseEntity<ExceptionResponse> handleIdempotencyKeyConflict(
+      final IdempotencyKeyConflictException exception) {
+    String error = messageSource.getMessage(exception.getMessage(), null, Locale.ENGLISH);
+
+    return new ResponseEntity<>(new ExceptionResponse(LocalDateTime.now(),
+                                                      ExceptionCode.RESOURCE_CONFLICT,
+                                                      new String[]{error}),
+                                HttpStatus.CONFLICT);
+  }
+
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "400",
+                   description = "Idempotency key is invalid.",
+                   content = @Content(
+                       mediaType = "application/json",
+                       schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  @ExceptionHandler(InvalidIdempotencyKeyException.class)
+  public ResponseEntity<ExceptionResponse> handleInvalidIdempotencyKey(final InvalidIdempotencyKeyException exception) {
+    String error = messageSource.getMessage(exception.getMessage(), null, Locale.ENGLISH);
+
+    return ResponseEntity.badRequest()
+                         .body(new ExceptionResponse(LocalDateTime.now(),
+                                                     ExceptionCode.INVALID_REQUEST,
+                                                     new String[]{error}));
+  }
+
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "400",
+                   description = "Cursor could not be decoded.",
+                   content = @Content(
+                       mediaType = "application/json",
+                       schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<ExceptionResponse> handleInvalidCursor(final InvalidCursorException exception) {
+    String error = messageSource.getMessage(exception.getMessage(), null, Locale.ENGLISH);
+
+    return ResponseEntity.badRequest()
+                         .body(new ExceptionResponse(LocalDateTime.now(),
+                                                     ExceptionCode.INVALID_REQUEST,
+                                                     new String[]{error}));
+  }
+
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "409",
+                   description = "Resource was modified concurrently.",
+                   content = @Content(
+                       mediaType = "application/json",
+                       schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ExceptionResponse> handleOptimisticLockingFailure(
+      final OptimisticLockingFailureException exception) {
+    String error = messageSource.getMessage("app.resource.conflict", null, Locale.ENGLISH);
+
+    return new ResponseEntity<>(new ExceptionResponse(LocalDateTime.now(),
+                                                      ExceptionCode.RESOURCE_CONFLICT,
+                                                      new String[]{error}),
+                                HttpStatus.CONFLICT);
+  }
+
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "503",
+                   description = "Ledger engine can not accept transfers.",
+                   content = @Content(
+                       mediaType = "application/json",
+                       schema = @Schema(implementation = ExceptionResponse.class)))
+  })
+  @ExceptionHandler(LedgerUnavailableException.class)
+  public ResponseEntity<ExceptionResponse> handleLedgerUnavailable(final LedgerUnavailableException exception) {
+    String error = messageSource.getMessage(exception.getMessage(), null, Locale.ENGLISH);
+
+    return new ResponseEntity<>(new ExceptionResponse(LocalDateTime.now(),
+                                                      ExceptionCode.SERVICE_UNAVAILABLE,
+                                                      new String[]{error}),
+                                HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
   @ApiResponses(value = {
       @ApiResponse(responseCode = "500",
                    description = "Unknown error.",
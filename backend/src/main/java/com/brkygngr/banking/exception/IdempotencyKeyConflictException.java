@@ -0,0 +1,12 @@
+package com.brkygngr.banking.exception;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+  public IdempotencyKeyConflictException(final String message) {
+    super(message);
+  }
+
+  public static IdempotencyKeyConflictException withDefaultMessage() {
+    return new IdempotencyKeyConflictException("app.idempotency.key.conflict");
+  }
+}
@@ -0,0 +1,12 @@
+package com.brkygngr.banking.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+  public InvalidCursorException(final String message) {
+    super(message);
+  }
+
+  public static InvalidCursorException withDefaultMessage() {
+    return new InvalidCursorException("app.cursor.invalid");
+  }
+}
@@ -0,0 +1,12 @@
+package com.brkygngr.banking.exception;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+  public InvalidIdempotencyKeyException(final String message) {
+    super(message);
+  }
+
+  public static InvalidIdempotencyKeyException withDefaultMessage() {
+    return new InvalidIdempotencyKeyException("app.idempotency.key.invalid");
+  }
+}
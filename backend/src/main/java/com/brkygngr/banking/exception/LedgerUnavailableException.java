@@ -0,0 +1,12 @@
+package com.brkygngr.banking.exception;
+
+public class LedgerUnavailableException extends RuntimeException {
+
+  public LedgerUnavailableException(final String message) {
+    super(message);
+  }
+
+  public static LedgerUnavailableException withDefaultMessage() {
+    return new LedgerUnavailableException("app.transaction.ledger.unavailable");
+  }
+}
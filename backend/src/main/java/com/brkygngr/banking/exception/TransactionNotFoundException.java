@@ -0,0 +1,12 @@
+package com.brkygngr.banking.exception;
+
+public class TransactionNotFoundException extends RuntimeException {
+
+  public TransactionNotFoundException(final String message) {
+    super(message);
+  }
+
+  public static TransactionNotFoundException withDefaultMessage() {
+    return new TransactionNotFoundException("app.transaction.not.found");
+  }
+}
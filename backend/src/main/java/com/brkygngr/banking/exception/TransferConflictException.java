@@ -0,0 +1,12 @@
+package com.brkygngr.banking.exception;
+
+public class TransferConflictException extends RuntimeException {
+
+  public TransferConflictException(final String message) {
+    super(message);
+  }
+
+  public static TransferConflictException withDefaultMessage() {
+    return new TransferConflictException("app.transaction.conflict");
+  }
+}
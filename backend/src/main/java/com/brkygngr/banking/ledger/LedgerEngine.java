@@ -0,0 +1,273 @@
+package com.brkygngr.banking.ledger;
+
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.exception.LedgerUnavailableException;
+import com.brkygngr.banking.ledger.LedgerSnapshotStore.LedgerSnapshot;
+import com.brkygngr.banking.money.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.engine", havingValue = "LEDGER")
+public class LedgerEngine {
+
+  private static final long POLL_INTERVAL_MILLIS = 100;
+
+  private final LedgerPersister ledgerPersister;
+
+  private final LedgerNodeLock ledgerNodeLock;
+
+  private final LedgerJournal journal;
+
+  private final LedgerSnapshotStore snapshotStore;
+
+  private final BlockingQueue<PendingTransfer> queue;
+
+  private final int maxBatchSize;
+
+  private final long snapshotIntervalMillis;
+
+  private final Map<UUID, Money> balanceMap = new HashMap<>();
+
+  private final Map<UUID, LedgerTransfer> admittedMap = new ConcurrentHashMap<>();
+
+  private long nextSequence;
+
+  private long lastSnapshotSequence;
+
+  private long lastSnapshotMillis;
+
+  private volatile boolean running;
+
+  private Thread writer;
+
+  public LedgerEngine(final LedgerPersister ledgerPersister,
+                      final LedgerNodeLock ledgerNodeLock,
+                      @Value("${ledger.directory}") final String directory,
+                      @Value("${ledger.queueCapacity}") final int queueCapacity,
+                      @Value("${ledger.maxBatchSize}") final int maxBatchSize,
+                      @Value("${ledger.snapshotIntervalMillis}") final long snapshotIntervalMillis)
+      throws IOException {
+    this.ledgerPersister = ledgerPersister;
+    this.ledgerNodeLock = ledgerNodeLock;
+    this.journal = new LedgerJournal(Path.of(directory));
+    this.snapshotStore = new LedgerSnapshotStore(Path.of(directory));
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.maxBatchSize = maxBatchSize;
+    this.snapshotIntervalMillis = snapshotIntervalMillis;
+  }
+
+  @PostConstruct
+  public void start() throws IOException, SQLException {
+    ledgerNodeLock.acquire();
+
+    recover();
+
+    running = true;
+    writer = Thread.ofPlatform().name("ledger-writer").start(this::run);
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException, IOException, SQLException {
+    running = false;
+    writer.join();
+
+    if (nextSequence - 1 > lastSnapshotSequence) {
+      writeSnapshot();
+    }
+
+    journal.close();
+    ledgerNodeLock.release();
+  }
+
+  public CompletableFuture<LedgerRecord> submit(final LedgerTransfer transfer) {
+    CompletableFuture<LedgerRecord> future = new CompletableFuture<>();
+
+    admittedMap.put(transfer.transactionId(), transfer);
+
+    // A persister that gave up would leave acknowledged transfers out of the database, so new ones are refused.
+    if (!running || ledgerPersister.isFailed() || !queue.offer(new PendingTransfer(transfer, future))) {
+      admittedMap.remove(transfer.transactionId());
+      future.completeExceptionally(LedgerUnavailableException.withDefaultMessage());
+    }
+
+    return future;
+  }
+
+  // A transfer is admitted before it is journaled and handed to the persister before it is forgotten here, so it is
+  // always visible in one of the two until its row is committed.
+  public Optional<TransactionHistoryResponse> find(final UUID transactionId) {
+    LedgerTransfer transfer = admittedMap.get(transactionId);
+
+    if (transfer != null) {
+      return Optional.of(new TransactionHistoryResponse(transfer.transactionId(),
+                                                        transfer.from(),
+                                                        transfer.to(),
+                                                        transfer.amount(),
+                                                        transfer.transactionDate(),
+                                                        TransactionStatus.PENDING));
+    }
+
+    return ledgerPersister.find(transactionId).map(TransactionHistoryResponse::fromLedgerRecord);
+  }
+
+  private void recover() throws IOException {
+    Optional<LedgerSnapshot> snapshot = snapshotStore.read();
+
+    long snapshotSequence = snapshot.map(LedgerSnapshot::sequence).orElse(0L);
+    long persistedSequence = snapshot.map(LedgerSnapshot::persistedSequence).orElse(0L);
+
+    snapshot.ifPresent(value -> balanceMap.putAll(value.balanceMap()));
+
+    List<LedgerRecord> unpersistedList = new ArrayList<>();
+    long lastSequence = snapshotSequence;
+
+    for (LedgerRecord record : journal.readAll()) {
+      if (record.sequence() > snapshotSequence) {
+        balanceMap.put(record.from(), record.fromBalance());
+        balanceMap.put(record.to(), record.toBalance());
+      }
+
+      if (record.sequence() > persistedSequence) {
+        unpersistedList.add(record);
+      }
+
+      lastSequence = Math.max(lastSequence, record.sequence());
+    }
+
+    nextSequence = lastSequence + 1;
+    lastSnapshotSequence = snapshotSequence;
+    lastSnapshotMillis = System.currentTimeMillis();
+
+    ledgerPersister.restore(persistedSequence);
+    ledgerPersister.enqueue(unpersistedList);
+
+    journal.openSegment(nextSequence);
+
+    log.info("Ledger recovered {} accounts up to sequence {}, {} records waiting to be persisted.",
+             balanceMap.size(),
+             lastSequence,
+             unpersistedList.size());
+  }
+
+  private void run() {
+    List<PendingTransfer> batch = new ArrayList<>(maxBatchSize);
+
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingTransfer first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch, maxBatchSize - 1);
+
+          process(batch);
+
+          batch.clear();
+        }
+
+        if (System.currentTimeMillis() - lastSnapshotMillis >= snapshotIntervalMillis) {
+          writeSnapshot();
+        }
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (IOException exception) {
+        log.error("Ledger journal failed, rejecting further transfers.", exception);
+
+        running = false;
+        batch.forEach(pending -> fail(pending, exception));
+        queue.forEach(pending -> fail(pending, exception));
+        return;
+      }
+    }
+  }
+
+  private void process(final List<PendingTransfer> batch) throws IOException {
+    List<LedgerRecord> recordList = new ArrayList<>(batch.size());
+
+    for (PendingTransfer pending : batch) {
+      LedgerTransfer transfer = pending.transfer();
+
+      Money fromBalance = balanceMap.computeIfAbsent(transfer.from(), id -> transfer.storedFromBalance());
+      Money toBalance = balanceMap.computeIfAbsent(transfer.to(), id -> transfer.storedToBalance());
+
+      TransactionStatus status = TransactionStatus.FAILED;
+
+      if (!fromBalance.isLessThan(transfer.amount())) {
+        fromBalance = fromBalance.subtract(transfer.amount());
+        toBalance = toBalance.add(transfer.amount());
+
+        balanceMap.put(transfer.from(), fromBalance);
+        balanceMap.put(transfer.to(), toBalance);
+
+        status = TransactionStatus.SUCCESS;
+      }
+
+      recordList.add(new LedgerRecord(nextSequence++,
+                                      transfer.transactionId(),
+                                      transfer.from(),
+                                      transfer.to(),
+                                      transfer.amount(),
+                                      fromBalance,
+                                      toBalance,
+                                      transfer.transactionDate(),
+                                      status));
+    }
+
+    journal.append(recordList);
+
+    ledgerPersister.enqueue(recordList);
+
+    for (int i = 0; i < batch.size(); i++) {
+      admittedMap.remove(recordList.get(i).transactionId());
+      batch.get(i).future().complete(recordList.get(i));
+    }
+  }
+
+  private void fail(final PendingTransfer pending, final IOException exception) {
+    admittedMap.remove(pending.transfer().transactionId());
+    pending.future().completeExceptionally(exception);
+  }
+
+  private void writeSnapshot() throws IOException {
+    long sequence = nextSequence - 1;
+    long persistedSequence = ledgerPersister.persistedSequence();
+
+    if (sequence > lastSnapshotSequence) {
+      snapshotStore.write(new LedgerSnapshot(sequence, persistedSequence, new HashMap<>(balanceMap)));
+
+      journal.openSegment(nextSequence);
+
+      lastSnapshotSequence = sequence;
+    }
+
+    journal.deleteSegmentsUpTo(persistedSequence);
+
+    lastSnapshotMillis = System.currentTimeMillis();
+  }
+
+  private record PendingTransfer(LedgerTransfer transfer, CompletableFuture<LedgerRecord> future) {
+
+  }
+}
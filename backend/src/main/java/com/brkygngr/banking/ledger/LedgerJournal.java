@@ -0,0 +1,130 @@
+package com.brkygngr.banking.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+class LedgerJournal implements Closeable {
+
+  private static final String SEGMENT_PREFIX = "journal-";
+
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  private final Path directory;
+
+  private FileChannel channel;
+
+  private long segmentFirstSequence;
+
+  LedgerJournal(final Path directory) throws IOException {
+    this.directory = Files.createDirectories(directory);
+  }
+
+  // A torn tail is cut off before the segment is reopened, so records appended after recovery are never hidden behind
+  // it on the next restart.
+  List<LedgerRecord> readAll() throws IOException {
+    List<LedgerRecord> recordList = new ArrayList<>();
+
+    for (long firstSequence : listSegments()) {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmentPath(firstSequence)));
+
+      while (buffer.remaining() >= LedgerRecord.SIZE) {
+        LedgerRecord record = LedgerRecord.readFrom(buffer);
+
+        if (record == null) {
+          break;
+        }
+
+        recordList.add(record);
+      }
+
+      if (buffer.hasRemaining()) {
+        log.warn("Ledger journal segment {} has a torn record at offset {}, truncating the rest of it.",
+                 firstSequence,
+                 buffer.position());
+
+        truncate(firstSequence, buffer.position());
+      }
+    }
+
+    return recordList;
+  }
+
+  void openSegment(final long firstSequence) throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+
+    channel = FileChannel.open(segmentPath(firstSequence),
+                               StandardOpenOption.CREATE,
+                               StandardOpenOption.WRITE,
+                               StandardOpenOption.APPEND);
+    segmentFirstSequence = firstSequence;
+  }
+
+  void append(final List<LedgerRecord> recordList) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(recordList.size() * LedgerRecord.SIZE);
+
+    for (LedgerRecord record : recordList) {
+      record.writeTo(buffer);
+    }
+
+    buffer.flip();
+
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+
+    channel.force(false);
+  }
+
+  void deleteSegmentsUpTo(final long sequence) throws IOException {
+    List<Long> segmentList = listSegments();
+
+    for (int i = 0; i + 1 < segmentList.size(); i++) {
+      long lastSequence = segmentList.get(i + 1) - 1;
+
+      if (lastSequence <= sequence && segmentList.get(i) != segmentFirstSequence) {
+        Files.deleteIfExists(segmentPath(segmentList.get(i)));
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  private void truncate(final long firstSequence, final long validLength) throws IOException {
+    try (FileChannel segmentChannel = FileChannel.open(segmentPath(firstSequence), StandardOpenOption.WRITE)) {
+      segmentChannel.truncate(validLength);
+      segmentChannel.force(true);
+    }
+  }
+
+  private List<Long> listSegments() throws IOException {
+    try (Stream<Path> pathStream = Files.list(directory)) {
+      return pathStream.map(path -> path.getFileName().toString())
+                       .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                       .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                                                  name.length() - SEGMENT_SUFFIX.length())))
+                       .sorted()
+                       .toList();
+    }
+  }
+
+  private Path segmentPath(final long firstSequence) {
+    return directory.resolve(SEGMENT_PREFIX + firstSequence + SEGMENT_SUFFIX);
+  }
+}
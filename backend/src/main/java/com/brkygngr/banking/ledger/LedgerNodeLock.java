@@ -0,0 +1,66 @@
+package com.brkygngr.banking.ledger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Balances live in one engine's memory, so a second node running the engine would settle against stale balances.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.engine", havingValue = "LEDGER")
+public class LedgerNodeLock {
+
+  private static final long LOCK_KEY = 0x4c454447455200L;
+
+  private final DataSource dataSource;
+
+  private Connection connection;
+
+  public LedgerNodeLock(final DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  // The lock belongs to the session, so its connection is held until the engine stops.
+  void acquire() throws SQLException {
+    Connection lockConnection = dataSource.getConnection();
+
+    if (!execute(lockConnection, "SELECT pg_try_advisory_lock(?)")) {
+      lockConnection.close();
+
+      throw new IllegalStateException("Another node is already running the ledger engine.");
+    }
+
+    connection = lockConnection;
+
+    log.info("Ledger node lock acquired.");
+  }
+
+  // Pooled connections outlive close, so the lock is released explicitly before handing the connection back.
+  void release() throws SQLException {
+    if (connection == null) {
+      return;
+    }
+
+    try {
+      execute(connection, "SELECT pg_advisory_unlock(?)");
+    } finally {
+      connection.close();
+      connection = null;
+    }
+  }
+
+  private static boolean execute(final Connection connection, final String sql) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setLong(1, LOCK_KEY);
+
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() && resultSet.getBoolean(1);
+      }
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package com.brkygngr.banking.ledger;
+
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.money.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.engine", havingValue = "LEDGER")
+public class LedgerPersister {
+
+  private static final String INSERT_TRANSACTION_SQL = """
+      INSERT INTO transaction (id, from_account_id, to_account_id, amount, transaction_date, status)
+      VALUES (?, ?, ?, ?, ?, ?)
+      ON CONFLICT (id, transaction_date) DO NOTHING""";
+
+  private static final String INSERT_LEDGER_ENTRY_SQL = """
+      INSERT INTO ledger_entry (id, account_id, transaction_id, amount, entry_date, compacted)
+      VALUES (nextval('ledger_entry_seq'), ?, ?, ?, ?, false)
+      ON CONFLICT (transaction_id, account_id) DO NOTHING""";
+
+  private static final long RETRY_DELAY_MILLIS = 1000;
+
+  private final BlockingQueue<LedgerRecord> queue = new LinkedBlockingQueue<>();
+
+  private final Map<UUID, LedgerRecord> unpersistedMap = new ConcurrentHashMap<>();
+
+  private final AtomicLong persistedSequence = new AtomicLong();
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final int batchSize;
+
+  private final long intervalMillis;
+
+  private volatile boolean running;
+
+  private volatile boolean failed;
+
+  private Thread thread;
+
+  public LedgerPersister(final JdbcTemplate jdbcTemplate,
+                         final PlatformTransactionManager transactionManager,
+                         @Value("${ledger.persister.batchSize}") final int batchSize,
+                         @Value("${ledger.persister.intervalMillis}") final long intervalMillis) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.intervalMillis = intervalMillis;
+  }
+
+  @PostConstruct
+  public void start() {
+    running = true;
+    thread = Thread.ofPlatform().name("ledger-persister").start(this::run);
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    thread.join();
+  }
+
+  void restore(final long sequence) {
+    persistedSequence.set(sequence);
+  }
+
+  void enqueue(final List<LedgerRecord> recordList) {
+    recordList.forEach(record -> unpersistedMap.put(record.transactionId(), record));
+    queue.addAll(recordList);
+  }
+
+  Optional<LedgerRecord> find(final UUID transactionId) {
+    return Optional.ofNullable(unpersistedMap.get(transactionId));
+  }
+
+  long persistedSequence() {
+    return persistedSequence.get();
+  }
+
+  boolean isFailed() {
+    return failed;
+  }
+
+  private void run() {
+    List<LedgerRecord> batch = new ArrayList<>(batchSize);
+
+    while (!failed && (running || !queue.isEmpty())) {
+      try {
+        LedgerRecord first = queue.poll(intervalMillis, TimeUnit.MILLISECONDS);
+
+        if (first == null) {
+          continue;
+        }
+
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+
+        persistWithRetry(batch);
+
+        batch.clear();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void persistWithRetry(final List<LedgerRecord> batch) throws InterruptedException {
+    while (true) {
+      try {
+        persist(batch);
+        persistedSequence.set(batch.getLast().sequence());
+        batch.forEach(record -> unpersistedMap.remove(record.transactionId()));
+        return;
+      } catch (NonTransientDataAccessException exception) {
+        // A rejected statement fails the same way on every attempt, so the persister stops instead of spinning. The
+        // sequence is not advanced, so the batch stays in the journal and is replayed once the cause is fixed.
+        log.error("Ledger could not persist {} records from sequence {} and stopped persisting.",
+                  batch.size(),
+                  batch.getFirst().sequence(),
+                  exception);
+
+        failed = true;
+        return;
+      } catch (RuntimeException exception) {
+        log.error("Ledger could not persist {} records, retrying.", batch.size(), exception);
+
+        Thread.sleep(RETRY_DELAY_MILLIS);
+      }
+    }
+  }
+
+  private void persist(final List<LedgerRecord> batch) {
+    List<EntryInsert> entryList = new ArrayList<>(batch.size() * 2);
+
+    for (LedgerRecord record : batch) {
+      if (record.status() == TransactionStatus.SUCCESS) {
+        entryList.add(new EntryInsert(record.from(), record, record.amount().negate()));
+        entryList.add(new EntryInsert(record.to(), record, record.amount()));
+      }
+    }
+
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, batch, batch.size(), (statement, record) -> {
+        statement.setObject(1, record.transactionId());
+        statement.setObject(2, record.from());
+        statement.setObject(3, record.to());
+        statement.setBigDecimal(4, record.amount().toBigDecimal());
+        statement.setObject(5, record.transactionDate());
+        statement.setString(6, record.status().name());
+      });
+
+      if (!entryList.isEmpty()) {
+        jdbcTemplate.batchUpdate(INSERT_LEDGER_ENTRY_SQL, entryList, entryList.size(), (statement, entry) -> {
+          statement.setObject(1, entry.accountId());
+          statement.setObject(2, entry.record().transactionId());
+          statement.setBigDecimal(3, entry.amount().toBigDecimal());
+          statement.setObject(4, entry.record().transactionDate());
+        });
+      }
+    });
+  }
+
+  private record EntryInsert(UUID accountId, LedgerRecord record, Money amount) {
+
+  }
+}
@@ -0,0 +1,80 @@
+package com.brkygngr.banking.ledger;
+
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.money.Money;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+public record LedgerRecord(long sequence,
+                           UUID transactionId,
+                           UUID from,
+                           UUID to,
+                           Money amount,
+                           Money fromBalance,
+                           Money toBalance,
+                           LocalDateTime transactionDate,
+                           TransactionStatus status) {
+
+  private static final int PAYLOAD_SIZE = Long.BYTES * 11 + Integer.BYTES + Byte.BYTES;
+
+  static final int SIZE = PAYLOAD_SIZE + Integer.BYTES;
+
+  void writeTo(final ByteBuffer buffer) {
+    int start = buffer.position();
+
+    buffer.putLong(sequence);
+    putUuid(buffer, transactionId);
+    putUuid(buffer, from);
+    putUuid(buffer, to);
+    buffer.putLong(amount.minorUnits());
+    buffer.putLong(fromBalance.minorUnits());
+    buffer.putLong(toBalance.minorUnits());
+    buffer.putLong(transactionDate.toEpochSecond(ZoneOffset.UTC));
+    buffer.putInt(transactionDate.getNano());
+    buffer.put((byte) status.ordinal());
+
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.slice(start, PAYLOAD_SIZE));
+
+    buffer.putInt((int) crc.getValue());
+  }
+
+  static LedgerRecord readFrom(final ByteBuffer buffer) {
+    int start = buffer.position();
+
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.slice(start, PAYLOAD_SIZE));
+
+    if (buffer.getInt(start + PAYLOAD_SIZE) != (int) crc.getValue()) {
+      return null;
+    }
+
+    LedgerRecord record = new LedgerRecord(buffer.getLong(),
+                                           getUuid(buffer),
+                                           getUuid(buffer),
+                                           getUuid(buffer),
+                                           Money.ofMinorUnits(buffer.getLong()),
+                                           Money.ofMinorUnits(buffer.getLong()),
+                                           Money.ofMinorUnits(buffer.getLong()),
+                                           LocalDateTime.ofEpochSecond(buffer.getLong(),
+                                                                       buffer.getInt(),
+                                                                       ZoneOffset.UTC),
+                                           TransactionStatus.values()[buffer.get()]);
+
+    buffer.position(start + SIZE);
+
+    return record;
+  }
+
+  private static void putUuid(final ByteBuffer buffer, final UUID uuid) {
+    buffer.putLong(uuid.getMostSignificantBits());
+    buffer.putLong(uuid.getLeastSignificantBits());
+  }
+
+  private static UUID getUuid(final ByteBuffer buffer) {
+    return new UUID(buffer.getLong(), buffer.getLong());
+  }
+}
@@ -0,0 +1,78 @@
+package com.brkygngr.banking.ledger;
+
+import com.brkygngr.banking.money.Money;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+class LedgerSnapshotStore {
+
+  private static final String SNAPSHOT_FILE = "snapshot.bin";
+
+  private final Path snapshotPath;
+
+  private final Path temporaryPath;
+
+  LedgerSnapshotStore(final Path directory) throws IOException {
+    Files.createDirectories(directory);
+
+    this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+    this.temporaryPath = directory.resolve(SNAPSHOT_FILE + ".tmp");
+  }
+
+  Optional<LedgerSnapshot> read() throws IOException {
+    if (!Files.exists(snapshotPath)) {
+      return Optional.empty();
+    }
+
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+      long sequence = input.readLong();
+      long persistedSequence = input.readLong();
+      int size = input.readInt();
+
+      Map<UUID, Money> balanceMap = new HashMap<>(size * 2);
+
+      for (int i = 0; i < size; i++) {
+        UUID accountId = new UUID(input.readLong(), input.readLong());
+
+        balanceMap.put(accountId, Money.ofMinorUnits(input.readLong()));
+      }
+
+      return Optional.of(new LedgerSnapshot(sequence, persistedSequence, balanceMap));
+    }
+  }
+
+  void write(final LedgerSnapshot snapshot) throws IOException {
+    try (FileOutputStream fileOutput = new FileOutputStream(temporaryPath.toFile());
+         DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+      output.writeLong(snapshot.sequence());
+      output.writeLong(snapshot.persistedSequence());
+      output.writeInt(snapshot.balanceMap().size());
+
+      for (Map.Entry<UUID, Money> entry : snapshot.balanceMap().entrySet()) {
+        output.writeLong(entry.getKey().getMostSignificantBits());
+        output.writeLong(entry.getKey().getLeastSignificantBits());
+        output.writeLong(entry.getValue().minorUnits());
+      }
+
+      output.flush();
+      fileOutput.getFD().sync();
+    }
+
+    Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  record LedgerSnapshot(long sequence, long persistedSequence, Map<UUID, Money> balanceMap) {
+
+  }
+}
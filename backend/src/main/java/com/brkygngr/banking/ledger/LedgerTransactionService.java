@@ -0,0 +1,301 @@
+package com.brkygngr.banking.ledger;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.transaction.AccountHistoryQuery;
+import com.brkygngr.banking.dto.transaction.AccountHistoryResponse;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.dto.transaction.TransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.TransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.TransferSubmittedResponse;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.entity.TransactionIds;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.event.AccountActivityEvent;
+import com.brkygngr.banking.exception.AccountNotFoundException;
+import com.brkygngr.banking.exception.LedgerUnavailableException;
+import com.brkygngr.banking.exception.TransactionNotFoundException;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.AccountRepository;
+import com.brkygngr.banking.repository.LedgerEntryRepository;
+import com.brkygngr.banking.service.DBTransactionService;
+import com.brkygngr.banking.service.TransactionService;
+import com.brkygngr.banking.service.TransferGuard;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "transfer.engine", havingValue = "LEDGER")
+public class LedgerTransactionService implements TransactionService {
+
+  private final LedgerEngine ledgerEngine;
+
+  private final DBTransactionService dbTransactionService;
+
+  private final UserIdentityCache userIdentityCache;
+
+  private final AccountRepository accountRepository;
+
+  private final LedgerEntryRepository ledgerEntryRepository;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final MessageSource messageSource;
+
+  private final long ackTimeoutMillis;
+
+  public LedgerTransactionService(final LedgerEngine ledgerEngine,
+                                  final DBTransactionService dbTransactionService,
+                                  final UserIdentityCache userIdentityCache,
+                                  final AccountRepository accountRepository,
+                                  final LedgerEntryRepository ledgerEntryRepository,
+                                  final ApplicationEventPublisher eventPublisher,
+                                  final MessageSource messageSource,
+                                  @Value("${ledger.ackTimeoutMillis}") final long ackTimeoutMillis) {
+    this.ledgerEngine = ledgerEngine;
+    this.dbTransactionService = dbTransactionService;
+    this.userIdentityCache = userIdentityCache;
+    this.accountRepository = accountRepository;
+    this.ledgerEntryRepository = ledgerEntryRepository;
+    this.eventPublisher = eventPublisher;
+    this.messageSource = messageSource;
+    this.ackTimeoutMillis = ackTimeoutMillis;
+  }
+
+  @Override
+  public TransferMoneyResponse transferMoney(final CurrentUser currentUser,
+                                             final TransferMoneyRequest transferMoneyRequest,
+                                             final TransferGuard<TransferMoneyResponse> transferGuard) {
+    final UUID transactionId = TransactionIds.next();
+
+    Optional<TransferMoneyResponse> stored = transferGuard.claim(transactionId);
+
+    if (stored.isPresent()) {
+      return stored.get();
+    }
+
+    final CompletableFuture<LedgerRecord> future = admit(currentUser,
+                                                         transactionId,
+                                                         transferMoneyRequest,
+                                                         transferGuard);
+
+    final LedgerRecord record;
+
+    try {
+      record = await(future);
+    } catch (LedgerUnavailableException exception) {
+      // An admitted transfer may still be journaled, so the key is completed by the late ack instead of released.
+      future.thenAcceptAsync(late -> transferGuard.complete(toResponse(late)));
+
+      throw exception;
+    }
+
+    log.info("User#{} transfer {} of {} from {} to {} journaled as #{}",
+             currentUser.id(),
+             record.status(),
+             record.amount(),
+             record.from(),
+             record.to(),
+             record.sequence());
+
+    TransferMoneyResponse response = toResponse(record);
+
+    transferGuard.complete(response);
+
+    return response;
+  }
+
+  @Override
+  public BatchTransferMoneyResponse transferMoneyBatch(final CurrentUser currentUser,
+                                                       final BatchTransferMoneyRequest batchTransferMoneyRequest) {
+    final User user = userIdentityCache.getReference(currentUser);
+
+    final List<TransferMoneyRequest> transferList = batchTransferMoneyRequest.transfers();
+    final Map<UUID, Money> balanceMap = findBalances(transferList, user);
+    final LocalDateTime transactionDate = LocalDateTime.now();
+
+    final List<CompletableFuture<LedgerRecord>> futureList = new ArrayList<>(transferList.size());
+
+    for (TransferMoneyRequest transfer : transferList) {
+      if (balanceMap.containsKey(transfer.from()) && balanceMap.containsKey(transfer.to())) {
+        futureList.add(submit(user.getId(), TransactionIds.next(), transfer, balanceMap, transactionDate));
+      } else {
+        futureList.add(null);
+      }
+    }
+
+    final List<TransferMoneyResponse> resultList = new ArrayList<>(transferList.size());
+
+    for (CompletableFuture<LedgerRecord> future : futureList) {
+      if (future == null) {
+        resultList.add(new TransferMoneyResponse(TransactionStatus.FAILED,
+                                                 messageSource.getMessage("app.account.not.found",
+                                                                          null,
+                                                                          Locale.ENGLISH)));
+      } else {
+        resultList.add(toResponse(await(future)));
+      }
+    }
+
+    return new BatchTransferMoneyResponse(resultList);
+  }
+
+  @Override
+  public TransferSubmittedResponse submitTransfer(final CurrentUser currentUser,
+                                                  final TransferMoneyRequest transferMoneyRequest,
+                                                  final TransferGuard<TransferSubmittedResponse> transferGuard) {
+    final UUID transactionId = TransactionIds.next();
+
+    Optional<TransferSubmittedResponse> stored = transferGuard.claim(transactionId);
+
+    if (stored.isPresent()) {
+      return stored.get();
+    }
+
+    // The journal is already a durable queue, so the request only waits for admission, not for the write.
+    admit(currentUser, transactionId, transferMoneyRequest, transferGuard);
+
+    TransferSubmittedResponse response = new TransferSubmittedResponse(transactionId, TransactionStatus.PENDING);
+
+    transferGuard.complete(response);
+
+    return response;
+  }
+
+  // The engine is asked first, since it only forgets a transfer once the database holds its row.
+  @Override
+  public TransactionHistoryResponse getTransaction(final CurrentUser currentUser, final UUID transactionId) {
+    Optional<TransactionHistoryResponse> unpersisted = ledgerEngine.find(transactionId);
+
+    if (unpersisted.isEmpty()) {
+      return dbTransactionService.getTransaction(currentUser, transactionId);
+    }
+
+    User user = userIdentityCache.getReference(currentUser);
+
+    if (!accountRepository.existsByIdAndUser(unpersisted.get().from(), user)) {
+      throw TransactionNotFoundException.withDefaultMessage();
+    }
+
+    return unpersisted.get();
+  }
+
+  @Override
+  public AccountHistoryResponse accountHistory(final CurrentUser currentUser,
+                                               final UUID accountId,
+                                               final AccountHistoryQuery accountHistoryQuery) {
+    return dbTransactionService.accountHistory(currentUser, accountId, accountHistoryQuery);
+  }
+
+  private Map<UUID, Money> findBalances(final List<TransferMoneyRequest> transferList, final User user) {
+    List<UUID> accountIdList = transferList.stream()
+                                           .flatMap(transfer -> Stream.of(transfer.from(), transfer.to()))
+                                           .distinct()
+                                           .toList();
+
+    return ledgerEntryRepository.findLiveBalanceMap(accountRepository.findAllByIdInAndUser(accountIdList, user));
+  }
+
+  // Failures up to admission happen before the engine sees the transfer, so only they may release the key.
+  private CompletableFuture<LedgerRecord> admit(final CurrentUser currentUser,
+                                                final UUID transactionId,
+                                                final TransferMoneyRequest transferMoneyRequest,
+                                                final TransferGuard<?> transferGuard) {
+    try {
+      final User user = userIdentityCache.getReference(currentUser);
+
+      final Map<UUID, Money> balanceMap = findBalances(List.of(transferMoneyRequest), user);
+
+      if (balanceMap.size() != 2) {
+        log.warn("User#{} accounts {} {} not found!",
+                 user.getId(),
+                 transferMoneyRequest.from(),
+                 transferMoneyRequest.to());
+
+        throw AccountNotFoundException.withDefaultMessage();
+      }
+
+      CompletableFuture<LedgerRecord> future = submit(user.getId(),
+                                                      transactionId,
+                                                      transferMoneyRequest,
+                                                      balanceMap,
+                                                      LocalDateTime.now());
+
+      if (future.isCompletedExceptionally()) {
+        throw LedgerUnavailableException.withDefaultMessage();
+      }
+
+      return future;
+    } catch (RuntimeException exception) {
+      transferGuard.release();
+
+      throw exception;
+    }
+  }
+
+  private CompletableFuture<LedgerRecord> submit(final UUID userId,
+                                                 final UUID transactionId,
+                                                 final TransferMoneyRequest transfer,
+                                                 final Map<UUID, Money> balanceMap,
+                                                 final LocalDateTime transactionDate) {
+    CompletableFuture<LedgerRecord> future = ledgerEngine.submit(new LedgerTransfer(transactionId,
+                                                                                    transfer.from(),
+                                                                                    transfer.to(),
+                                                                                    transfer.amount(),
+                                                                                    balanceMap.get(transfer.from()),
+                                                                                    balanceMap.get(transfer.to()),
+                                                                                    transactionDate));
+
+    // The ack means the transfer is journaled, which is the ledger's commit, so subscribers hear of it from there.
+    future.thenAcceptAsync(record -> eventPublisher.publishEvent(
+        new AccountActivityEvent(userId, List.of(TransactionHistoryResponse.fromLedgerRecord(record)))));
+
+    return future;
+  }
+
+  private LedgerRecord await(final CompletableFuture<LedgerRecord> future) {
+    try {
+      return future.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+
+      throw LedgerUnavailableException.withDefaultMessage();
+    } catch (ExecutionException | TimeoutException exception) {
+      log.error("Ledger did not acknowledge transfer.", exception);
+
+      throw LedgerUnavailableException.withDefaultMessage();
+    }
+  }
+
+  private TransferMoneyResponse toResponse(final LedgerRecord record) {
+    if (record.status() == TransactionStatus.SUCCESS) {
+      return new TransferMoneyResponse(record.status(), "");
+    }
+
+    return new TransferMoneyResponse(record.status(),
+                                     messageSource.getMessage("app.transaction.not.enough.money",
+                                                              null,
+                                                              Locale.ENGLISH));
+  }
+}
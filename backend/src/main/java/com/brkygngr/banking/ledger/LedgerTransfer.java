@@ -0,0 +1,15 @@
+package com.brkygngr.banking.ledger;
+
+import com.brkygngr.banking.money.Money;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record LedgerTransfer(UUID transactionId,
+                             UUID from,
+                             UUID to,
+                             Money amount,
+                             Money storedFromBalance,
+                             Money storedToBalance,
+                             LocalDateTime transactionDate) {
+
+}
@@ -0,0 +1,148 @@
+package com.brkygngr.banking.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.math.BigDecimal;
+
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public final class Money implements Comparable<Money> {
+
+  public static final int SCALE = 6;
+
+  private static final long UNIT = 1_000_000L;
+
+  public static final Money ZERO = new Money(0);
+
+  private final long minorUnits;
+
+  private Money(final long minorUnits) {
+    this.minorUnits = minorUnits;
+  }
+
+  public static Money ofMinorUnits(final long minorUnits) {
+    return minorUnits == 0 ? ZERO : new Money(minorUnits);
+  }
+
+  public static Money valueOf(final long units) {
+    return ofMinorUnits(Math.multiplyExact(units, UNIT));
+  }
+
+  public static Money of(final BigDecimal value) {
+    return ofMinorUnits(value.movePointRight(SCALE).longValueExact());
+  }
+
+  public static Money parse(final String text) {
+    int length = text.length();
+    int index = 0;
+
+    boolean negative = false;
+
+    if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+      negative = text.charAt(0) == '-';
+      index++;
+    }
+
+    long units = 0;
+    int fractionDigits = 0;
+    boolean point = false;
+    boolean digit = false;
+
+    for (; index < length; index++) {
+      char character = text.charAt(index);
+
+      if (character == '.' && !point) {
+        point = true;
+        continue;
+      }
+
+      if (character < '0' || character > '9') {
+        return of(new BigDecimal(text));
+      }
+
+      digit = true;
+
+      if (point && ++fractionDigits > SCALE) {
+        if (character != '0') {
+          throw new ArithmeticException("Money has at most " + SCALE + " decimal places: " + text);
+        }
+
+        continue;
+      }
+
+      units = Math.addExact(Math.multiplyExact(units, 10), character - '0');
+    }
+
+    if (!digit) {
+      throw new NumberFormatException("Not a money value: " + text);
+    }
+
+    for (int i = Math.min(fractionDigits, SCALE); i < SCALE; i++) {
+      units = Math.multiplyExact(units, 10);
+    }
+
+    return ofMinorUnits(negative ? -units : units);
+  }
+
+  public long minorUnits() {
+    return minorUnits;
+  }
+
+  public Money add(final Money other) {
+    return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+  }
+
+  public Money subtract(final Money other) {
+    return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+  }
+
+  public Money negate() {
+    return ofMinorUnits(Math.negateExact(minorUnits));
+  }
+
+  public int signum() {
+    return Long.signum(minorUnits);
+  }
+
+  public boolean isLessThan(final Money other) {
+    return minorUnits < other.minorUnits;
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  @Override
+  public int compareTo(final Money other) {
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    return other instanceof Money money && money.minorUnits == minorUnits;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    String fraction = Long.toString(Math.abs(minorUnits % UNIT));
+
+    StringBuilder builder = new StringBuilder(24);
+
+    if (minorUnits < 0) {
+      builder.append('-');
+    }
+
+    builder.append(Math.abs(minorUnits / UNIT)).append('.');
+
+    for (int i = fraction.length(); i < SCALE; i++) {
+      builder.append('0');
+    }
+
+    return builder.append(fraction).toString();
+  }
+}
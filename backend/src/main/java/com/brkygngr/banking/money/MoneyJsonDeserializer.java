@@ -0,0 +1,34 @@
+package com.brkygngr.banking.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import java.io.IOException;
+
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+  public MoneyJsonDeserializer() {
+    super(Money.class);
+  }
+
+  @Override
+  public Money deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+    JsonToken token = parser.currentToken();
+
+    if (token != JsonToken.VALUE_NUMBER_INT
+        && token != JsonToken.VALUE_NUMBER_FLOAT
+        && token != JsonToken.VALUE_STRING) {
+      return (Money) context.handleUnexpectedToken(Money.class, parser);
+    }
+
+    String text = parser.getText().trim();
+
+    try {
+      return Money.parse(text);
+    } catch (ArithmeticException | NumberFormatException exception) {
+      throw InvalidFormatException.from(parser, exception.getMessage(), text, Money.class);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.brkygngr.banking.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+public class MoneyJsonSerializer extends StdSerializer<Money> {
+
+  public MoneyJsonSerializer() {
+    super(Money.class);
+  }
+
+  @Override
+  public void serialize(final Money money,
+                        final JsonGenerator generator,
+                        final SerializerProvider provider) throws IOException {
+    generator.writeNumber(money.toString());
+  }
+}
@@ -2,19 +2,64 @@ package com.brkygngr.banking.repository;
 
 import com.brkygngr.banking.entity.Account;
 import com.brkygngr.banking.entity.User;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface AccountRepository extends JpaRepository<Account, UUID>, JpaSpecificationExecutor<Account> {
+public interface AccountRepository extends JpaRepository<Account, UUID>,
+                                           JpaSpecificationExecutor<Account>,
+                                           AccountRepositoryCustom {
+
+  String STATE_DIGEST = """
+      SELECT md5(concat_ws('/', a.version,
+        (SELECT count(*) FROM ledger_entry e WHERE e.account_id = a.id AND NOT e.compacted),
+        (SELECT count(*) FROM transaction t WHERE t.from_account_id = a.id AND t.status = 'PENDING'),
+        (SELECT count(*) FROM transaction t WHERE t.to_account_id = a.id AND t.status = 'PENDING'),
+        (SELECT t.id FROM transaction t WHERE t.from_account_id = a.id
+         ORDER BY t.transaction_date DESC, t.id DESC LIMIT 1),
+        (SELECT t.id FROM transaction t WHERE t.to_account_id = a.id
+         ORDER BY t.transaction_date DESC, t.id DESC LIMIT 1)))
+      FROM account a WHERE a.id = :accountId AND a.user_id = :userId""";
 
   Optional<Account> findByIdAndUser(UUID id, User user);
 
   List<Account> findAllByIdInAndUser(List<UUID> uuidList, User user);
 
+  // Rows are locked in primary key order so concurrent transfers over the same accounts can not deadlock.
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT a FROM Account a WHERE a.id IN :uuidList AND a.user = :user ORDER BY a.id")
+  List<Account> findAllByIdInAndUserForUpdate(@Param("uuidList") List<UUID> uuidList, @Param("user") User user);
+
+  // Bumps the version of every returned account on commit so concurrent debits of the same account conflict.
+  @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+  @Query("SELECT a FROM Account a WHERE a.id IN :uuidList AND a.user = :user")
+  List<Account> findAllByIdInAndUserForVersionIncrement(@Param("uuidList") List<UUID> uuidList,
+                                                        @Param("user") User user);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT a FROM Account a WHERE a.id IN :uuidList ORDER BY a.id")
+  List<Account> findAllByIdInForUpdate(@Param("uuidList") List<UUID> uuidList);
+
+  @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+  @Query("SELECT a FROM Account a WHERE a.id IN :uuidList")
+  List<Account> findAllByIdInForVersionIncrement(@Param("uuidList") List<UUID> uuidList);
+
+  // Names are unique across all users, so a bulk request checks them up front instead of failing the whole batch.
+  @Query("SELECT a.name FROM Account a WHERE a.name IN :nameList")
+  List<String> findNamesByNameIn(@Param("nameList") Collection<String> nameList);
+
   void deleteByIdAndUser(UUID id, User user);
 
   boolean existsByIdAndUser(UUID id, User user);
+
+  // Every write an account shows moves one of these inputs, so the digest changes with it on every node alike.
+  @Query(value = STATE_DIGEST, nativeQuery = true)
+  Optional<String> findStateDigest(@Param("accountId") UUID accountId, @Param("userId") UUID userId);
 }
@@ -0,0 +1,11 @@
+package com.brkygngr.banking.repository;
+
+import com.brkygngr.banking.entity.Account;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface AccountRepositoryCustom {
+
+  Slice<Account> findSlice(Specification<Account> specification, Pageable pageable);
+}
@@ -0,0 +1,47 @@
+package com.brkygngr.banking.repository;
+
+import com.brkygngr.banking.entity.Account;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+@RequiredArgsConstructor
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+  private final EntityManager entityManager;
+
+  // One row past the page tells whether another page exists, so no COUNT query is needed.
+  @Override
+  public Slice<Account> findSlice(final Specification<Account> specification, final Pageable pageable) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Account> query = criteriaBuilder.createQuery(Account.class);
+    Root<Account> root = query.from(Account.class);
+
+    query.select(root)
+         .where(specification.toPredicate(root, query, criteriaBuilder))
+         .orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+    TypedQuery<Account> typedQuery = entityManager.createQuery(query);
+
+    if (pageable.isUnpaged()) {
+      return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+    }
+
+    List<Account> accountList = typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()))
+                                          .setMaxResults(pageable.getPageSize() + 1)
+                                          .getResultList();
+
+    boolean hasNext = accountList.size() > pageable.getPageSize();
+
+    return new SliceImpl<>(hasNext ? accountList.subList(0, pageable.getPageSize()) : accountList, pageable, hasNext);
+  }
+}
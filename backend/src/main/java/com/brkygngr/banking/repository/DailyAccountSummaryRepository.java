@@ -0,0 +1,53 @@
+package com.brkygngr.banking.repository;
+
+import com.brkygngr.banking.entity.DailyAccountSummary;
+import com.brkygngr.banking.repository.projection.DailySummaryRow;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface DailyAccountSummaryRepository extends JpaRepository<DailyAccountSummary, DailyAccountSummary.Key> {
+
+  @Query(value = "SELECT summary_date AS \"summaryDate\", inflow AS \"inflow\", outflow AS \"outflow\", "
+      + "transaction_count AS \"transactionCount\" FROM daily_account_summary "
+      + "WHERE account_id = :accountId AND summary_date BETWEEN :fromDate AND :toDate", nativeQuery = true)
+  List<DailySummaryRow> findRowsBetween(@Param("accountId") UUID accountId,
+                                        @Param("fromDate") LocalDate fromDate,
+                                        @Param("toDate") LocalDate toDate);
+
+  @Query(value = "SELECT COALESCE(SUM(inflow - outflow), 0) FROM daily_account_summary "
+      + "WHERE account_id = :accountId AND summary_date > :date", nativeQuery = true)
+  BigDecimal sumNetAfter(@Param("accountId") UUID accountId, @Param("date") LocalDate date);
+
+  // Claiming, marking and folding happen in one statement, so an entry is counted exactly once even if the
+  // aggregator runs on several instances.
+  @Transactional
+  @Modifying
+  @Query(value = """
+      WITH claimed_entry AS (
+        SELECT id FROM ledger_entry WHERE NOT summarized LIMIT :batchSize FOR UPDATE SKIP LOCKED),
+      summarized_entry AS (
+        UPDATE ledger_entry SET summarized = true FROM claimed_entry
+        WHERE ledger_entry.id = claimed_entry.id
+        RETURNING ledger_entry.account_id, ledger_entry.entry_date, ledger_entry.amount)
+      INSERT INTO daily_account_summary (account_id, summary_date, inflow, outflow, transaction_count)
+      SELECT account_id,
+             CAST(entry_date AS DATE),
+             COALESCE(SUM(amount) FILTER (WHERE amount > 0), 0),
+             COALESCE(-SUM(amount) FILTER (WHERE amount < 0), 0),
+             COUNT(*)
+      FROM summarized_entry
+      GROUP BY account_id, CAST(entry_date AS DATE)
+      ON CONFLICT (account_id, summary_date) DO UPDATE
+      SET inflow = daily_account_summary.inflow + EXCLUDED.inflow,
+          outflow = daily_account_summary.outflow + EXCLUDED.outflow,
+          transaction_count = daily_account_summary.transaction_count + EXCLUDED.transaction_count""",
+      nativeQuery = true)
+  int summarizePendingEntries(@Param("batchSize") int batchSize);
+}
@@ -0,0 +1,57 @@
+package com.brkygngr.banking.repository;
+
+import com.brkygngr.banking.entity.IdempotencyRecord;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.entity.User;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, UUID> {
+
+  Optional<IdempotencyRecord> findByUserAndIdempotencyKey(User user, String idempotencyKey);
+
+  // Returns 0 instead of failing when the key is already claimed, so the session never sees a constraint violation.
+  @Transactional
+  @Modifying
+  @Query(value = """
+      INSERT INTO idempotency_record (id, user_id, idempotency_key, request_hash, created_at)
+      VALUES (gen_random_uuid(), :userId, :idempotencyKey, :requestHash, now())
+      ON CONFLICT (user_id, idempotency_key) DO NOTHING""", nativeQuery = true)
+  int claim(@Param("userId") UUID userId,
+            @Param("idempotencyKey") String idempotencyKey,
+            @Param("requestHash") String requestHash);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE IdempotencyRecord r SET r.transactionId = :transactionId "
+      + "WHERE r.user = :user AND r.idempotencyKey = :idempotencyKey")
+  int attachTransaction(@Param("user") User user,
+                        @Param("idempotencyKey") String idempotencyKey,
+                        @Param("transactionId") UUID transactionId);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.reason = :reason, r.transactionId = :transactionId "
+      + "WHERE r.user = :user AND r.idempotencyKey = :idempotencyKey")
+  int complete(@Param("user") User user,
+               @Param("idempotencyKey") String idempotencyKey,
+               @Param("status") TransactionStatus status,
+               @Param("reason") String reason,
+               @Param("transactionId") UUID transactionId);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.user = :user AND r.idempotencyKey = :idempotencyKey")
+  int release(@Param("user") User user, @Param("idempotencyKey") String idempotencyKey);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :createdAt")
+  int deleteAllCreatedBefore(@Param("createdAt") LocalDateTime createdAt);
+}
@@ -0,0 +1,62 @@
+package com.brkygngr.banking.repository;
+
+import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.entity.LedgerEntry;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.projection.AccountBalanceDelta;
+import com.brkygngr.banking.repository.projection.DailySummaryRow;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+  @Query(value = "SELECT account_id AS \"accountId\", SUM(amount) AS \"amount\" FROM ledger_entry "
+      + "WHERE account_id IN :accountIdList AND NOT compacted GROUP BY account_id", nativeQuery = true)
+  List<AccountBalanceDelta> sumUncompactedAmounts(@Param("accountIdList") Collection<UUID> accountIdList);
+
+  // Entries the aggregator has not folded yet, shaped like summary rows so a statement can add them on top.
+  @Query(value = "SELECT CAST(entry_date AS DATE) AS \"summaryDate\", "
+      + "COALESCE(SUM(amount) FILTER (WHERE amount > 0), 0) AS \"inflow\", "
+      + "COALESCE(-SUM(amount) FILTER (WHERE amount < 0), 0) AS \"outflow\", COUNT(*) AS \"transactionCount\" "
+      + "FROM ledger_entry WHERE account_id = :accountId AND NOT summarized "
+      + "GROUP BY CAST(entry_date AS DATE)", nativeQuery = true)
+  List<DailySummaryRow> sumUnsummarizedAmountsByDay(@Param("accountId") UUID accountId);
+
+  @Query(value = "SELECT account_id FROM ledger_entry WHERE NOT compacted "
+      + "GROUP BY account_id HAVING COUNT(*) >= :threshold LIMIT :limit", nativeQuery = true)
+  List<UUID> findAccountIdsToCompact(@Param("threshold") long threshold, @Param("limit") int limit);
+
+  // Marking entries and folding their sum happen in one statement, so entries committed concurrently are never lost.
+  @Transactional
+  @Modifying
+  @Query(value = """
+      WITH compacted_entry AS (
+        UPDATE ledger_entry SET compacted = true
+        WHERE account_id = :accountId AND NOT compacted
+        RETURNING amount)
+      UPDATE account
+      SET balance = balance + (SELECT COALESCE(SUM(amount), 0) FROM compacted_entry), version = version + 1
+      WHERE id = :accountId""", nativeQuery = true)
+  int compact(@Param("accountId") UUID accountId);
+
+  default Map<UUID, Money> findLiveBalanceMap(final Collection<Account> accountList) {
+    Map<UUID, Money> balanceMap = new HashMap<>();
+
+    accountList.forEach(account -> balanceMap.put(account.getId(), account.getBalance()));
+
+    if (!balanceMap.isEmpty()) {
+      sumUncompactedAmounts(balanceMap.keySet())
+          .forEach(delta -> balanceMap.merge(delta.getAccountId(), Money.of(delta.getAmount()), Money::add));
+    }
+
+    return balanceMap;
+  }
+}
@@ -1,12 +1,98 @@
 package com.brkygngr.banking.repository;
 
-import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
 import com.brkygngr.banking.entity.Transaction;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.repository.projection.PendingTransaction;
+import com.brkygngr.banking.repository.projection.TransactionHistoryRow;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
-  List<Transaction> findAllByFromOrTo(Account from, Account to);
+  String HISTORY_COLUMNS = "SELECT id AS \"id\", from_account_id AS \"fromAccountId\", "
+      + "to_account_id AS \"toAccountId\", amount AS \"amount\", transaction_date AS \"transactionDate\", "
+      + "status AS \"status\" FROM transaction ";
+
+  // The plain date range repeats the row bounds because partitions are only pruned on a bare column comparison.
+  String HISTORY_KEYSET = "AND transaction_date BETWEEN :lowerDate AND :upperDate "
+      + "AND (transaction_date, id) > (:lowerDate, :lowerId) "
+      + "AND (transaction_date, id) < (:upperDate, :upperId) ";
+
+  // Each branch is its own index range scan; the union only saves a round trip, the caller still merges the halves.
+  String HISTORY_PAGE_DESCENDING = "(" + HISTORY_COLUMNS + "WHERE from_account_id = :accountId " + HISTORY_KEYSET
+      + "ORDER BY transaction_date DESC, id DESC LIMIT :limit) UNION ALL ("
+      + HISTORY_COLUMNS + "WHERE to_account_id = :accountId AND from_account_id <> :accountId " + HISTORY_KEYSET
+      + "ORDER BY transaction_date DESC, id DESC LIMIT :limit)";
+
+  String HISTORY_PAGE_ASCENDING = "(" + HISTORY_COLUMNS + "WHERE from_account_id = :accountId " + HISTORY_KEYSET
+      + "ORDER BY transaction_date, id LIMIT :limit) UNION ALL ("
+      + HISTORY_COLUMNS + "WHERE to_account_id = :accountId AND from_account_id <> :accountId " + HISTORY_KEYSET
+      + "ORDER BY transaction_date, id LIMIT :limit)";
+
+  String PENDING_FOR_UPDATE = "SELECT id AS \"id\", from_account_id AS \"fromAccountId\", "
+      + "transaction_date AS \"transactionDate\" FROM transaction WHERE status = 'PENDING' "
+      + "AND transaction_date >= :since ORDER BY transaction_date LIMIT :limit FOR UPDATE SKIP LOCKED";
+
+  // The lower date bound lets both branches skip the partitions older than the account.
+  String EXPORT_HISTORY = "(" + HISTORY_COLUMNS + "WHERE from_account_id = :accountId AND transaction_date >= :since) "
+      + "UNION ALL (" + HISTORY_COLUMNS + "WHERE to_account_id = :accountId AND from_account_id <> :accountId "
+      + "AND transaction_date >= :since) ORDER BY \"transactionDate\", \"id\"";
+
+  String EXPORT_FETCH_SIZE = "1000";
+
+  // Account ids are read from the foreign key columns, so neither account nor its user is loaded.
+  @Query("SELECT new com.brkygngr.banking.dto.transaction.TransactionHistoryResponse(t.id, t.from.id, t.to.id, "
+      + "t.amount, t.transactionDate, t.status) FROM Transaction t WHERE t.id = :id AND t.from.user = :user")
+  Optional<TransactionHistoryResponse> findHistoryByIdAndFromUser(@Param("id") UUID id, @Param("user") User user);
+
+  // The date range is bound at execution, so only the partitions it overlaps are opened.
+  @Query("SELECT new com.brkygngr.banking.dto.transaction.TransactionHistoryResponse(t.id, t.from.id, t.to.id, "
+      + "t.amount, t.transactionDate, t.status) FROM Transaction t WHERE t.id = :id AND t.from.user = :user "
+      + "AND t.transactionDate BETWEEN :lowerDate AND :upperDate")
+  Optional<TransactionHistoryResponse> findHistoryByIdAndFromUserBetween(@Param("id") UUID id,
+                                                                         @Param("user") User user,
+                                                                         @Param("lowerDate") LocalDateTime lowerDate,
+                                                                         @Param("upperDate") LocalDateTime upperDate);
+
+  // Both branches come back in index order, so the union is merged instead of sorted and the first rows stream at once.
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query(value = EXPORT_HISTORY, nativeQuery = true)
+  Stream<TransactionHistoryRow> streamAllByAccountIdSince(@Param("accountId") UUID accountId,
+                                                          @Param("since") LocalDateTime since);
+
+  // Keyset bounds keep a page the same cost however long the history is.
+  @Query(value = HISTORY_PAGE_DESCENDING, nativeQuery = true)
+  List<TransactionHistoryRow> findHistoryBetweenDescending(@Param("accountId") UUID accountId,
+                                                           @Param("lowerDate") LocalDateTime lowerDate,
+                                                           @Param("lowerId") UUID lowerId,
+                                                           @Param("upperDate") LocalDateTime upperDate,
+                                                           @Param("upperId") UUID upperId,
+                                                           @Param("limit") int limit);
+
+  @Query(value = HISTORY_PAGE_ASCENDING, nativeQuery = true)
+  List<TransactionHistoryRow> findHistoryBetweenAscending(@Param("accountId") UUID accountId,
+                                                          @Param("lowerDate") LocalDateTime lowerDate,
+                                                          @Param("lowerId") UUID lowerId,
+                                                          @Param("upperDate") LocalDateTime upperDate,
+                                                          @Param("upperId") UUID upperId,
+                                                          @Param("limit") int limit);
+
+  // Rows claimed by another worker are skipped instead of waited on, so workers never queue behind each other.
+  @Query(value = PENDING_FOR_UPDATE, nativeQuery = true)
+  List<PendingTransaction> findPendingForUpdate(@Param("since") LocalDateTime since, @Param("limit") int limit);
+
+  List<Transaction> findAllByIdInAndTransactionDateGreaterThanEqual(List<UUID> idList, LocalDateTime transactionDate);
 }
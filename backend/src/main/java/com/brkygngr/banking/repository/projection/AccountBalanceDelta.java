@@ -0,0 +1,11 @@
+package com.brkygngr.banking.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public interface AccountBalanceDelta {
+
+  UUID getAccountId();
+
+  BigDecimal getAmount();
+}
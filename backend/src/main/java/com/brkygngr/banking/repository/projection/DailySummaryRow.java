@@ -0,0 +1,15 @@
+package com.brkygngr.banking.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface DailySummaryRow {
+
+  LocalDate getSummaryDate();
+
+  BigDecimal getInflow();
+
+  BigDecimal getOutflow();
+
+  long getTransactionCount();
+}
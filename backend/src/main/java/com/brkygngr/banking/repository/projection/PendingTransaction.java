@@ -0,0 +1,13 @@
+package com.brkygngr.banking.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface PendingTransaction {
+
+  UUID getId();
+
+  UUID getFromAccountId();
+
+  LocalDateTime getTransactionDate();
+}
@@ -0,0 +1,21 @@
+package com.brkygngr.banking.repository.projection;
+
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface TransactionHistoryRow {
+
+  UUID getId();
+
+  UUID getFromAccountId();
+
+  UUID getToAccountId();
+
+  BigDecimal getAmount();
+
+  LocalDateTime getTransactionDate();
+
+  TransactionStatus getStatus();
+}
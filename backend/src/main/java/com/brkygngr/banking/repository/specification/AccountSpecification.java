@@ -11,6 +11,8 @@ import org.springframework.data.jpa.domain.Specification;
 @RequiredArgsConstructor
 public class AccountSpecification implements Specification<Account> {
 
+  private static final char LIKE_ESCAPE = '\\';
+
   private final AccountSearchCriteria accountSearchCriteria;
 
   @Override
@@ -24,8 +26,8 @@ public class AccountSpecification implements Specification<Account> {
       return userPredicate;
     }
 
-    Predicate numberPredicate = criteriaBuilder.like(root.get("number"), "%" + number + "%");
-    Predicate namePredicate = criteriaBuilder.like(root.get("name"), "%" + name + "%");
+    Predicate numberPredicate = criteriaBuilder.like(root.get("number"), containsPattern(number), LIKE_ESCAPE);
+    Predicate namePredicate = criteriaBuilder.like(root.get("name"), containsPattern(name), LIKE_ESCAPE);
 
     if (number.isBlank()) {
       return criteriaBuilder.and(userPredicate, namePredicate);
@@ -39,4 +41,13 @@ public class AccountSpecification implements Specification<Account> {
 
     return criteriaBuilder.and(userPredicate, numberOrNamePredicate);
   }
+
+  // Wildcards typed by the user are matched literally, so a lone '%' can not turn into a scan of every account.
+  static String containsPattern(final String value) {
+    String escaped = value.replace("\\", "\\\\")
+                          .replace("%", "\\%")
+                          .replace("_", "\\_");
+
+    return "%" + escaped + "%";
+  }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.brkygngr.banking.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class AccountNumberAllocator {
+
+  // The block size is read with every reservation, so it can never disagree with the sequence's increment.
+  private static final String RESERVE_BLOCK_SQL = "SELECT nextval('account_number_seq'), increment_by "
+      + "FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = 'account_number_seq'";
+
+  private static final Block EXHAUSTED = new Block(0, 0);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final AtomicReference<Block> currentBlock = new AtomicReference<>(EXHAUSTED);
+
+  public AccountNumberAllocator(final JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  // Serials come from a block this node reserved up front, so a number costs one atomic increment and can never
+  // collide with one handed out by another node.
+  public String allocate() {
+    while (true) {
+      Block block = currentBlock.get();
+      long serial = block.next().getAndIncrement();
+
+      if (serial < block.end()) {
+        return withCheckDigit(serial);
+      }
+
+      Block reserved = reserveBlock();
+
+      // A thread that loses the race keeps its block for this one number; the rest of it is left as a gap.
+      if (!currentBlock.compareAndSet(block, reserved)) {
+        return withCheckDigit(reserved.next().getAndIncrement());
+      }
+    }
+  }
+
+  public List<String> allocate(final int count) {
+    List<String> numberList = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      numberList.add(allocate());
+    }
+
+    return numberList;
+  }
+
+  static String withCheckDigit(final long serial) {
+    String body = Long.toString(serial);
+
+    return body + luhnCheckDigit(body);
+  }
+
+  static int luhnCheckDigit(final String body) {
+    int sum = 0;
+
+    // Digits are doubled from the rightmost body digit, which sits next to the check digit.
+    for (int i = body.length() - 1, position = 0; i >= 0; i--, position++) {
+      int digit = body.charAt(i) - '0';
+
+      if (position % 2 == 0) {
+        digit *= 2;
+
+        if (digit > 9) {
+          digit -= 9;
+        }
+      }
+
+      sum += digit;
+    }
+
+    return (10 - sum % 10) % 10;
+  }
+
+  private Block reserveBlock() {
+    Block block = jdbcTemplate.queryForObject(RESERVE_BLOCK_SQL,
+                                              (resultSet, rowNum) -> new Block(resultSet.getLong(1),
+                                                                               resultSet.getLong(1)
+                                                                                   + resultSet.getLong(2)));
+
+    log.info("Reserved account number block [{}, {})", block.next().get(), block.end());
+
+    return block;
+  }
+
+  private record Block(AtomicLong next, long end) {
+
+    Block(final long start, final long end) {
+      this(new AtomicLong(start), end);
+    }
+  }
+}
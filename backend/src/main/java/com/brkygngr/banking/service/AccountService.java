@@ -1,26 +1,35 @@
 package com.brkygngr.banking.service;
 
+import com.brkygngr.banking.authentication.CurrentUser;
 import com.brkygngr.banking.dto.account.AccountResponse;
+import com.brkygngr.banking.dto.account.BulkAccountsResponse;
+import com.brkygngr.banking.dto.account.BulkCreateAccountsRequest;
+import com.brkygngr.banking.dto.account.BulkUpdateAccountsRequest;
 import com.brkygngr.banking.dto.account.CreateAccountRequest;
 import com.brkygngr.banking.dto.account.CreateAccountResponse;
 import com.brkygngr.banking.dto.account.SearchAccountsQuery;
 import com.brkygngr.banking.dto.account.UpdateAccountRequest;
 import java.util.UUID;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface AccountService {
 
-  CreateAccountResponse createAccount(String username, CreateAccountRequest createAccountRequest);
+  CreateAccountResponse createAccount(CurrentUser currentUser, CreateAccountRequest createAccountRequest);
 
-  Page<AccountResponse> searchAccounts(String username, SearchAccountsQuery searchAccountsQuery, Pageable pageable);
+  BulkAccountsResponse createAccounts(CurrentUser currentUser, BulkCreateAccountsRequest bulkCreateAccountsRequest);
 
+  Slice<AccountResponse> searchAccounts(CurrentUser currentUser,
+                                        SearchAccountsQuery searchAccountsQuery,
+                                        Pageable pageable);
 
-  void updateAccount(String username, UUID accountId, UpdateAccountRequest updateAccountRequest);
+  void updateAccount(CurrentUser currentUser, UUID accountId, UpdateAccountRequest updateAccountRequest);
 
+  BulkAccountsResponse updateAccounts(CurrentUser currentUser, BulkUpdateAccountsRequest bulkUpdateAccountsRequest);
 
-  void deleteAccount(String username, UUID accountId);
+  void deleteAccount(CurrentUser currentUser, UUID accountId);
 
+  AccountResponse getAccount(CurrentUser currentUser, UUID accountId);
 
-  AccountResponse getAccount(String username, UUID accountId);
+  String getAccountETag(CurrentUser currentUser, UUID accountId);
 }
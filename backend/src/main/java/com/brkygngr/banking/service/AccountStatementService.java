@@ -0,0 +1,131 @@
+package com.brkygngr.banking.service;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.account.AccountStatementQuery;
+import com.brkygngr.banking.dto.account.AccountStatementResponse;
+import com.brkygngr.banking.dto.account.DailyStatementResponse;
+import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.exception.AccountNotFoundException;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.AccountRepository;
+import com.brkygngr.banking.repository.DailyAccountSummaryRepository;
+import com.brkygngr.banking.repository.LedgerEntryRepository;
+import com.brkygngr.banking.repository.projection.DailySummaryRow;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountStatementService {
+
+  private final UserIdentityCache userIdentityCache;
+
+  private final AccountRepository accountRepository;
+
+  private final LedgerEntryRepository ledgerEntryRepository;
+
+  private final DailyAccountSummaryRepository dailyAccountSummaryRepository;
+
+  // One snapshot for every read, so entries the aggregator folds in meanwhile are counted exactly once.
+  @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+  public AccountStatementResponse getStatement(final CurrentUser currentUser,
+                                               final UUID accountId,
+                                               final AccountStatementQuery accountStatementQuery) {
+    final Account account = accountRepository.findByIdAndUser(accountId, userIdentityCache.getReference(currentUser))
+                                             .orElseThrow(AccountNotFoundException::withDefaultMessage);
+
+    final LocalDate from = accountStatementQuery.from();
+    final LocalDate to = accountStatementQuery.to();
+
+    final NavigableMap<LocalDate, DailyTotals> dayMap = new TreeMap<>();
+
+    dailyAccountSummaryRepository.findRowsBetween(accountId, from, to)
+                                 .forEach(row -> dayMap.merge(row.getSummaryDate(), DailyTotals.of(row),
+                                                              DailyTotals::add));
+
+    // Entries not yet folded by the aggregator are few, so they are added here instead of waiting for it.
+    Money laterNet = Money.of(dailyAccountSummaryRepository.sumNetAfter(accountId, to));
+
+    for (DailySummaryRow row : ledgerEntryRepository.sumUnsummarizedAmountsByDay(accountId)) {
+      if (row.getSummaryDate().isAfter(to)) {
+        laterNet = laterNet.add(DailyTotals.of(row).net());
+      } else if (!row.getSummaryDate().isBefore(from)) {
+        dayMap.merge(row.getSummaryDate(), DailyTotals.of(row), DailyTotals::add);
+      }
+    }
+
+    final Money liveBalance = ledgerEntryRepository.findLiveBalanceMap(List.of(account)).get(accountId);
+    final Money closingBalance = liveBalance.subtract(laterNet);
+
+    // Closing balances are walked back from today's balance, so they stay exact however old the statement is.
+    final List<DailyStatementResponse> dayList = new ArrayList<>(dayMap.size());
+    Money balance = closingBalance;
+    Money inflow = Money.ZERO;
+    Money outflow = Money.ZERO;
+    long transactionCount = 0;
+
+    for (Map.Entry<LocalDate, DailyTotals> day : dayMap.descendingMap().entrySet()) {
+      DailyTotals totals = day.getValue();
+
+      dayList.add(new DailyStatementResponse(day.getKey(),
+                                             totals.inflow(),
+                                             totals.outflow(),
+                                             totals.transactionCount(),
+                                             balance));
+
+      balance = balance.subtract(totals.net());
+      inflow = inflow.add(totals.inflow());
+      outflow = outflow.add(totals.outflow());
+      transactionCount += totals.transactionCount();
+    }
+
+    Collections.reverse(dayList);
+
+    log.info("User#{} read statement of account#{} from {} to {} with {} days",
+             currentUser.id(),
+             accountId,
+             from,
+             to,
+             dayList.size());
+
+    return new AccountStatementResponse(accountId,
+                                        from,
+                                        to,
+                                        balance,
+                                        closingBalance,
+                                        inflow,
+                                        outflow,
+                                        transactionCount,
+                                        dayList);
+  }
+
+  private record DailyTotals(Money inflow, Money outflow, long transactionCount) {
+
+    static DailyTotals of(final DailySummaryRow row) {
+      return new DailyTotals(Money.of(row.getInflow()), Money.of(row.getOutflow()), row.getTransactionCount());
+    }
+
+    DailyTotals add(final DailyTotals other) {
+      return new DailyTotals(inflow.add(other.inflow),
+                             outflow.add(other.outflow),
+                             transactionCount + other.transactionCount);
+    }
+
+    Money net() {
+      return inflow.subtract(outflow);
+    }
+  }
+}
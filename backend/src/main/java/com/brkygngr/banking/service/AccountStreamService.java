@@ -0,0 +1,135 @@
+package com.brkygngr.banking.service;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.account.AccountBalanceResponse;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.event.AccountActivityEvent;
+import com.brkygngr.banking.event.AccountEventBus;
+import com.brkygngr.banking.event.AccountEventSubscription;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.AccountRepository;
+import com.brkygngr.banking.repository.LedgerEntryRepository;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@Service
+public class AccountStreamService {
+
+  private final AccountEventBus accountEventBus;
+
+  private final UserIdentityCache userIdentityCache;
+
+  private final AccountRepository accountRepository;
+
+  private final LedgerEntryRepository ledgerEntryRepository;
+
+  // A parked virtual thread costs a few hundred bytes, so an idle subscriber holds neither a request thread nor a
+  // platform thread.
+  private final ThreadFactory threadFactory = Thread.ofVirtual().name("account-stream-", 0).factory();
+
+  private final long timeoutMillis;
+
+  private final long heartbeatMillis;
+
+  public AccountStreamService(final AccountEventBus accountEventBus,
+                              final UserIdentityCache userIdentityCache,
+                              final AccountRepository accountRepository,
+                              final LedgerEntryRepository ledgerEntryRepository,
+                              @Value("${account.stream.timeoutMillis}") final long timeoutMillis,
+                              @Value("${account.stream.heartbeatMillis}") final long heartbeatMillis) {
+    this.accountEventBus = accountEventBus;
+    this.userIdentityCache = userIdentityCache;
+    this.accountRepository = accountRepository;
+    this.ledgerEntryRepository = ledgerEntryRepository;
+    this.timeoutMillis = timeoutMillis;
+    this.heartbeatMillis = heartbeatMillis;
+  }
+
+  public SseEmitter subscribe(final CurrentUser currentUser) {
+    final SseEmitter emitter = new SseEmitter(timeoutMillis);
+    final AccountEventSubscription subscription = accountEventBus.subscribe(currentUser.id());
+    final Thread thread = threadFactory.newThread(() -> stream(currentUser, subscription, emitter));
+
+    final Runnable stop = () -> {
+      subscription.close();
+      thread.interrupt();
+    };
+
+    emitter.onCompletion(stop);
+    emitter.onTimeout(stop);
+    emitter.onError(exception -> stop.run());
+
+    thread.start();
+
+    log.info("User#{} subscribed to account stream", currentUser.id());
+
+    return emitter;
+  }
+
+  private void stream(final CurrentUser currentUser,
+                      final AccountEventSubscription subscription,
+                      final SseEmitter emitter) {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        List<AccountActivityEvent> eventList = subscription.poll(heartbeatMillis);
+
+        // The client reconnects and reloads, which is cheaper than replaying what the buffer could not hold.
+        if (subscription.isOverflowed()) {
+          emitter.complete();
+
+          return;
+        }
+
+        if (eventList.isEmpty()) {
+          emitter.send(SseEmitter.event().comment("heartbeat"));
+        } else {
+          send(currentUser, eventList, emitter);
+        }
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    } catch (IOException | IllegalStateException exception) {
+      log.debug("User#{} account stream closed", currentUser.id(), exception);
+    } finally {
+      subscription.close();
+    }
+  }
+
+  private void send(final CurrentUser currentUser,
+                    final List<AccountActivityEvent> eventList,
+                    final SseEmitter emitter) throws IOException {
+    final Set<UUID> accountIdSet = new LinkedHashSet<>();
+
+    for (AccountActivityEvent event : eventList) {
+      for (TransactionHistoryResponse transaction : event.transactionList()) {
+        emitter.send(SseEmitter.event().name("transaction").data(transaction));
+      }
+
+      accountIdSet.addAll(event.accountIds());
+    }
+
+    // Balances are read once per drained burst, so a busy account costs one query per wake-up instead of per transfer.
+    final User user = userIdentityCache.getReference(currentUser);
+    final List<Account> accountList = accountRepository.findAllByIdInAndUser(List.copyOf(accountIdSet), user);
+    final Map<UUID, Money> balanceMap = ledgerEntryRepository.findLiveBalanceMap(accountList);
+
+    for (Map.Entry<UUID, Money> balance : balanceMap.entrySet()) {
+      AccountBalanceResponse response = new AccountBalanceResponse(balance.getKey(), balance.getValue());
+
+      emitter.send(SseEmitter.event().name("balance").data(response));
+    }
+  }
+}
@@ -1,72 +1,147 @@
 package com.brkygngr.banking.service;
 
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.AccountCountCache;
+import com.brkygngr.banking.cache.UserIdentityCache;
 import com.brkygngr.banking.dto.account.AccountResponse;
+import com.brkygngr.banking.dto.account.BulkAccountResult;
+import com.brkygngr.banking.dto.account.BulkAccountResult.BulkAccountStatus;
+import com.brkygngr.banking.dto.account.BulkAccountsResponse;
+import com.brkygngr.banking.dto.account.BulkCreateAccountsRequest;
+import com.brkygngr.banking.dto.account.BulkUpdateAccountRequest;
+import com.brkygngr.banking.dto.account.BulkUpdateAccountsRequest;
 import com.brkygngr.banking.dto.account.CreateAccountRequest;
 import com.brkygngr.banking.dto.account.CreateAccountResponse;
 import com.brkygngr.banking.dto.account.SearchAccountsQuery;
 import com.brkygngr.banking.dto.account.UpdateAccountRequest;
 import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.entity.LedgerEntry;
 import com.brkygngr.banking.entity.User;
 import com.brkygngr.banking.exception.AccountNotFoundException;
-import com.brkygngr.banking.exception.UserNotFoundException;
+import com.brkygngr.banking.exception.BalanceManagedByLedgerException;
+import com.brkygngr.banking.money.Money;
 import com.brkygngr.banking.repository.AccountRepository;
-import com.brkygngr.banking.repository.UserRepository;
+import com.brkygngr.banking.repository.LedgerEntryRepository;
 import com.brkygngr.banking.repository.specification.AccountSearchCriteria;
 import com.brkygngr.banking.repository.specification.AccountSpecification;
 import jakarta.transaction.Transactional;
-import java.math.BigDecimal;
-import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
 @Slf4j
-@RequiredArgsConstructor
 @Service
 public class DBAccountService implements AccountService {
 
-  private static final SecureRandom random = new SecureRandom();
+  private final UserIdentityCache userIdentityCache;
 
-  private static final int ACCOUNT_NUMBER_LENGTH = 16;
+  private final AccountRepository accountRepository;
 
-  private final UserRepository userRepository;
+  private final LedgerEntryRepository ledgerEntryRepository;
 
-  private final AccountRepository accountRepository;
+  private final AccountCountCache accountCountCache;
+
+  private final AccountNumberAllocator accountNumberAllocator;
+
+  private final MessageSource messageSource;
+
+  private final TransferEngine transferEngine;
+
+  public DBAccountService(final UserIdentityCache userIdentityCache,
+                          final AccountRepository accountRepository,
+                          final LedgerEntryRepository ledgerEntryRepository,
+                          final AccountCountCache accountCountCache,
+                          final AccountNumberAllocator accountNumberAllocator,
+                          final MessageSource messageSource,
+                          @Value("${transfer.engine}") final TransferEngine transferEngine) {
+    this.userIdentityCache = userIdentityCache;
+    this.accountRepository = accountRepository;
+    this.ledgerEntryRepository = ledgerEntryRepository;
+    this.accountCountCache = accountCountCache;
+    this.accountNumberAllocator = accountNumberAllocator;
+    this.messageSource = messageSource;
+    this.transferEngine = transferEngine;
+  }
 
   @Override
-  public CreateAccountResponse createAccount(final String username,
+  public CreateAccountResponse createAccount(final CurrentUser currentUser,
                                              final CreateAccountRequest createAccountRequest) {
-    User user = userRepository.findByUsername(username).orElseThrow(UserNotFoundException::withDefaultMessage);
+    User user = userIdentityCache.getReference(currentUser);
 
     log.info("User#{} creating account '{}'", user.getId(), createAccountRequest.name());
 
-    StringBuilder accountNumber = new StringBuilder(ACCOUNT_NUMBER_LENGTH);
-
-    for (int i = 0; i < ACCOUNT_NUMBER_LENGTH; i++) {
-      accountNumber.append(random.nextInt(10));
-    }
-
-    Account account = new Account();
-    account.setNumber(accountNumber.toString());
-    account.setName(createAccountRequest.name());
-    account.setUser(user);
-    account.setBalance(BigDecimal.ZERO);
+    Account account = newAccount(user, createAccountRequest.name());
+    account.setNumber(accountNumberAllocator.allocate());
 
     Account saved = accountRepository.save(account);
+    accountCountCache.invalidate(user.getId());
 
     log.info("User#{} created account#{} '{}'", user.getId(), account.getId(), account.getName());
 
     return new CreateAccountResponse(saved.getId());
   }
 
+  // Ids are generated in memory and numbers come from a reserved block, so every insert is left to the JDBC batch.
+  @Transactional
   @Override
-  public Page<AccountResponse> searchAccounts(final String username,
-                                              final SearchAccountsQuery searchAccountsQuery,
-                                              final Pageable pageable) {
-    User user = userRepository.findByUsername(username).orElseThrow(UserNotFoundException::withDefaultMessage);
+  public BulkAccountsResponse createAccounts(final CurrentUser currentUser,
+                                             final BulkCreateAccountsRequest bulkCreateAccountsRequest) {
+    User user = userIdentityCache.getReference(currentUser);
+
+    List<CreateAccountRequest> requestList = bulkCreateAccountsRequest.accounts();
+
+    log.info("User#{} creating {} accounts", user.getId(), requestList.size());
+
+    Set<String> takenNameSet = findTakenNames(requestList.stream().map(CreateAccountRequest::name).toList());
+
+    // A rejected item keeps its slot as null, so results still line up with the request order.
+    List<Account> accountList = new ArrayList<>(requestList.size());
+
+    for (CreateAccountRequest request : requestList) {
+      accountList.add(takenNameSet.add(request.name()) ? newAccount(user, request.name()) : null);
+    }
+
+    List<Account> createdList = accountList.stream().filter(Objects::nonNull).toList();
+    Iterator<String> numberIterator = accountNumberAllocator.allocate(createdList.size()).iterator();
+
+    createdList.forEach(account -> account.setNumber(numberIterator.next()));
+
+    accountRepository.saveAll(createdList);
+    accountCountCache.invalidate(user.getId());
+
+    log.info("User#{} created {} of {} accounts", user.getId(), createdList.size(), requestList.size());
+
+    return new BulkAccountsResponse(accountList.stream()
+                                               .map(account -> account == null
+                                                   ? failed(null, "app.account.name.already.exists")
+                                                   : succeeded(account.getId()))
+                                               .toList());
+  }
+
+  @Override
+  public Slice<AccountResponse> searchAccounts(final CurrentUser currentUser,
+                                               final SearchAccountsQuery searchAccountsQuery,
+                                               final Pageable pageable) {
+    User user = userIdentityCache.getReference(currentUser);
 
     log.info("User#{} searching accounts with number '{}' and name '{}'",
              user.getId(),
@@ -77,21 +152,35 @@ public class DBAccountService implements AccountService {
     String name = searchAccountsQuery.name().orElse("");
 
     AccountSearchCriteria accountSearchCriteria = new AccountSearchCriteria(user, number, name);
+    Specification<Account> specification = new AccountSpecification(accountSearchCriteria);
+
+    Slice<Account> accountSlice = searchAccountsQuery.after()
+                                                     .map(after -> findAccountsAfter(specification, after, pageable))
+                                                     .orElseGet(() -> accountRepository.findSlice(specification,
+                                                                                                  pageable));
+
+    // Keyset pages have no page number to total, and clients that opt out never pay for a count at all.
+    if (searchAccountsQuery.after().isEmpty() && searchAccountsQuery.withTotalOrDefault()) {
+      accountSlice = PageableExecutionUtils.getPage(accountSlice.getContent(),
+                                                    pageable,
+                                                    () -> countAccounts(user, number, name, specification));
+    }
 
-    Page<Account> accountPage = accountRepository.findAll(new AccountSpecification(accountSearchCriteria), pageable);
-
-    log.info("User#{} found total of {} accounts with number '{}' and name '{}'",
+    log.info("User#{} found {} accounts with number '{}' and name '{}'",
              user.getId(),
-             accountPage.getTotalElements(),
+             accountSlice.getNumberOfElements(),
              number,
              name);
 
-    return accountPage.map(AccountResponse::fromAccount);
+    Map<UUID, Money> balanceMap = ledgerEntryRepository.findLiveBalanceMap(accountSlice.getContent());
+
+    return accountSlice.map(account -> AccountResponse.fromAccount(account, balanceMap.get(account.getId())));
   }
 
+  @Transactional
   @Override
-  public void updateAccount(String username, UUID accountId, UpdateAccountRequest updateAccountRequest) {
-    User user = userRepository.findByUsername(username).orElseThrow(UserNotFoundException::withDefaultMessage);
+  public void updateAccount(CurrentUser currentUser, UUID accountId, UpdateAccountRequest updateAccountRequest) {
+    User user = userIdentityCache.getReference(currentUser);
 
     log.info("User#{} updating account#{}", user.getId(), accountId);
 
@@ -99,17 +188,96 @@ public class DBAccountService implements AccountService {
                                        .orElseThrow(AccountNotFoundException::withDefaultMessage);
 
     account.setName(updateAccountRequest.name());
-    account.setBalance(updateAccountRequest.balance());
+
+    Money balance = ledgerEntryRepository.findLiveBalanceMap(List.of(account)).get(account.getId());
+    Money adjustment = updateAccountRequest.balance().subtract(balance);
+
+    if (adjustment.signum() != 0) {
+      // The ledger engine keeps balances in memory, so an adjustment written here would never reach it.
+      if (transferEngine == TransferEngine.LEDGER) {
+        log.warn("User#{} account#{} balance can not be set while the ledger engine runs!", user.getId(), accountId);
+
+        throw BalanceManagedByLedgerException.withDefaultMessage();
+      }
+
+      ledgerEntryRepository.save(new LedgerEntry(account, null, adjustment, LocalDateTime.now()));
+    }
 
     accountRepository.save(account);
 
     log.info("User#{} updated account#{}", user.getId(), account.getId());
   }
 
+  // One select loads every account and one sum reads every balance; the updates and adjustments flush as batches.
   @Transactional
   @Override
-  public void deleteAccount(String username, UUID accountId) {
-    User user = userRepository.findByUsername(username).orElseThrow(UserNotFoundException::withDefaultMessage);
+  public BulkAccountsResponse updateAccounts(final CurrentUser currentUser,
+                                             final BulkUpdateAccountsRequest bulkUpdateAccountsRequest) {
+    User user = userIdentityCache.getReference(currentUser);
+
+    List<BulkUpdateAccountRequest> requestList = bulkUpdateAccountsRequest.accounts();
+
+    log.info("User#{} updating {} accounts", user.getId(), requestList.size());
+
+    List<UUID> accountIdList = requestList.stream().map(BulkUpdateAccountRequest::accountId).distinct().toList();
+    Map<UUID, Account> accountMap = accountRepository.findAllByIdInAndUser(accountIdList, user)
+                                                     .stream()
+                                                     .collect(Collectors.toMap(Account::getId, Function.identity()));
+    Map<UUID, Money> balanceMap = ledgerEntryRepository.findLiveBalanceMap(accountMap.values());
+    Set<String> takenNameSet = findTakenNames(requestList.stream().map(BulkUpdateAccountRequest::name).toList());
+
+    LocalDateTime entryDate = LocalDateTime.now();
+    List<LedgerEntry> entryList = new ArrayList<>();
+    List<BulkAccountResult> resultList = new ArrayList<>(requestList.size());
+
+    for (BulkUpdateAccountRequest request : requestList) {
+      Account account = accountMap.get(request.accountId());
+
+      if (account == null) {
+        resultList.add(failed(request.accountId(), "app.account.not.found"));
+
+        continue;
+      }
+
+      if (!request.name().equals(account.getName()) && !takenNameSet.add(request.name())) {
+        resultList.add(failed(request.accountId(), "app.account.name.already.exists"));
+
+        continue;
+      }
+
+      if (transferEngine == TransferEngine.LEDGER && !request.balance().equals(balanceMap.get(account.getId()))) {
+        resultList.add(failed(request.accountId(), "app.account.balance.ledger"));
+
+        continue;
+      }
+
+      account.setName(request.name());
+
+      // The map tracks the target balance, so an account listed twice is adjusted from its first update.
+      Money adjustment = request.balance().subtract(balanceMap.put(account.getId(), request.balance()));
+
+      if (adjustment.signum() != 0) {
+        entryList.add(new LedgerEntry(account, null, adjustment, entryDate));
+      }
+
+      resultList.add(succeeded(account.getId()));
+    }
+
+    accountRepository.saveAll(accountMap.values());
+    ledgerEntryRepository.saveAll(entryList);
+
+    log.info("User#{} finished a bulk update of {} accounts writing {} ledger entries",
+             user.getId(),
+             requestList.size(),
+             entryList.size());
+
+    return new BulkAccountsResponse(resultList);
+  }
+
+  @Transactional
+  @Override
+  public void deleteAccount(CurrentUser currentUser, UUID accountId) {
+    User user = userIdentityCache.getReference(currentUser);
 
     if (!accountRepository.existsByIdAndUser(accountId, user)) {
       throw AccountNotFoundException.withDefaultMessage();
@@ -118,23 +286,78 @@ public class DBAccountService implements AccountService {
     log.info("User#{} deleting account#{}", user.getId(), accountId);
 
     accountRepository.deleteByIdAndUser(accountId, user);
+    accountCountCache.invalidate(user.getId());
 
     log.info("User#{} deleted account#{}", user.getId(), accountId);
   }
 
   @Override
-  public AccountResponse getAccount(String username, UUID accountId) {
-    User user = userRepository.findByUsername(username).orElseThrow(UserNotFoundException::withDefaultMessage);
+  public AccountResponse getAccount(CurrentUser currentUser, UUID accountId) {
+    User user = userIdentityCache.getReference(currentUser);
 
     log.info("User#{} getting account#{}", user.getId(), accountId);
 
     Account account = accountRepository.findByIdAndUser(accountId, user)
                                        .orElseThrow(AccountNotFoundException::withDefaultMessage);
 
-    AccountResponse response = AccountResponse.fromAccount(account);
+    Money balance = ledgerEntryRepository.findLiveBalanceMap(List.of(account)).get(account.getId());
+
+    AccountResponse response = AccountResponse.fromAccount(account, balance);
 
     log.info("User#{} fetched account#{}", user.getId(), response.id());
 
     return response;
   }
+
+  // The tag is read from committed rows, so every node hands out the same one and a restart keeps it valid. It is
+  // only found for the owner, so a matching tag never answers for someone else's account.
+  @Override
+  public String getAccountETag(CurrentUser currentUser, UUID accountId) {
+    User user = userIdentityCache.getReference(currentUser);
+
+    return accountRepository.findStateDigest(accountId, user.getId())
+                            .map(digest -> "\"" + digest + "\"")
+                            .orElseThrow(AccountNotFoundException::withDefaultMessage);
+  }
+
+  private Account newAccount(final User user, final String name) {
+    Account account = new Account();
+    account.setName(name);
+    account.setUser(user);
+    account.setBalance(Money.ZERO);
+
+    return account;
+  }
+
+  private Set<String> findTakenNames(final List<String> nameList) {
+    return new HashSet<>(accountRepository.findNamesByNameIn(Set.copyOf(nameList)));
+  }
+
+  private BulkAccountResult succeeded(final UUID accountId) {
+    return new BulkAccountResult(accountId, BulkAccountStatus.SUCCESS, "");
+  }
+
+  private BulkAccountResult failed(final UUID accountId, final String messageKey) {
+    return new BulkAccountResult(accountId,
+                                 BulkAccountStatus.FAILED,
+                                 messageSource.getMessage(messageKey, null, Locale.ENGLISH));
+  }
+
+  private long countAccounts(final User user,
+                            final String number,
+                            final String name,
+                            final Specification<Account> specification) {
+    return accountCountCache.count(user.getId(), number, name, () -> accountRepository.count(specification));
+  }
+
+  // Keyset pages continue along the (user_id, id) index, so a deep page costs the same as the first one.
+  private Slice<Account> findAccountsAfter(final Specification<Account> specification,
+                                           final UUID after,
+                                           final Pageable pageable) {
+    Specification<Account> afterSpecification = (root, query, criteriaBuilder) -> criteriaBuilder
+        .greaterThan(root.get("id"), after);
+
+    return accountRepository.findSlice(specification.and(afterSpecification),
+                                       PageRequest.of(0, pageable.getPageSize(), Sort.by("id")));
+  }
 }
@@ -1,45 +1,313 @@
 package com.brkygngr.banking.service;
 
+import com.brkygngr.banking.archive.TransactionArchive;
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.transaction.AccountHistoryQuery;
+import com.brkygngr.banking.dto.transaction.AccountHistoryResponse;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.TransactionCursor;
 import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
 import com.brkygngr.banking.dto.transaction.TransferMoneyRequest;
 import com.brkygngr.banking.dto.transaction.TransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.TransferSubmittedResponse;
 import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.entity.LedgerEntry;
 import com.brkygngr.banking.entity.Transaction;
 import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.entity.TransactionIds;
 import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.event.AccountActivityEvent;
 import com.brkygngr.banking.exception.AccountNotFoundException;
-import com.brkygngr.banking.exception.UserNotFoundException;
+import com.brkygngr.banking.exception.TransactionNotFoundException;
+import com.brkygngr.banking.exception.TransferConflictException;
+import com.brkygngr.banking.money.Money;
 import com.brkygngr.banking.repository.AccountRepository;
+import com.brkygngr.banking.repository.LedgerEntryRepository;
 import com.brkygngr.banking.repository.TransactionRepository;
-import com.brkygngr.banking.repository.UserRepository;
-import java.math.BigDecimal;
+import com.brkygngr.banking.repository.projection.PendingTransaction;
+import com.brkygngr.banking.repository.projection.TransactionHistoryRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Slf4j
-@RequiredArgsConstructor
 @Service
 public class DBTransactionService implements TransactionService {
 
+  private static final int MAX_BACKOFF_SHIFT = 10;
+
+  private static final LocalDateTime MIN_DATE = LocalDateTime.of(1, 1, 1, 0, 0);
+
+  private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+  private static final UUID MIN_ID = new UUID(0L, 0L);
+
+  private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+  private static final Duration ID_CLOCK_SLACK = Duration.ofDays(1);
+
+  // Ids are compared as text because PostgreSQL orders uuids as unsigned bytes while UUID.compareTo is signed.
+  private static final Comparator<TransactionCursor> CURSOR_ORDER = Comparator
+      .comparing(TransactionCursor::transactionDate)
+      .thenComparing(cursor -> cursor.id().toString());
+
+  private static final Comparator<TransactionHistoryResponse> HISTORY_ORDER = Comparator
+      .comparing(TransactionCursor::of, CURSOR_ORDER);
+
   private final TransactionRepository transactionRepository;
 
-  private final UserRepository userRepository;
+  private final TransactionArchive transactionArchive;
+
+  private final UserIdentityCache userIdentityCache;
 
   private final AccountRepository accountRepository;
 
+  private final LedgerEntryRepository ledgerEntryRepository;
+
+  private final ApplicationEventPublisher eventPublisher;
+
   private final MessageSource messageSource;
 
-  @Transactional
+  private final TransactionTemplate transactionTemplate;
+
+  private final Counter optimisticConflictCounter;
+
+  private final TransferConcurrencyMode concurrencyMode;
+
+  private final int optimisticMaxAttempts;
+
+  private final long optimisticBackoffMillis;
+
+  public DBTransactionService(final TransactionRepository transactionRepository,
+                              final TransactionArchive transactionArchive,
+                              final UserIdentityCache userIdentityCache,
+                              final AccountRepository accountRepository,
+                              final LedgerEntryRepository ledgerEntryRepository,
+                              final ApplicationEventPublisher eventPublisher,
+                              final MessageSource messageSource,
+                              final PlatformTransactionManager transactionManager,
+                              final MeterRegistry meterRegistry,
+                              @Value("${transfer.concurrencyMode}") final TransferConcurrencyMode concurrencyMode,
+                              @Value("${transfer.optimistic.maxAttempts}") final int optimisticMaxAttempts,
+                              @Value("${transfer.optimistic.backoffMillis}") final long optimisticBackoffMillis) {
+    this.transactionRepository = transactionRepository;
+    this.transactionArchive = transactionArchive;
+    this.userIdentityCache = userIdentityCache;
+    this.accountRepository = accountRepository;
+    this.ledgerEntryRepository = ledgerEntryRepository;
+    this.eventPublisher = eventPublisher;
+    this.messageSource = messageSource;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.optimisticConflictCounter = Counter.builder("transfer.optimistic.conflicts")
+                                            .description("Transfers that hit an account version conflict.")
+                                            .register(meterRegistry);
+    this.concurrencyMode = concurrencyMode;
+    this.optimisticMaxAttempts = optimisticMaxAttempts;
+    this.optimisticBackoffMillis = optimisticBackoffMillis;
+  }
+
+  // The key is claimed and completed in the transfer's own transaction, so a crash can never separate them.
   @Override
-  public TransferMoneyResponse transferMoney(final String username, final TransferMoneyRequest transferMoneyRequest) {
-    final User user = userRepository.findByUsername(username).orElseThrow(UserNotFoundException::withDefaultMessage);
+  public TransferMoneyResponse transferMoney(final CurrentUser currentUser,
+                                             final TransferMoneyRequest transferMoneyRequest,
+                                             final TransferGuard<TransferMoneyResponse> transferGuard) {
+    return executeTransfer(() -> transferGuard.claim(null).orElseGet(() -> {
+      TransferMoneyResponse response = doTransferMoney(currentUser, transferMoneyRequest);
+
+      transferGuard.complete(response);
+
+      return response;
+    }));
+  }
+
+  @Override
+  public BatchTransferMoneyResponse transferMoneyBatch(final CurrentUser currentUser,
+                                                       final BatchTransferMoneyRequest batchTransferMoneyRequest) {
+    return executeTransfer(() -> doTransferMoneyBatch(currentUser, batchTransferMoneyRequest));
+  }
+
+  @Override
+  public TransferSubmittedResponse submitTransfer(final CurrentUser currentUser,
+                                                  final TransferMoneyRequest transferMoneyRequest,
+                                                  final TransferGuard<TransferSubmittedResponse> transferGuard) {
+    return transactionTemplate.execute(status -> transferGuard.claim(null).orElseGet(() -> {
+      TransferSubmittedResponse response = doSubmitTransfer(currentUser, transferMoneyRequest);
+
+      transferGuard.complete(response);
+
+      return response;
+    }));
+  }
+
+  @Override
+  public TransactionHistoryResponse getTransaction(final CurrentUser currentUser, final UUID transactionId) {
+    User user = userIdentityCache.getReference(currentUser);
+
+    // The id's own timestamp bounds the lookup to the partitions around it; the slack covers node clocks and zones.
+    Optional<TransactionHistoryResponse> transaction = TransactionIds
+        .createdAt(transactionId)
+        .map(createdAt -> transactionRepository.findHistoryByIdAndFromUserBetween(transactionId,
+                                                                                  user,
+                                                                                  createdAt.minus(ID_CLOCK_SLACK),
+                                                                                  createdAt.plus(ID_CLOCK_SLACK)))
+        .orElseGet(() -> transactionRepository.findHistoryByIdAndFromUser(transactionId, user));
+
+    return transaction.orElseThrow(TransactionNotFoundException::withDefaultMessage);
+  }
+
+  public int processPendingTransfers(final LocalDateTime since, final int batchSize) {
+    return executeTransfer(() -> doProcessPendingTransfers(since, batchSize));
+  }
+
+  @Override
+  public AccountHistoryResponse accountHistory(final CurrentUser currentUser,
+                                               final UUID accountId,
+                                               final AccountHistoryQuery accountHistoryQuery) {
+    final User user = userIdentityCache.getReference(currentUser);
+
+    if (!accountRepository.existsByIdAndUser(accountId, user)) {
+      throw AccountNotFoundException.withDefaultMessage();
+    }
+
+    final int limit = accountHistoryQuery.limitOrDefault();
+    final boolean ascending = accountHistoryQuery.after().isPresent();
+
+    final TransactionCursor dateLower = new TransactionCursor(accountHistoryQuery.fromDate().orElse(MIN_DATE), MIN_ID);
+    final TransactionCursor dateUpper = accountHistoryQuery.toDate()
+                                                           .map(toDate -> new TransactionCursor(toDate, MIN_ID))
+                                                           .orElse(new TransactionCursor(MAX_DATE, MAX_ID));
+
+    final TransactionCursor lower = accountHistoryQuery.after()
+                                                       .map(TransactionCursor::decode)
+                                                       .filter(cursor -> CURSOR_ORDER.compare(cursor, dateLower) > 0)
+                                                       .orElse(dateLower);
+    final TransactionCursor upper = accountHistoryQuery.before()
+                                                       .map(TransactionCursor::decode)
+                                                       .filter(cursor -> CURSOR_ORDER.compare(cursor, dateUpper) < 0)
+                                                       .orElse(dateUpper);
+
+    final Comparator<TransactionHistoryResponse> order = ascending ? HISTORY_ORDER : HISTORY_ORDER.reversed();
+
+    // Archived months are merged in the same keyset order, so a page can span both stores.
+    final List<TransactionHistoryResponse> mergedList = Stream
+        .concat(findHistoryRows(accountId, lower, upper, limit + 1, ascending),
+                transactionArchive.findHistory(accountId, lower, upper, limit + 1, ascending).stream())
+        .distinct()
+        .sorted(order)
+        .limit(limit + 1L)
+        .toList();
+
+    final boolean hasMore = mergedList.size() > limit;
+    final List<TransactionHistoryResponse> page = new ArrayList<>(hasMore ? mergedList.subList(0, limit) : mergedList);
+
+    if (ascending) {
+      Collections.reverse(page);
+    }
+
+    if (page.isEmpty()) {
+      return new AccountHistoryResponse(page, null, null);
+    }
+
+    final boolean hasOlder = ascending || hasMore;
+    final boolean hasNewer = ascending ? hasMore : accountHistoryQuery.before().isPresent();
+
+    return new AccountHistoryResponse(page,
+                                      hasOlder ? TransactionCursor.of(page.getLast()).encode() : null,
+                                      hasNewer ? TransactionCursor.of(page.getFirst()).encode() : null);
+  }
+
+  // Sent and received rows are read as two range scans and merged, since an OR across both columns can not be
+  // served in keyset order by a single index.
+  private Stream<TransactionHistoryResponse> findHistoryRows(final UUID accountId,
+                                                             final TransactionCursor lower,
+                                                             final TransactionCursor upper,
+                                                             final int limit,
+                                                             final boolean ascending) {
+    final List<TransactionHistoryRow> rowList = ascending
+        ? transactionRepository.findHistoryBetweenAscending(accountId,
+                                                            lower.transactionDate(),
+                                                            lower.id(),
+                                                            upper.transactionDate(),
+                                                            upper.id(),
+                                                            limit)
+        : transactionRepository.findHistoryBetweenDescending(accountId,
+                                                             lower.transactionDate(),
+                                                             lower.id(),
+                                                             upper.transactionDate(),
+                                                             upper.id(),
+                                                             limit);
+
+    return rowList.stream().map(TransactionHistoryResponse::fromRow);
+  }
+
+  private TransferSubmittedResponse doSubmitTransfer(final CurrentUser currentUser,
+                                                     final TransferMoneyRequest transferMoneyRequest) {
+    final User user = userIdentityCache.getReference(currentUser);
+
+    final Map<UUID, Account> accountMap = accountRepository
+        .findAllByIdInAndUser(List.of(transferMoneyRequest.from(), transferMoneyRequest.to()), user)
+        .stream()
+        .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+    if (accountMap.size() != 2) {
+      log.warn("User#{} accounts {} {} not found!",
+               user.getId(),
+               transferMoneyRequest.from(),
+               transferMoneyRequest.to());
+
+      throw AccountNotFoundException.withDefaultMessage();
+    }
+
+    final Transaction transaction = createTransaction(accountMap.get(transferMoneyRequest.from()),
+                                                      accountMap.get(transferMoneyRequest.to()),
+                                                      transferMoneyRequest.amount(),
+                                                      LocalDateTime.now());
+    transaction.setStatus(TransactionStatus.PENDING);
+
+    transactionRepository.save(transaction);
+    publishActivity(user.getId(), List.of(transaction));
+
+    log.info("User#{} queued transfer#{} of {} from {} to {}",
+             user.getId(),
+             transaction.getId(),
+             transaction.getAmount(),
+             transferMoneyRequest.from(),
+             transferMoneyRequest.to());
+
+    return new TransferSubmittedResponse(transaction.getId(), transaction.getStatus());
+  }
+
+  private TransferMoneyResponse doTransferMoney(final CurrentUser currentUser,
+                                                final TransferMoneyRequest transferMoneyRequest) {
+    final User user = userIdentityCache.getReference(currentUser);
 
     log.info("User#{} is transferring {} from {} to {}",
              user.getId(),
@@ -47,10 +315,9 @@ public class DBTransactionService implements TransactionService {
              transferMoneyRequest.from(),
              transferMoneyRequest.to());
 
-    final List<Account> accountList = accountRepository.findAllByIdInAndUser(List.of(transferMoneyRequest.from(),
-                                                                                     transferMoneyRequest.to()), user);
+    final Map<UUID, Account> accountMap = findTransferAccounts(List.of(transferMoneyRequest), user);
 
-    if (accountList.size() != 2) {
+    if (accountMap.size() != 2) {
       log.warn("User#{} accounts {} {} not found!",
                user.getId(),
                transferMoneyRequest.from(),
@@ -59,43 +326,35 @@ public class DBTransactionService implements TransactionService {
       throw AccountNotFoundException.withDefaultMessage();
     }
 
-    final Account from = accountList.stream()
-                                    .filter(account -> account.getId().equals(transferMoneyRequest.from()))
-                                    .toList()
-                                    .getFirst();
+    final Account from = accountMap.get(transferMoneyRequest.from());
+    final Account to = accountMap.get(transferMoneyRequest.to());
 
-    final Account to = accountList.stream()
-                                  .filter(account -> account.getId().equals(transferMoneyRequest.to()))
-                                  .toList()
-                                  .getFirst();
+    final Map<UUID, Money> balanceMap = ledgerEntryRepository.findLiveBalanceMap(List.of(from));
+    final List<LedgerEntry> entryList = new ArrayList<>(2);
 
-    final Transaction transaction = new Transaction();
-    transaction.setFrom(from);
-    transaction.setTo(to);
-    transaction.setTransactionDate(LocalDateTime.now());
-    transaction.setAmount(transferMoneyRequest.amount());
+    final Transaction transaction = settle(from,
+                                           to,
+                                           transferMoneyRequest.amount(),
+                                           LocalDateTime.now(),
+                                           balanceMap,
+                                           entryList);
+
+    transactionRepository.save(transaction);
+    publishActivity(user.getId(), List.of(transaction));
 
-    if (from.getBalance().compareTo(transaction.getAmount()) < 0) { //
+    if (transaction.getStatus() == TransactionStatus.FAILED) {
       log.warn("User#{} account {} can not transfer {} amount!",
                user.getId(),
                from.getId(),
                transaction.getAmount());
 
-      transaction.setStatus(TransactionStatus.FAILED);
-
-      transactionRepository.save(transaction);
-
       return new TransferMoneyResponse(transaction.getStatus(),
                                        messageSource.getMessage("app.transaction.not.enough.money",
                                                                 null,
                                                                 Locale.ENGLISH));
     }
 
-    transferMoney(transaction.getFrom(), transaction.getTo(), transaction.getAmount());
-
-    transaction.setStatus(TransactionStatus.SUCCESS);
-
-    transactionRepository.save(transaction);
+    ledgerEntryRepository.saveAll(entryList);
 
     log.info("User#{} transferred {} from {} to {}",
              user.getId(),
@@ -106,23 +365,247 @@ public class DBTransactionService implements TransactionService {
     return new TransferMoneyResponse(transaction.getStatus(), "");
   }
 
-  @Override
-  public List<TransactionHistoryResponse> accountHistory(final String username, final UUID accountId) {
-    User user = userRepository.findByUsername(username).orElseThrow(UserNotFoundException::withDefaultMessage);
+  private BatchTransferMoneyResponse doTransferMoneyBatch(final CurrentUser currentUser,
+                                                         final BatchTransferMoneyRequest batchTransferMoneyRequest) {
+    final User user = userIdentityCache.getReference(currentUser);
+
+    final List<TransferMoneyRequest> transferList = batchTransferMoneyRequest.transfers();
+
+    log.info("User#{} is transferring a batch of {} transfers", user.getId(), transferList.size());
+
+    final Map<UUID, Account> accountMap = findTransferAccounts(transferList, user);
+
+    final List<Account> sourceList = transferList.stream()
+                                                 .map(transfer -> accountMap.get(transfer.from()))
+                                                 .filter(Objects::nonNull)
+                                                 .distinct()
+                                                 .toList();
+
+    final Map<UUID, Money> balanceMap = ledgerEntryRepository.findLiveBalanceMap(sourceList);
 
-    Account account = accountRepository.findByIdAndUser(accountId, user)
-                                       .orElseThrow(AccountNotFoundException::withDefaultMessage);
+    final LocalDateTime transactionDate = LocalDateTime.now();
+    final List<Transaction> transactionList = new ArrayList<>(transferList.size());
+    final List<LedgerEntry> entryList = new ArrayList<>(transferList.size() * 2);
+    final List<TransferMoneyResponse> resultList = new ArrayList<>(transferList.size());
 
-    return transactionRepository.findAllByFromOrTo(account, account)
-                                .stream()
-                                .map(TransactionHistoryResponse::fromTransaction)
-                                .toList();
+    for (TransferMoneyRequest transfer : transferList) {
+      final Account from = accountMap.get(transfer.from());
+      final Account to = accountMap.get(transfer.to());
+
+      if (from == null || to == null) {
+        log.warn("User#{} accounts {} {} not found!", user.getId(), transfer.from(), transfer.to());
+
+        resultList.add(new TransferMoneyResponse(TransactionStatus.FAILED,
+                                                 messageSource.getMessage("app.account.not.found",
+                                                                          null,
+                                                                          Locale.ENGLISH)));
+        continue;
+      }
+
+      final Transaction transaction = settle(from, to, transfer.amount(), transactionDate, balanceMap, entryList);
+
+      if (transaction.getStatus() == TransactionStatus.FAILED) {
+        resultList.add(new TransferMoneyResponse(transaction.getStatus(),
+                                                 messageSource.getMessage("app.transaction.not.enough.money",
+                                                                          null,
+                                                                          Locale.ENGLISH)));
+      } else {
+        resultList.add(new TransferMoneyResponse(transaction.getStatus(), ""));
+      }
+
+      transactionList.add(transaction);
+    }
+
+    transactionRepository.saveAll(transactionList);
+    ledgerEntryRepository.saveAll(entryList);
+    publishActivity(user.getId(), transactionList);
+
+    log.info("User#{} finished a batch of {} transfers writing {} ledger entries",
+             user.getId(),
+             transferList.size(),
+             entryList.size());
+
+    return new BatchTransferMoneyResponse(resultList);
   }
 
-  private synchronized void transferMoney(final Account from, final Account to, final BigDecimal amount) {
-    from.setBalance(from.getBalance().subtract(amount));
-    to.setBalance(to.getBalance().add(amount));
+  private int doProcessPendingTransfers(final LocalDateTime since, final int batchSize) {
+    final List<PendingTransaction> pendingList = transactionRepository.findPendingForUpdate(since, batchSize);
 
-    accountRepository.saveAll(List.of(from, to));
+    if (pendingList.isEmpty()) {
+      return 0;
+    }
+
+    final List<UUID> sourceIdList = pendingList.stream()
+                                               .map(PendingTransaction::getFromAccountId)
+                                               .distinct()
+                                               .toList();
+
+    // Sources are locked before the transactions are loaded so the accounts they reference are read after the lock.
+    final List<Account> sourceList = concurrencyMode == TransferConcurrencyMode.OPTIMISTIC
+        ? accountRepository.findAllByIdInForVersionIncrement(sourceIdList)
+        : accountRepository.findAllByIdInForUpdate(sourceIdList);
+
+    final Map<UUID, Money> balanceMap = ledgerEntryRepository.findLiveBalanceMap(sourceList);
+    final List<LedgerEntry> entryList = new ArrayList<>(pendingList.size() * 2);
+
+    // The oldest claimed date bounds the reload, so it only touches the partitions the claimed rows live in.
+    final LocalDateTime oldestDate = pendingList.stream()
+                                                .map(PendingTransaction::getTransactionDate)
+                                                .min(Comparator.naturalOrder())
+                                                .orElse(since);
+
+    final List<Transaction> transactionList = transactionRepository
+        .findAllByIdInAndTransactionDateGreaterThanEqual(pendingList.stream().map(PendingTransaction::getId).toList(),
+                                                          oldestDate)
+        .stream()
+        .sorted(Comparator.comparing(Transaction::getTransactionDate))
+        .toList();
+
+    for (Transaction transaction : transactionList) {
+      settle(transaction, balanceMap, entryList);
+    }
+
+    ledgerEntryRepository.saveAll(entryList);
+
+    // Both accounts of a transfer belong to the same user, so the source's owner is told about all of it.
+    transactionList.stream()
+                   .collect(Collectors.groupingBy(transaction -> transaction.getFrom().getUser().getId()))
+                   .forEach(this::publishActivity);
+
+    log.info("Settled {} pending transfers writing {} ledger entries", transactionList.size(), entryList.size());
+
+    return transactionList.size();
+  }
+
+  // Listeners run after commit, so stream subscribers only ever see persisted transfers.
+  private void publishActivity(final UUID userId, final List<Transaction> transactionList) {
+    if (transactionList.isEmpty()) {
+      return;
+    }
+
+    List<TransactionHistoryResponse> responseList = transactionList.stream()
+                                                                   .map(TransactionHistoryResponse::fromTransaction)
+                                                                   .toList();
+
+    eventPublisher.publishEvent(new AccountActivityEvent(userId, responseList));
+  }
+
+  private Transaction settle(final Account from,
+                             final Account to,
+                             final Money amount,
+                             final LocalDateTime transactionDate,
+                             final Map<UUID, Money> balanceMap,
+                             final List<LedgerEntry> entryList) {
+    final Transaction transaction = createTransaction(from, to, amount, transactionDate);
+
+    settle(transaction, balanceMap, entryList);
+
+    return transaction;
+  }
+
+  private void settle(final Transaction transaction,
+                      final Map<UUID, Money> balanceMap,
+                      final List<LedgerEntry> entryList) {
+    final Account from = transaction.getFrom();
+    final Account to = transaction.getTo();
+    final Money amount = transaction.getAmount();
+    final Money fromBalance = balanceMap.get(from.getId());
+
+    if (fromBalance.isLessThan(amount)) {
+      transaction.setStatus(TransactionStatus.FAILED);
+
+      return;
+    }
+
+    balanceMap.put(from.getId(), fromBalance.subtract(amount));
+    balanceMap.computeIfPresent(to.getId(), (id, balance) -> balance.add(amount));
+
+    transaction.setStatus(TransactionStatus.SUCCESS);
+
+    if (from != to) {
+      entryList.add(new LedgerEntry(from, transaction, amount.negate(), transaction.getTransactionDate()));
+      entryList.add(new LedgerEntry(to, transaction, amount, transaction.getTransactionDate()));
+    }
+  }
+
+  private Transaction createTransaction(final Account from,
+                                        final Account to,
+                                        final Money amount,
+                                        final LocalDateTime transactionDate) {
+    final Transaction transaction = new Transaction();
+    transaction.setFrom(from);
+    transaction.setTo(to);
+    transaction.setTransactionDate(transactionDate);
+    transaction.setAmount(amount);
+
+    return transaction;
+  }
+
+  // Only debited accounts are locked; credits are plain inserts, so a popular destination never becomes a hot row.
+  private Map<UUID, Account> findTransferAccounts(final List<TransferMoneyRequest> transferList, final User user) {
+    final Set<UUID> sourceIdSet = transferList.stream()
+                                              .map(TransferMoneyRequest::from)
+                                              .collect(Collectors.toCollection(LinkedHashSet::new));
+
+    final List<UUID> destinationIdList = transferList.stream()
+                                                     .map(TransferMoneyRequest::to)
+                                                     .filter(id -> !sourceIdSet.contains(id))
+                                                     .distinct()
+                                                     .toList();
+
+    final Map<UUID, Account> accountMap = new HashMap<>();
+
+    findSourceAccounts(List.copyOf(sourceIdSet), user).forEach(account -> accountMap.put(account.getId(), account));
+
+    if (!destinationIdList.isEmpty()) {
+      accountRepository.findAllByIdInAndUser(destinationIdList, user)
+                       .forEach(account -> accountMap.put(account.getId(), account));
+    }
+
+    return accountMap;
+  }
+
+  private List<Account> findSourceAccounts(final List<UUID> accountIdList, final User user) {
+    if (concurrencyMode == TransferConcurrencyMode.OPTIMISTIC) {
+      return accountRepository.findAllByIdInAndUserForVersionIncrement(accountIdList, user);
+    }
+
+    return accountRepository.findAllByIdInAndUserForUpdate(accountIdList, user);
+  }
+
+  private <T> T executeTransfer(final Supplier<T> transfer) {
+    if (concurrencyMode == TransferConcurrencyMode.PESSIMISTIC) {
+      return transactionTemplate.execute(status -> transfer.get());
+    }
+
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(status -> transfer.get());
+      } catch (OptimisticLockingFailureException exception) {
+        optimisticConflictCounter.increment();
+
+        if (attempt >= optimisticMaxAttempts) {
+          log.warn("Transfer gave up after {} conflicting attempts!", attempt);
+
+          throw TransferConflictException.withDefaultMessage();
+        }
+
+        log.info("Transfer attempt {} conflicted, retrying.", attempt);
+
+        backOff(attempt);
+      }
+    }
+  }
+
+  private void backOff(final int attempt) {
+    long maxDelay = optimisticBackoffMillis << Math.min(attempt - 1, MAX_BACKOFF_SHIFT);
+
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+
+      throw TransferConflictException.withDefaultMessage();
+    }
   }
 }
@@ -1,6 +1,7 @@
 package com.brkygngr.banking.service;
 
 import com.brkygngr.banking.accessor.KeycloakAccessor;
+import com.brkygngr.banking.cache.UserIdentityCache;
 import com.brkygngr.banking.dto.keycloak.KeycloakTokenResponse;
 import com.brkygngr.banking.dto.user.LoginUserRequest;
 import com.brkygngr.banking.dto.user.LoginUserResponse;
@@ -11,6 +12,7 @@ import com.brkygngr.banking.exception.UserAlreadyExistsException;
 import com.brkygngr.banking.exception.UserNotFoundException;
 import com.brkygngr.banking.exception.UserOrPasswordInvalidException;
 import com.brkygngr.banking.repository.UserRepository;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,10 +23,13 @@ public class DBUserService implements UserService {
 
   private final UserRepository userRepository;
 
+  private final UserIdentityCache userIdentityCache;
+
   private final KeycloakAccessor keycloakAccessor;
 
   private final PasswordEncoder passwordEncoder;
 
+  @Transactional
   @Override
   public RegisterUserResponse registerUser(final RegisterUserRequest request) {
     boolean isUserExists = userRepository.existsByUsernameOrEmail(request.username(), request.email());
@@ -38,10 +43,13 @@ public class DBUserService implements UserService {
     user.setUsername(request.username());
     user.setPassword(passwordEncoder.encode(request.password()));
 
-    keycloakAccessor.registerUser(user);
-
+    // Saved first so Keycloak can store the generated id; a failed registration there rolls the insert back.
     User saved = userRepository.save(user);
 
+    keycloakAccessor.registerUser(saved);
+
+    userIdentityCache.invalidate(saved.getUsername());
+
     return new RegisterUserResponse(saved.getId());
   }
 
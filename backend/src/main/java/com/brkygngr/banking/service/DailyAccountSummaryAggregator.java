@@ -0,0 +1,43 @@
+package com.brkygngr.banking.service;
+
+import com.brkygngr.banking.repository.DailyAccountSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class DailyAccountSummaryAggregator {
+
+  private final DailyAccountSummaryRepository dailyAccountSummaryRepository;
+
+  private final int batchSize;
+
+  public DailyAccountSummaryAggregator(final DailyAccountSummaryRepository dailyAccountSummaryRepository,
+                                       @Value("${statement.aggregation.batchSize}") final int batchSize) {
+    this.dailyAccountSummaryRepository = dailyAccountSummaryRepository;
+    this.batchSize = batchSize;
+  }
+
+  // Summaries are folded off the transfer path, so a popular account never turns its summary row into a hot row.
+  @Scheduled(fixedDelayString = "${statement.aggregation.intervalMillis}")
+  public void aggregate() {
+    long summaryRows = 0;
+
+    try {
+      int updated;
+
+      do {
+        updated = dailyAccountSummaryRepository.summarizePendingEntries(batchSize);
+        summaryRows += updated;
+      } while (updated > 0);
+    } catch (RuntimeException exception) {
+      log.warn("Could not aggregate daily account summaries, retrying on next run.", exception);
+    }
+
+    if (summaryRows > 0) {
+      log.info("Aggregated ledger entries into {} daily account summaries", summaryRows);
+    }
+  }
+}
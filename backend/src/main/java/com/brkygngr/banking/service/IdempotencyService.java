@@ -0,0 +1,302 @@
+package com.brkygngr.banking.service;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.ExpiringLruCache;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.dto.transaction.TransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.TransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.TransferSubmittedResponse;
+import com.brkygngr.banking.entity.IdempotencyRecord;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.exception.IdempotencyKeyConflictException;
+import com.brkygngr.banking.exception.InvalidIdempotencyKeyException;
+import com.brkygngr.banking.exception.TransactionNotFoundException;
+import com.brkygngr.banking.repository.IdempotencyRecordRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class IdempotencyService {
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final TransactionService transactionService;
+
+  private final UserIdentityCache userIdentityCache;
+
+  private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+  private final MessageSource messageSource;
+
+  private final ExpiringLruCache<String, StoredResponse> responseCache;
+
+  private final long retentionHours;
+
+  public IdempotencyService(final TransactionService transactionService,
+                            final UserIdentityCache userIdentityCache,
+                            final IdempotencyRecordRepository idempotencyRecordRepository,
+                            final MessageSource messageSource,
+                            @Value("${idempotency.cache.maxSize}") final int cacheMaxSize,
+                            @Value("${idempotency.cache.ttlMillis}") final long cacheTtlMillis,
+                            @Value("${idempotency.retentionHours}") final long retentionHours) {
+    this.transactionService = transactionService;
+    this.userIdentityCache = userIdentityCache;
+    this.idempotencyRecordRepository = idempotencyRecordRepository;
+    this.messageSource = messageSource;
+    this.responseCache = new ExpiringLruCache<>(cacheMaxSize, Duration.ofMillis(cacheTtlMillis));
+    this.retentionHours = retentionHours;
+  }
+
+  public TransferMoneyResponse transferMoney(final CurrentUser currentUser,
+                                             final String idempotencyKey,
+                                             final TransferMoneyRequest transferMoneyRequest) {
+    RecordGuard<TransferMoneyResponse> guard = new RecordGuard<>(currentUser,
+                                                                 idempotencyKey,
+                                                                 transferMoneyRequest,
+                                                                 false,
+                                                                 Outcome::settled,
+                                                                 Outcome::toTransferMoneyResponse);
+
+    return execute(guard, transferGuard -> transactionService.transferMoney(currentUser,
+                                                                            transferMoneyRequest,
+                                                                            transferGuard));
+  }
+
+  public TransferSubmittedResponse submitTransfer(final CurrentUser currentUser,
+                                                  final String idempotencyKey,
+                                                  final TransferMoneyRequest transferMoneyRequest) {
+    RecordGuard<TransferSubmittedResponse> guard = new RecordGuard<>(currentUser,
+                                                                     idempotencyKey,
+                                                                     transferMoneyRequest,
+                                                                     true,
+                                                                     Outcome::submitted,
+                                                                     Outcome::toSubmittedResponse);
+
+    return execute(guard, transferGuard -> transactionService.submitTransfer(currentUser,
+                                                                             transferMoneyRequest,
+                                                                             transferGuard));
+  }
+
+  @Scheduled(fixedDelayString = "${idempotency.purgeIntervalMillis}")
+  public void purgeExpired() {
+    int deleted = idempotencyRecordRepository.deleteAllCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+
+    if (deleted > 0) {
+      log.info("Purged {} expired idempotency records", deleted);
+    }
+  }
+
+  private <T> T execute(final RecordGuard<T> guard, final Function<TransferGuard<T>, T> transfer) {
+    Optional<StoredResponse> cached = responseCache.get(guard.cacheKey);
+
+    if (cached.isPresent()) {
+      log.info("User#{} idempotency key '{}' served from cache", guard.currentUser.id(), guard.idempotencyKey);
+
+      return guard.fromOutcome.apply(guard.replay(cached.get()));
+    }
+
+    T response = transfer.apply(guard);
+
+    responseCache.put(guard.cacheKey, new StoredResponse(guard.requestHash, guard.outcome));
+
+    return response;
+  }
+
+  private String hash(final TransferMoneyRequest transferMoneyRequest) {
+    String canonical = transferMoneyRequest.from() + "|"
+        + transferMoneyRequest.to() + "|"
+        + transferMoneyRequest.amount().minorUnits();
+
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  // The transaction service decides when the record is written, so claim and completion can share its transaction.
+  private final class RecordGuard<T> implements TransferGuard<T> {
+
+    private final CurrentUser currentUser;
+
+    private final User user;
+
+    private final String idempotencyKey;
+
+    private final String cacheKey;
+
+    private final String requestHash;
+
+    private final boolean submission;
+
+    private final Function<T, Outcome> toOutcome;
+
+    private final Function<Outcome, T> fromOutcome;
+
+    private UUID transactionId;
+
+    private Outcome outcome;
+
+    private RecordGuard(final CurrentUser currentUser,
+                        final String idempotencyKey,
+                        final TransferMoneyRequest transferMoneyRequest,
+                        final boolean submission,
+                        final Function<T, Outcome> toOutcome,
+                        final Function<Outcome, T> fromOutcome) {
+      if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+        throw InvalidIdempotencyKeyException.withDefaultMessage();
+      }
+
+      this.currentUser = currentUser;
+      this.user = userIdentityCache.getReference(currentUser);
+      this.idempotencyKey = idempotencyKey;
+      this.cacheKey = currentUser.id() + ":" + idempotencyKey;
+      this.requestHash = hash(transferMoneyRequest);
+      this.submission = submission;
+      this.toOutcome = toOutcome;
+      this.fromOutcome = fromOutcome;
+    }
+
+    @Override
+    public Optional<T> claim(final UUID transactionId) {
+      if (idempotencyRecordRepository.claim(user.getId(), idempotencyKey, requestHash) == 1) {
+        this.transactionId = transactionId;
+
+        if (transactionId != null) {
+          idempotencyRecordRepository.attachTransaction(user, idempotencyKey, transactionId);
+        }
+
+        return Optional.empty();
+      }
+
+      IdempotencyRecord record = idempotencyRecordRepository
+          .findByUserAndIdempotencyKey(user, idempotencyKey)
+          .orElseThrow(IdempotencyKeyConflictException::withDefaultMessage);
+
+      StoredResponse stored = new StoredResponse(record.getRequestHash(),
+                                                 record.getStatus() == null
+                                                     ? resolve(record)
+                                                     : new Outcome(record.getStatus(),
+                                                                   record.getReason(),
+                                                                   record.getTransactionId()));
+
+      outcome = replay(stored);
+
+      log.info("User#{} idempotency key '{}' served from database", user.getId(), idempotencyKey);
+
+      return Optional.of(fromOutcome.apply(outcome));
+    }
+
+    @Override
+    public void complete(final T response) {
+      Outcome completed = toOutcome.apply(response);
+
+      idempotencyRecordRepository.complete(user,
+                                           idempotencyKey,
+                                           completed.status(),
+                                           completed.reason(),
+                                           completed.transactionId() == null
+                                               ? transactionId
+                                               : completed.transactionId());
+
+      outcome = completed;
+    }
+
+    @Override
+    public void release() {
+      idempotencyRecordRepository.release(user, idempotencyKey);
+    }
+
+    private Outcome replay(final StoredResponse stored) {
+      if (!stored.requestHash().equals(requestHash)) {
+        throw IdempotencyKeyConflictException.withDefaultMessage();
+      }
+
+      // Submissions are stored as PENDING, so a key can not be replayed across the synchronous and async forms.
+      if ((stored.outcome().status() == TransactionStatus.PENDING) != submission) {
+        throw IdempotencyKeyConflictException.withDefaultMessage();
+      }
+
+      return stored.outcome();
+    }
+
+    // A process that died before completing the record leaves its transaction id, which tells whether it was applied.
+    private Outcome resolve(final IdempotencyRecord record) {
+      if (record.getTransactionId() != null && record.getRequestHash().equals(requestHash)) {
+        try {
+          TransactionHistoryResponse transaction = transactionService.getTransaction(currentUser,
+                                                                                    record.getTransactionId());
+
+          if (submission || transaction.status() != TransactionStatus.PENDING) {
+            Outcome resolved = submission
+                ? new Outcome(TransactionStatus.PENDING, "", transaction.id())
+                : new Outcome(transaction.status(), reasonOf(transaction.status()), transaction.id());
+
+            idempotencyRecordRepository.complete(user,
+                                                 idempotencyKey,
+                                                 resolved.status(),
+                                                 resolved.reason(),
+                                                 resolved.transactionId());
+
+            return resolved;
+          }
+        } catch (TransactionNotFoundException exception) {
+          log.debug("User#{} transaction#{} is not applied yet", user.getId(), record.getTransactionId());
+        }
+      }
+
+      log.warn("User#{} idempotency key '{}' is still in progress!", user.getId(), idempotencyKey);
+
+      throw IdempotencyKeyConflictException.withDefaultMessage();
+    }
+
+    private String reasonOf(final TransactionStatus status) {
+      if (status == TransactionStatus.SUCCESS) {
+        return "";
+      }
+
+      return messageSource.getMessage("app.transaction.not.enough.money", null, Locale.ENGLISH);
+    }
+  }
+
+  private record Outcome(TransactionStatus status, String reason, UUID transactionId) {
+
+    private static Outcome settled(final TransferMoneyResponse response) {
+      return new Outcome(response.status(), response.reason(), null);
+    }
+
+    private static Outcome submitted(final TransferSubmittedResponse response) {
+      return new Outcome(response.status(), "", response.transactionId());
+    }
+
+    private TransferMoneyResponse toTransferMoneyResponse() {
+      return new TransferMoneyResponse(status, reason);
+    }
+
+    private TransferSubmittedResponse toSubmittedResponse() {
+      return new TransferSubmittedResponse(transactionId, status);
+    }
+  }
+
+  private record StoredResponse(String requestHash, Outcome outcome) {
+
+  }
+}
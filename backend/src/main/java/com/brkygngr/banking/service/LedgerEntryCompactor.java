@@ -0,0 +1,45 @@
+package com.brkygngr.banking.service;
+
+import com.brkygngr.banking.repository.LedgerEntryRepository;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class LedgerEntryCompactor {
+
+  private final LedgerEntryRepository ledgerEntryRepository;
+
+  private final long threshold;
+
+  private final int batchSize;
+
+  public LedgerEntryCompactor(final LedgerEntryRepository ledgerEntryRepository,
+                              @Value("${ledger.compaction.threshold}") final long threshold,
+                              @Value("${ledger.compaction.batchSize}") final int batchSize) {
+    this.ledgerEntryRepository = ledgerEntryRepository;
+    this.threshold = threshold;
+    this.batchSize = batchSize;
+  }
+
+  @Scheduled(fixedDelayString = "${ledger.compaction.intervalMillis}")
+  public void compact() {
+    List<UUID> accountIdList = ledgerEntryRepository.findAccountIdsToCompact(threshold, batchSize);
+
+    for (UUID accountId : accountIdList) {
+      try {
+        ledgerEntryRepository.compact(accountId);
+      } catch (RuntimeException exception) {
+        log.warn("Could not compact ledger entries of account#{}", accountId, exception);
+      }
+    }
+
+    if (!accountIdList.isEmpty()) {
+      log.info("Compacted ledger entries of {} accounts", accountIdList.size());
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.brkygngr.banking.service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transfer.engine", havingValue = "DATABASE", matchIfMissing = true)
+public class PendingTransferProcessor {
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  private static final LocalDateTime SWEEP_SINCE = LocalDateTime.of(1, 1, 1, 0, 0);
+
+  private final DBTransactionService dbTransactionService;
+
+  private final ExecutorService executor;
+
+  private final AtomicInteger activeWorkers = new AtomicInteger();
+
+  private final int workers;
+
+  private final int batchSize;
+
+  private final long lookbackHours;
+
+  private volatile boolean running = true;
+
+  public PendingTransferProcessor(final DBTransactionService dbTransactionService,
+                                  @Value("${transfer.async.workers}") final int workers,
+                                  @Value("${transfer.async.batchSize}") final int batchSize,
+                                  @Value("${transfer.async.lookbackHours}") final long lookbackHours) {
+    this.dbTransactionService = dbTransactionService;
+    this.executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("transfer-worker-", 0).factory());
+    this.workers = workers;
+    this.batchSize = batchSize;
+    this.lookbackHours = lookbackHours;
+  }
+
+  @Scheduled(fixedDelayString = "${transfer.async.pollIntervalMillis}")
+  public void dispatch() {
+    while (running && activeWorkers.get() < workers) {
+      activeWorkers.incrementAndGet();
+      executor.execute(this::drain);
+    }
+  }
+
+  // Rows left behind by a long outage fall outside the lookback window, so they are picked up by an unbounded pass.
+  @Scheduled(fixedDelayString = "${transfer.async.sweepIntervalMillis}")
+  public void sweep() {
+    try {
+      int processed;
+      int total = 0;
+
+      do {
+        processed = dbTransactionService.processPendingTransfers(SWEEP_SINCE, batchSize);
+        total += processed;
+      } while (running && processed == batchSize);
+
+      if (total > 0) {
+        log.info("Sweep settled {} pending transfers", total);
+      }
+    } catch (RuntimeException exception) {
+      log.error("Pending transfer sweep failed, retrying on next sweep.", exception);
+    }
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    executor.shutdown();
+
+    if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      log.warn("Pending transfer workers did not stop in {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+    }
+  }
+
+  private void drain() {
+    try {
+      int processed;
+
+      do {
+        // Pending rows settle within a poll or two, so a bounded window lets the claim prune old partitions.
+        processed = dbTransactionService.processPendingTransfers(LocalDateTime.now().minusHours(lookbackHours),
+                                                                 batchSize);
+      } while (running && processed == batchSize);
+    } catch (RuntimeException exception) {
+      log.error("Pending transfers could not be processed, retrying on next poll.", exception);
+    } finally {
+      activeWorkers.decrementAndGet();
+    }
+  }
+}
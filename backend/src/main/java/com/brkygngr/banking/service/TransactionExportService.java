@@ -0,0 +1,166 @@
+package com.brkygngr.banking.service;
+
+import com.brkygngr.banking.archive.TransactionArchive;
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.transaction.ExportFormat;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.exception.AccountNotFoundException;
+import com.brkygngr.banking.repository.AccountRepository;
+import com.brkygngr.banking.repository.TransactionRepository;
+import com.brkygngr.banking.repository.projection.TransactionHistoryRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Slf4j
+@Service
+public class TransactionExportService {
+
+  private static final String CSV_HEADER = "id,from,to,amount,transactionDate,status\n";
+
+  private static final LocalDateTime MIN_DATE = LocalDateTime.of(1, 1, 1, 0, 0);
+
+  // Accounts and transfers are stamped by different nodes, whose clocks and zones may not agree.
+  private static final Duration CLOCK_SLACK = Duration.ofDays(1);
+
+  private final UserIdentityCache userIdentityCache;
+
+  private final AccountRepository accountRepository;
+
+  private final TransactionRepository transactionRepository;
+
+  private final TransactionArchive transactionArchive;
+
+  private final ObjectMapper objectMapper;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final long timeoutMillis;
+
+  public TransactionExportService(final UserIdentityCache userIdentityCache,
+                                  final AccountRepository accountRepository,
+                                  final TransactionRepository transactionRepository,
+                                  final TransactionArchive transactionArchive,
+                                  final ObjectMapper objectMapper,
+                                  final PlatformTransactionManager transactionManager,
+                                  @Value("${transaction.export.timeoutMillis}") final long timeoutMillis) {
+    this.userIdentityCache = userIdentityCache;
+    this.accountRepository = accountRepository;
+    this.transactionRepository = transactionRepository;
+    this.transactionArchive = transactionArchive;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  public long getTimeoutMillis() {
+    return timeoutMillis;
+  }
+
+  // Ownership is checked up front so a missing account is still a 404 and not a broken download.
+  public StreamingResponseBody exportAccountHistory(final CurrentUser currentUser,
+                                                    final UUID accountId,
+                                                    final ExportFormat format) {
+    Account account = accountRepository.findByIdAndUser(accountId, userIdentityCache.getReference(currentUser))
+                                       .orElseThrow(AccountNotFoundException::withDefaultMessage);
+
+    // No transfer predates its account, so the partitions older than it are never opened.
+    LocalDateTime since = account.getCreatedAt() == null ? MIN_DATE : account.getCreatedAt().minus(CLOCK_SLACK);
+
+    return outputStream -> {
+      long count = write(accountId, since, format, outputStream);
+
+      log.info("User#{} exported {} transactions of account#{} as {}", currentUser.id(), count, accountId, format);
+    };
+  }
+
+  long write(final UUID accountId,
+             final LocalDateTime since,
+             final ExportFormat format,
+             final OutputStream outputStream) {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+    // The cursor only streams inside a transaction; each row is written and dropped, so memory stays flat.
+    Long count = transactionTemplate.execute(status -> {
+      try (Stream<TransactionHistoryRow> rowStream =
+               transactionRepository.streamAllByAccountIdSince(accountId, since)) {
+        if (format == ExportFormat.CSV) {
+          writer.write(CSV_HEADER);
+        }
+
+        AtomicLong written = new AtomicLong();
+
+        // Archived months are all older than the live table, so writing them first keeps the file in date order.
+        for (YearMonth month : transactionArchive.archivedMonths()) {
+          transactionArchive.forEachInMonth(accountId, month, transaction -> {
+            writeRow(writer, format, transaction);
+            written.incrementAndGet();
+          });
+        }
+
+        Iterator<TransactionHistoryRow> rowIterator = rowStream.iterator();
+
+        while (rowIterator.hasNext()) {
+          writeRow(writer, format, TransactionHistoryResponse.fromRow(rowIterator.next()));
+          written.incrementAndGet();
+        }
+
+        writer.flush();
+
+        return written.get();
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      }
+    });
+
+    return count == null ? 0 : count;
+  }
+
+  // Archived rows are written from inside a callback, so a failed write surfaces unchecked like the cursor's does.
+  private void writeRow(final Writer writer, final ExportFormat format, final TransactionHistoryResponse transaction) {
+    try {
+      if (format == ExportFormat.NDJSON) {
+        writer.write(objectMapper.writeValueAsString(transaction));
+        writer.write('\n');
+
+        return;
+      }
+
+      writer.write(transaction.id().toString());
+      writer.write(',');
+      writer.write(transaction.from().toString());
+      writer.write(',');
+      writer.write(transaction.to().toString());
+      writer.write(',');
+      writer.write(transaction.amount().toString());
+      writer.write(',');
+      writer.write(transaction.transactionDate().toString());
+      writer.write(',');
+      writer.write(transaction.status().name());
+      writer.write('\n');
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.brkygngr.banking.service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class TransactionPartitionManager {
+
+  private static final String PARTITION_PREFIX = "transaction_p";
+
+  private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("uuuu_MM");
+
+  private static final String FIND_PARTITIONS = "SELECT child.relname FROM pg_inherits "
+      + "JOIN pg_class child ON child.oid = pg_inherits.inhrelid "
+      + "WHERE pg_inherits.inhparent = 'transaction'::regclass";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final int monthsAhead;
+
+  private final int retentionMonths;
+
+  public TransactionPartitionManager(final JdbcTemplate jdbcTemplate,
+                                     @Value("${transaction.partition.monthsAhead}") final int monthsAhead,
+                                     @Value("${transaction.partition.retentionMonths}") final int retentionMonths) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.monthsAhead = monthsAhead;
+    this.retentionMonths = retentionMonths;
+  }
+
+  // Runs at startup too, so a fresh instance never accepts a transfer for a month without a partition.
+  @Scheduled(fixedDelayString = "${transaction.partition.intervalMillis}")
+  public void managePartitions() {
+    managePartitions(YearMonth.now());
+  }
+
+  void managePartitions(final YearMonth currentMonth) {
+    for (int offset = 0; offset <= monthsAhead; offset++) {
+      createPartition(currentMonth.plusMonths(offset));
+    }
+
+    final YearMonth oldestRetained = currentMonth.minusMonths(retentionMonths);
+
+    for (String partition : jdbcTemplate.queryForList(FIND_PARTITIONS, String.class)) {
+      if (partitionMonth(partition).filter(month -> month.isBefore(oldestRetained)).isPresent()) {
+        detachPartition(partition);
+      }
+    }
+  }
+
+  private void createPartition(final YearMonth month) {
+    try {
+      jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PARTITION_PREFIX + month.format(PARTITION_MONTH)
+                               + " PARTITION OF transaction FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+                               + month.plusMonths(1).atDay(1) + "')");
+    } catch (RuntimeException exception) {
+      log.warn("Could not create transaction partition for {}", month, exception);
+    }
+  }
+
+  // Detached months leave every index and vacuum run at once; TransactionArchiver then moves them to cold storage.
+  private void detachPartition(final String partition) {
+    try {
+      jdbcTemplate.execute("ALTER TABLE transaction DETACH PARTITION " + partition + " CONCURRENTLY");
+
+      log.info("Detached transaction partition {}", partition);
+    } catch (RuntimeException exception) {
+      log.warn("Could not detach transaction partition {}", partition, exception);
+    }
+  }
+
+  public static Optional<YearMonth> partitionMonth(final String tableName) {
+    if (!tableName.startsWith(PARTITION_PREFIX)) {
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of(YearMonth.parse(tableName.substring(PARTITION_PREFIX.length()), PARTITION_MONTH));
+    } catch (DateTimeParseException exception) {
+      return Optional.empty();
+    }
+  }
+}
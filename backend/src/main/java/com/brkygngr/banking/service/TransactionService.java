@@ -1,14 +1,42 @@
 package com.brkygngr.banking.service;
 
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.dto.transaction.AccountHistoryQuery;
+import com.brkygngr.banking.dto.transaction.AccountHistoryResponse;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyResponse;
 import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
 import com.brkygngr.banking.dto.transaction.TransferMoneyRequest;
 import com.brkygngr.banking.dto.transaction.TransferMoneyResponse;
-import java.util.List;
+import com.brkygngr.banking.dto.transaction.TransferSubmittedResponse;
 import java.util.UUID;
 
 public interface TransactionService {
 
-  public TransferMoneyResponse transferMoney(String username, TransferMoneyRequest transferMoneyRequest);
+  public default TransferMoneyResponse transferMoney(CurrentUser currentUser,
+                                                     TransferMoneyRequest transferMoneyRequest) {
+    return transferMoney(currentUser, transferMoneyRequest, TransferGuard.none());
+  }
 
-  public List<TransactionHistoryResponse> accountHistory(String username, UUID accountId);
+  public TransferMoneyResponse transferMoney(CurrentUser currentUser,
+                                             TransferMoneyRequest transferMoneyRequest,
+                                             TransferGuard<TransferMoneyResponse> transferGuard);
+
+  public BatchTransferMoneyResponse transferMoneyBatch(CurrentUser currentUser,
+                                                       BatchTransferMoneyRequest batchTransferMoneyRequest);
+
+  public default TransferSubmittedResponse submitTransfer(CurrentUser currentUser,
+                                                          TransferMoneyRequest transferMoneyRequest) {
+    return submitTransfer(currentUser, transferMoneyRequest, TransferGuard.none());
+  }
+
+  public TransferSubmittedResponse submitTransfer(CurrentUser currentUser,
+                                                  TransferMoneyRequest transferMoneyRequest,
+                                                  TransferGuard<TransferSubmittedResponse> transferGuard);
+
+  public TransactionHistoryResponse getTransaction(CurrentUser currentUser, UUID transactionId);
+
+  public AccountHistoryResponse accountHistory(CurrentUser currentUser,
+                                               UUID accountId,
+                                               AccountHistoryQuery accountHistoryQuery);
 }
@@ -0,0 +1,6 @@
+package com.brkygngr.banking.service;
+
+public enum TransferConcurrencyMode {
+  PESSIMISTIC,
+  OPTIMISTIC
+}
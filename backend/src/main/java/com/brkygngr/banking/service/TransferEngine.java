@@ -0,0 +1,6 @@
+package com.brkygngr.banking.service;
+
+public enum TransferEngine {
+  DATABASE,
+  LEDGER
+}
@@ -0,0 +1,34 @@
+package com.brkygngr.banking.service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// Lets a TransactionService keep an idempotency record in step with the transfer it guards.
+public interface TransferGuard<T> {
+
+  static <T> TransferGuard<T> none() {
+    return new TransferGuard<>() {
+
+      @Override
+      public Optional<T> claim(final UUID transactionId) {
+        return Optional.empty();
+      }
+
+      @Override
+      public void complete(final T response) {
+      }
+
+      @Override
+      public void release() {
+      }
+    };
+  }
+
+  // Returns the stored response when the key was used before, otherwise claims it for the transfer.
+  Optional<T> claim(UUID transactionId);
+
+  void complete(T response);
+
+  // Only for failures known to happen before the transfer could be applied.
+  void release();
+}
@@ -0,0 +1,13 @@
+package com.brkygngr.banking.validation;
+
+import com.brkygngr.banking.money.Money;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class PositiveMoneyValidator implements ConstraintValidator<PositiveMoney, Money> {
+
+  @Override
+  public boolean isValid(final Money value, final ConstraintValidatorContext context) {
+    return value == null || value.signum() > 0;
+  }
+}
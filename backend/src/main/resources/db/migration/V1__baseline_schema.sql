@@ -0,0 +1,56 @@
+CREATE TABLE app_user
+(
+    id         UUID         NOT NULL PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL UNIQUE,
+    password   VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE account
+(
+    id         UUID           NOT NULL PRIMARY KEY,
+    number     VARCHAR(255)   NOT NULL UNIQUE,
+    name       VARCHAR(255)   NOT NULL UNIQUE,
+    balance    NUMERIC(24, 6) NOT NULL,
+    version    BIGINT         NOT NULL DEFAULT 0,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    user_id    UUID REFERENCES app_user (id)
+);
+
+CREATE TABLE transaction
+(
+    id               UUID           NOT NULL PRIMARY KEY,
+    from_account_id  UUID           NOT NULL REFERENCES account (id),
+    to_account_id    UUID           NOT NULL REFERENCES account (id),
+    amount           NUMERIC(24, 6) NOT NULL,
+    transaction_date TIMESTAMP(6)   NOT NULL,
+    status           VARCHAR(255)   NOT NULL
+);
+
+CREATE SEQUENCE ledger_entry_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE ledger_entry
+(
+    id             BIGINT         NOT NULL PRIMARY KEY,
+    account_id     UUID           NOT NULL REFERENCES account (id),
+    transaction_id UUID REFERENCES transaction (id),
+    amount         NUMERIC(24, 6) NOT NULL,
+    entry_date     TIMESTAMP(6)   NOT NULL,
+    compacted      BOOLEAN        NOT NULL,
+    UNIQUE (transaction_id, account_id)
+);
+
+CREATE TABLE idempotency_record
+(
+    id              UUID         NOT NULL PRIMARY KEY,
+    user_id         UUID         NOT NULL REFERENCES app_user (id),
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    status          VARCHAR(255),
+    reason          VARCHAR(255),
+    created_at      TIMESTAMP(6) NOT NULL,
+    UNIQUE (user_id, idempotency_key)
+);
@@ -0,0 +1,12 @@
+-- id closes each index so keyset pages on (transaction_date, id) are read in index order without a sort.
+CREATE INDEX idx_transaction_from_account_date ON transaction (from_account_id, transaction_date, id);
+
+CREATE INDEX idx_transaction_to_account_date ON transaction (to_account_id, transaction_date, id);
+
+CREATE INDEX idx_transaction_pending_date ON transaction (transaction_date) WHERE status = 'PENDING';
+
+CREATE INDEX idx_account_user_id ON account (user_id, id);
+
+CREATE INDEX idx_ledger_entry_uncompacted ON ledger_entry (account_id) WHERE NOT compacted;
+
+CREATE INDEX idx_idempotency_record_created_at ON idempotency_record (created_at);
@@ -0,0 +1,14 @@
+CREATE TABLE daily_account_summary
+(
+    account_id        UUID           NOT NULL REFERENCES account (id),
+    summary_date      DATE           NOT NULL,
+    inflow            NUMERIC(24, 6) NOT NULL,
+    outflow           NUMERIC(24, 6) NOT NULL,
+    transaction_count BIGINT         NOT NULL,
+    PRIMARY KEY (account_id, summary_date)
+);
+
+-- Existing entries start unsummarized, so the aggregator backfills their days on its first runs.
+ALTER TABLE ledger_entry ADD COLUMN summarized BOOLEAN NOT NULL DEFAULT false;
+
+CREATE INDEX idx_ledger_entry_unsummarized ON ledger_entry (account_id) WHERE NOT summarized;
@@ -0,0 +1,6 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Trigram indexes answer the '%term%' searches on account, which a B-tree index can never serve.
+CREATE INDEX idx_account_name_trgm ON account USING gin (name gin_trgm_ops);
+
+CREATE INDEX idx_account_number_trgm ON account USING gin (number gin_trgm_ops);
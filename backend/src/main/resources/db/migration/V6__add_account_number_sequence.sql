@@ -0,0 +1,3 @@
+-- Each nextval reserves a block of 1000 serials for one node. Serials start at 15 digits, so with the check digit
+-- every account number is 16 digits long.
+CREATE SEQUENCE account_number_seq START WITH 100000000000000 INCREMENT BY 1000 MAXVALUE 999999999999999;
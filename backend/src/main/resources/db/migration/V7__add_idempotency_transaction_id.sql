@@ -0,0 +1,2 @@
+-- Asynchronous submissions answer with the pending transaction, so a retry must replay the same id.
+ALTER TABLE idempotency_record ADD COLUMN transaction_id UUID;
@@ -0,0 +1,4 @@
+-- Account tags count an account's pending rows, so a transfer settling as failed still changes its tag.
+CREATE INDEX idx_transaction_pending_from_account ON transaction (from_account_id) WHERE status = 'PENDING';
+
+CREATE INDEX idx_transaction_pending_to_account ON transaction (to_account_id) WHERE status = 'PENDING';
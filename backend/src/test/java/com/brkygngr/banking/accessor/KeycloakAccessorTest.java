@@ -12,10 +12,13 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.brkygngr.banking.dto.keycloak.KeycloakClientResponse;
+import com.brkygngr.banking.dto.keycloak.KeycloakProtocolMapperResponse;
 import com.brkygngr.banking.dto.keycloak.KeycloakRealmResponse;
 import com.brkygngr.banking.dto.keycloak.KeycloakTokenResponse;
 import com.brkygngr.banking.entity.User;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,10 +26,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 class KeycloakAccessorTest {
@@ -53,18 +59,25 @@ class KeycloakAccessorTest {
         "password",
         "backend-realm",
         "backend-client",
-        "backend-secret"
+        "backend-secret",
+        "app_user_id"
     );
+
+    when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+                               any(ParameterizedTypeReference.class)))
+        .thenReturn(ResponseEntity.ok(Map.of("unmanagedAttributePolicy", "ADMIN_EDIT")));
   }
 
   @AfterEach
   void tearDown() throws Exception {
+    keycloakAccessor.preDestroy();
     autoCloseable.close();
   }
 
   @Test
   void registerUser_givenUser_thenRegistersUserToKeycloak() {
     User user = new User();
+    user.setId(UUID.randomUUID());
     user.setUsername("test-user");
     user.setEmail("test@example.com");
     user.setPassword("password");
@@ -88,6 +101,30 @@ class KeycloakAccessorTest {
 
     assertEquals("test-user", body.get("username"));
     assertEquals("test@example.com", body.get("email"));
+    assertEquals(Map.of("app_user_id", List.of(user.getId().toString())), body.get("attributes"));
+  }
+
+  @Test
+  void registerUser_whenKeycloakRejectsCachedToken_thenRetriesWithNewToken() {
+    User user = new User();
+    user.setId(UUID.randomUUID());
+    user.setUsername("test-user");
+    user.setEmail("test@example.com");
+    user.setPassword("password");
+
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Void.class)))
+        .thenThrow(HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", HttpHeaders.EMPTY,
+                                                   null, null))
+        .thenReturn(ResponseEntity.ok().build());
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(KeycloakTokenResponse.class)))
+        .thenReturn(ResponseEntity.ok(new KeycloakTokenResponse("rejected", 60, "refresh_token", 1800)),
+                    ResponseEntity.ok(new KeycloakTokenResponse("fresh", 60, "refresh_token", 1800)));
+
+    keycloakAccessor.registerUser(user);
+
+    verify(restTemplate, times(2)).postForEntity(anyString(), requestCaptor.capture(), eq(Void.class));
+
+    assertEquals("Bearer fresh", requestCaptor.getValue().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
   }
 
   @Test
@@ -117,7 +154,7 @@ class KeycloakAccessorTest {
         .thenReturn(ResponseEntity.ok(realms));
     when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
                                eq(KeycloakClientResponse[].class)))
-        .thenReturn(ResponseEntity.ok(new KeycloakClientResponse[]{new KeycloakClientResponse("backend-client")}));
+        .thenReturn(ResponseEntity.ok(new KeycloakClientResponse[]{createClient()}));
     when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Void.class)))
         .thenReturn(ResponseEntity.ok().build());
 
@@ -139,7 +176,7 @@ class KeycloakAccessorTest {
         .thenReturn(ResponseEntity.ok().build());
     when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
                                eq(KeycloakClientResponse[].class)))
-        .thenReturn(ResponseEntity.ok(new KeycloakClientResponse[]{new KeycloakClientResponse("backend-client")}));
+        .thenReturn(ResponseEntity.ok(new KeycloakClientResponse[]{createClient()}));
     when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Void.class)))
         .thenReturn(ResponseEntity.ok().build());
 
@@ -150,7 +187,7 @@ class KeycloakAccessorTest {
 
   @Test
   void postConstruct_whenClientExist_thenDoesNotCallKeycloak() {
-    KeycloakClientResponse[] clients = {new KeycloakClientResponse("backend-client")};
+    KeycloakClientResponse[] clients = {createClient()};
 
     when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(KeycloakTokenResponse.class)))
         .thenReturn(ResponseEntity.ok(new KeycloakTokenResponse("token", 1, "refresh_token", 2)));
@@ -199,7 +236,7 @@ class KeycloakAccessorTest {
         .thenReturn(ResponseEntity.ok(new KeycloakRealmResponse[]{new KeycloakRealmResponse("backend-realm")}));
     when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
                                eq(KeycloakClientResponse[].class)))
-        .thenReturn(ResponseEntity.ok(new KeycloakClientResponse[]{new KeycloakClientResponse("backend-client")}));
+        .thenReturn(ResponseEntity.ok(new KeycloakClientResponse[]{createClient()}));
     when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Void.class)))
         .thenReturn(ResponseEntity.ok().build());
 
@@ -231,4 +268,58 @@ class KeycloakAccessorTest {
         eq(Void.class)
     );
   }
-}
\ No newline at end of file
+
+  @Test
+  void postConstruct_whenClientHasNoUserIdMapper_thenCreatesMapper() {
+    KeycloakClientResponse[] clients = {new KeycloakClientResponse("client-id", "backend-client", List.of())};
+
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(KeycloakTokenResponse.class)))
+        .thenReturn(ResponseEntity.ok(new KeycloakTokenResponse("token", 60, "refresh_token", 2)));
+    when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+                               eq(KeycloakRealmResponse[].class)))
+        .thenReturn(ResponseEntity.ok(new KeycloakRealmResponse[]{new KeycloakRealmResponse("backend-realm")}));
+    when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+                               eq(KeycloakClientResponse[].class)))
+        .thenReturn(ResponseEntity.ok(clients));
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(Void.class)))
+        .thenReturn(ResponseEntity.ok().build());
+
+    keycloakAccessor.postConstruct();
+
+    verify(restTemplate, times(1)).postForEntity(
+        eq("http://localhost:8080/admin/realms/backend-realm/clients/client-id/protocol-mappers/models"),
+        requestCaptor.capture(),
+        eq(Void.class));
+    assertEquals("app_user_id", requestCaptor.getValue().getBody().get("name"));
+  }
+
+  @Test
+  void postConstruct_whenUserProfileDropsUnmanagedAttributes_thenAllowsAdminManagedAttributes() {
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(KeycloakTokenResponse.class)))
+        .thenReturn(ResponseEntity.ok(new KeycloakTokenResponse("token", 60, "refresh_token", 2)));
+    when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+                               eq(KeycloakRealmResponse[].class)))
+        .thenReturn(ResponseEntity.ok(new KeycloakRealmResponse[]{new KeycloakRealmResponse("backend-realm")}));
+    when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+                               eq(KeycloakClientResponse[].class)))
+        .thenReturn(ResponseEntity.ok(new KeycloakClientResponse[]{createClient()}));
+    when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+                               any(ParameterizedTypeReference.class)))
+        .thenReturn(ResponseEntity.ok(Map.of("attributes", List.of())));
+
+    keycloakAccessor.postConstruct();
+
+    verify(restTemplate, times(1)).exchange(
+        eq("http://localhost:8080/admin/realms/backend-realm/users/profile"),
+        eq(HttpMethod.PUT),
+        argThat(entity -> entity.getBody() != null
+            && "ADMIN_EDIT".equals(((Map<?, ?>) entity.getBody()).get("unmanagedAttributePolicy"))),
+        eq(Void.class));
+  }
+
+  private KeycloakClientResponse createClient() {
+    return new KeycloakClientResponse("client-id",
+                                      "backend-client",
+                                      List.of(new KeycloakProtocolMapperResponse("app_user_id")));
+  }
+}
@@ -0,0 +1,161 @@
+package com.brkygngr.banking.accessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.brkygngr.banking.dto.keycloak.KeycloakTokenResponse;
+import com.brkygngr.banking.exception.KeycloakException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class KeycloakAdminTokenHolderTest {
+
+  private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private Supplier<KeycloakTokenResponse> tokenSupplier;
+
+  @Mock
+  private Clock clock;
+
+  @Mock
+  private ScheduledExecutorService scheduler;
+
+  @Mock
+  private ScheduledFuture<?> scheduledFuture;
+
+  @Captor
+  private ArgumentCaptor<Runnable> refreshCaptor;
+
+  private final List<Runnable> taskList = new ArrayList<>();
+
+  private boolean deferred;
+
+  private KeycloakAdminTokenHolder keycloakAdminTokenHolder;
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    keycloakAdminTokenHolder = new KeycloakAdminTokenHolder(tokenSupplier, clock, task -> {
+      if (deferred) {
+        taskList.add(task);
+      } else {
+        task.run();
+      }
+    }, scheduler);
+
+    when(clock.instant()).thenReturn(NOW);
+    doReturn(scheduledFuture).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void getToken_whenTokenIsFresh_thenFetchesItOnce() {
+    when(tokenSupplier.get()).thenReturn(createToken("first"));
+
+    assertEquals("first", keycloakAdminTokenHolder.getToken());
+    assertEquals("first", keycloakAdminTokenHolder.getToken());
+
+    verify(tokenSupplier, times(1)).get();
+  }
+
+  @Test
+  void getToken_whenTokenIsPastRefreshPoint_thenKeepsServingItWhileOneRefreshRuns() {
+    when(tokenSupplier.get()).thenReturn(createToken("first"), createToken("second"));
+
+    keycloakAdminTokenHolder.getToken();
+
+    deferred = true;
+    when(clock.instant()).thenReturn(NOW.plusSeconds(50));
+
+    assertEquals("first", keycloakAdminTokenHolder.getToken());
+    assertEquals("first", keycloakAdminTokenHolder.getToken());
+    assertEquals(1, taskList.size());
+
+    taskList.getFirst().run();
+
+    assertEquals("second", keycloakAdminTokenHolder.getToken());
+  }
+
+  @Test
+  void getToken_whenFetchFails_thenThrowsTheCause() {
+    when(tokenSupplier.get()).thenThrow(new KeycloakException("app.keycloak.admin.token.invalid"));
+
+    assertThrows(KeycloakException.class, () -> keycloakAdminTokenHolder.getToken());
+  }
+
+  @Test
+  void getToken_whenTokenLifetimeIsZero_thenSchedulesRefreshNoSoonerThanFloor() {
+    when(tokenSupplier.get()).thenReturn(new KeycloakTokenResponse("first", 0, "refresh_token", 1800));
+
+    keycloakAdminTokenHolder.getToken();
+
+    verify(scheduler).schedule(any(Runnable.class), eq(5_000L), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void close_whenRefreshIsScheduled_thenCancelsItAndNeverRefreshesAgain() {
+    when(tokenSupplier.get()).thenReturn(createToken("first"), createToken("second"));
+
+    keycloakAdminTokenHolder.getToken();
+
+    verify(scheduler).schedule(refreshCaptor.capture(), eq(45_000L), eq(TimeUnit.MILLISECONDS));
+
+    keycloakAdminTokenHolder.close();
+    refreshCaptor.getValue().run();
+
+    verify(scheduledFuture).cancel(false);
+    verify(tokenSupplier, times(1)).get();
+  }
+
+  @Test
+  void invalidate_whenTokenIsRejected_thenFetchesNewToken() {
+    when(tokenSupplier.get()).thenReturn(createToken("first"), createToken("second"));
+
+    keycloakAdminTokenHolder.getToken();
+    keycloakAdminTokenHolder.invalidate("first");
+
+    assertEquals("second", keycloakAdminTokenHolder.getToken());
+  }
+
+  @Test
+  void invalidate_whenRejectedTokenWasAlreadyReplaced_thenKeepsNewerToken() {
+    when(tokenSupplier.get()).thenReturn(createToken("first"));
+
+    keycloakAdminTokenHolder.getToken();
+    keycloakAdminTokenHolder.invalidate("older");
+
+    assertEquals("first", keycloakAdminTokenHolder.getToken());
+    verify(tokenSupplier, times(1)).get();
+  }
+
+  private KeycloakTokenResponse createToken(final String accessToken) {
+    return new KeycloakTokenResponse(accessToken, 60, "refresh_token", 1800);
+  }
+}
@@ -0,0 +1,175 @@
+package com.brkygngr.banking.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.brkygngr.banking.dto.transaction.TransactionCursor;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.money.Money;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TransactionArchiveTest {
+
+  private static final YearMonth MONTH = YearMonth.of(2023, 4);
+
+  private static final UUID MIN_ID = new UUID(0L, 0L);
+
+  private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+  @TempDir
+  private Path directory;
+
+  private final UUID account = UUID.fromString("3f000000-0000-0000-0000-000000000001");
+
+  private final UUID otherAccount = UUID.fromString("c1000000-0000-0000-0000-000000000002");
+
+  @Test
+  void findHistory_whenMonthIsCommitted_thenReadsAccountRangeAcrossBlocksFromReopenedArchive() throws Exception {
+    List<ArchiveRecord> recordList = createRecords(account, 10);
+    recordList.addAll(createRecords(otherAccount, 3));
+
+    TransactionArchive transactionArchive = new TransactionArchive(directory.toString(), 4);
+
+    try (TransactionArchive.MonthWriter monthWriter = transactionArchive.beginMonth(MONTH)) {
+      for (ArchiveRecord record : recordList) {
+        monthWriter.append(record);
+      }
+
+      assertEquals(13, monthWriter.commit());
+    }
+
+    TransactionArchive reopenedArchive = new TransactionArchive(directory.toString(), 4);
+
+    List<TransactionHistoryResponse> newestList = reopenedArchive.findHistory(account,
+                                                                              new TransactionCursor(
+                                                                                  MONTH.atDay(1).atStartOfDay(),
+                                                                                  MIN_ID),
+                                                                              new TransactionCursor(
+                                                                                  MONTH.atEndOfMonth().atStartOfDay(),
+                                                                                  MAX_ID),
+                                                                              3,
+                                                                              false);
+
+    assertTrue(reopenedArchive.archivedMonths().contains(MONTH));
+    assertEquals(List.of(recordList.get(9).toResponse(),
+                         recordList.get(8).toResponse(),
+                         recordList.get(7).toResponse()),
+                 newestList);
+
+    List<TransactionHistoryResponse> monthList = new ArrayList<>();
+    reopenedArchive.forEachInMonth(otherAccount, MONTH, monthList::add);
+
+    assertEquals(3, monthList.size());
+  }
+
+  @Test
+  void findHistory_whenCursorIsInsideMonth_thenReturnsOnlyRowsAfterIt() throws Exception {
+    List<ArchiveRecord> recordList = createRecords(account, 5);
+
+    TransactionArchive transactionArchive = new TransactionArchive(directory.toString(), 2);
+
+    try (TransactionArchive.MonthWriter monthWriter = transactionArchive.beginMonth(MONTH)) {
+      for (ArchiveRecord record : recordList) {
+        monthWriter.append(record);
+      }
+
+      monthWriter.commit();
+    }
+
+    ArchiveKey cursorKey = recordList.get(1).key();
+
+    List<TransactionHistoryResponse> resultList = transactionArchive.findHistory(account,
+                                                                                 new TransactionCursor(
+                                                                                     cursorKey.transactionDate(),
+                                                                                     cursorKey.transactionId()),
+                                                                                 new TransactionCursor(
+                                                                                     LocalDateTime.MAX,
+                                                                                     MAX_ID),
+                                                                                 10,
+                                                                                 true);
+
+    assertEquals(recordList.subList(2, 5).stream().map(ArchiveRecord::toResponse).toList(), resultList);
+  }
+
+  @Test
+  void append_whenRecordsAreOutOfOrder_thenDiscardsMonth() throws Exception {
+    List<ArchiveRecord> recordList = createRecords(account, 2);
+
+    TransactionArchive transactionArchive = new TransactionArchive(directory.toString(), 4);
+
+    try (TransactionArchive.MonthWriter monthWriter = transactionArchive.beginMonth(MONTH)) {
+      monthWriter.append(recordList.get(1));
+
+      assertThrows(IllegalStateException.class, () -> monthWriter.append(recordList.get(0)));
+    }
+
+    assertFalse(transactionArchive.archivedMonths().contains(MONTH));
+  }
+
+  @Test
+  void verifyMonth_whenMonthIsCommitted_thenCountsEveryRecordReadBack() throws Exception {
+    TransactionArchive transactionArchive = commitMonth(createRecords(account, 10));
+
+    assertEquals(10, transactionArchive.verifyMonth(MONTH));
+  }
+
+  @Test
+  void verifyMonth_whenSegmentIsTorn_thenThrows() throws Exception {
+    TransactionArchive transactionArchive = commitMonth(createRecords(account, 10));
+
+    try (FileChannel channel = FileChannel.open(directory.resolve("2023_04").resolve("3.seg"),
+                                                StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() / 2);
+    }
+
+    assertThrows(IOException.class, () -> transactionArchive.verifyMonth(MONTH));
+  }
+
+  @Test
+  void constructor_whenDirectoryIsRelative_thenThrows() {
+    assertThrows(IllegalStateException.class, () -> new TransactionArchive("archive", 4));
+  }
+
+  private TransactionArchive commitMonth(final List<ArchiveRecord> recordList) throws IOException {
+    TransactionArchive transactionArchive = new TransactionArchive(directory.toString(), 4);
+
+    try (TransactionArchive.MonthWriter monthWriter = transactionArchive.beginMonth(MONTH)) {
+      for (ArchiveRecord record : recordList) {
+        monthWriter.append(record);
+      }
+
+      monthWriter.commit();
+    }
+
+    return transactionArchive;
+  }
+
+  private List<ArchiveRecord> createRecords(final UUID accountId, final int count) {
+    List<ArchiveRecord> recordList = new ArrayList<>();
+
+    for (int i = 0; i < count; i++) {
+      LocalDateTime transactionDate = MONTH.atDay(1).atTime(10, 0).plusHours(i);
+
+      recordList.add(new ArchiveRecord(new ArchiveKey(accountId, transactionDate, UUID.randomUUID()),
+                                       accountId,
+                                       UUID.randomUUID(),
+                                       Money.valueOf(i + 1),
+                                       TransactionStatus.SUCCESS));
+    }
+
+    return recordList;
+  }
+}
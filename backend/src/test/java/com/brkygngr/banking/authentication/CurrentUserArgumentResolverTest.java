@@ -0,0 +1,108 @@
+package com.brkygngr.banking.authentication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.exception.UserNotFoundException;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class CurrentUserArgumentResolverTest {
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private UserIdentityCache userIdentityCache;
+
+  private CurrentUserArgumentResolver currentUserArgumentResolver;
+
+  private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+  private final CurrentUser currentUser = new CurrentUser(UUID.randomUUID(), "username");
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    currentUserArgumentResolver = new CurrentUserArgumentResolver(userIdentityCache, "app_user_id");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void resolveArgument_whenTokenHasUserIdClaim_thenDoesNotLookUpUser() {
+    request.setUserPrincipal(createAuthentication(Jwt.withTokenValue("token")
+                                                     .header("alg", "none")
+                                                     .claim("preferred_username", currentUser.username())
+                                                     .claim("app_user_id", currentUser.id().toString())
+                                                     .build()));
+
+    assertEquals(currentUser, resolve());
+    verify(userIdentityCache, never()).findCurrentUser(anyString());
+  }
+
+  @Test
+  void resolveArgument_whenUserIdClaimIsMalformed_thenFallsBackToLookup() {
+    request.setUserPrincipal(createAuthentication(Jwt.withTokenValue("token")
+                                                     .header("alg", "none")
+                                                     .claim("preferred_username", currentUser.username())
+                                                     .claim("app_user_id", "not-a-uuid")
+                                                     .build()));
+
+    when(userIdentityCache.findCurrentUser(currentUser.username())).thenReturn(Optional.of(currentUser));
+
+    assertEquals(currentUser, resolve());
+  }
+
+  @Test
+  void resolveArgument_whenResolvedTwiceInRequest_thenLooksUpUserOnce() {
+    request.setUserPrincipal(createAuthentication(createJwt()));
+
+    when(userIdentityCache.findCurrentUser(currentUser.username())).thenReturn(Optional.of(currentUser));
+
+    assertEquals(currentUser, resolve());
+    assertEquals(currentUser, resolve());
+    verify(userIdentityCache, times(1)).findCurrentUser(currentUser.username());
+  }
+
+  @Test
+  void resolveArgument_whenUserNotFound_thenThrowsException() {
+    request.setUserPrincipal(createAuthentication(createJwt()));
+
+    when(userIdentityCache.findCurrentUser(currentUser.username())).thenReturn(Optional.empty());
+
+    assertThrows(UserNotFoundException.class, this::resolve);
+  }
+
+  private CurrentUser resolve() {
+    return currentUserArgumentResolver.resolveArgument(null, null, new ServletWebRequest(request), null);
+  }
+
+  private Jwt createJwt() {
+    return Jwt.withTokenValue("token")
+              .header("alg", "none")
+              .claim("preferred_username", currentUser.username())
+              .build();
+  }
+
+  private JwtAuthenticationToken createAuthentication(final Jwt jwt) {
+    return new JwtAuthenticationToken(jwt);
+  }
+}
@@ -0,0 +1,45 @@
+package com.brkygngr.banking.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ExpiringLruCacheTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private final ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(2,
+                                                                                Duration.ofNanos(100),
+                                                                                clock::get);
+
+  @Test
+  void get_whenEntryIsOlderThanTtl_thenReturnsEmpty() {
+    cache.put("key", "value");
+
+    clock.set(99);
+
+    assertEquals(Optional.of("value"), cache.get("key"));
+
+    clock.set(100);
+
+    assertTrue(cache.get("key").isEmpty());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void put_whenCacheIsFull_thenEvictsLeastRecentlyUsedEntry() {
+    cache.put("first", "1");
+    cache.put("second", "2");
+
+    cache.get("first");
+    cache.put("third", "3");
+
+    assertEquals(Optional.of("1"), cache.get("first"));
+    assertTrue(cache.get("second").isEmpty());
+    assertEquals(Optional.of("3"), cache.get("third"));
+  }
+}
@@ -0,0 +1,87 @@
+package com.brkygngr.banking.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class UserIdentityCacheTest {
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private UserRepository userRepository;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private UserIdentityCache userIdentityCache;
+
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    userIdentityCache = new UserIdentityCache(userRepository, meterRegistry, 10, 60_000);
+
+    user = new User();
+    user.setId(UUID.randomUUID());
+    user.setUsername("username");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void findCurrentUser_whenUsernameIsCached_thenReturnsItWithoutQuery() {
+    when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+
+    userIdentityCache.findCurrentUser(user.getUsername());
+
+    Optional<CurrentUser> actual = userIdentityCache.findCurrentUser(user.getUsername());
+
+    assertEquals(Optional.of(new CurrentUser(user.getId(), user.getUsername())), actual);
+    verify(userRepository, times(1)).findByUsername(user.getUsername());
+    assertEquals(1, countRequests("hit"));
+    assertEquals(1, countRequests("miss"));
+  }
+
+  @Test
+  void findCurrentUser_whenUserIsNotFound_thenDoesNotCacheMiss() {
+    when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.empty());
+
+    assertTrue(userIdentityCache.findCurrentUser(user.getUsername()).isEmpty());
+    assertTrue(userIdentityCache.findCurrentUser(user.getUsername()).isEmpty());
+
+    verify(userRepository, times(2)).findByUsername(user.getUsername());
+  }
+
+  @Test
+  void invalidate_whenUsernameIsCached_thenQueriesRepositoryAgain() {
+    when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+
+    userIdentityCache.findCurrentUser(user.getUsername());
+    userIdentityCache.invalidate(user.getUsername());
+    userIdentityCache.findCurrentUser(user.getUsername());
+
+    verify(userRepository, times(2)).findByUsername(user.getUsername());
+  }
+
+  private double countRequests(final String result) {
+    return meterRegistry.get("user.identity.cache.requests").tag("result", result).counter().count();
+  }
+}
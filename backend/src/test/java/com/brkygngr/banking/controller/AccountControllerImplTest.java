@@ -0,0 +1,83 @@
+package com.brkygngr.banking.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.configuration.MessageConfig;
+import com.brkygngr.banking.configuration.SecurityConfig;
+import com.brkygngr.banking.exception.AccountNotFoundException;
+import com.brkygngr.banking.service.AccountService;
+import com.brkygngr.banking.service.AccountStatementService;
+import com.brkygngr.banking.service.AccountStreamService;
+import java.util.UUID;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest({AccountControllerImpl.class, SecurityConfig.class, MessageConfig.class})
+class AccountControllerImplTest {
+
+  private static final String ETAG = "\"digest\"";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Value("${user.idClaim}")
+  private String userIdClaim;
+
+  @MockBean
+  private AccountService accountService;
+
+  @MockBean
+  private AccountStatementService accountStatementService;
+
+  @MockBean
+  private AccountStreamService accountStreamService;
+
+  @MockBean
+  private UserIdentityCache userIdentityCache;
+
+  private final UUID accountId = UUID.randomUUID();
+
+  @Nested
+  class GetAccount {
+
+    @Test
+    void whenNonOwnerSendsMatchingIfNoneMatch_thenReturnsNotFound() throws Exception {
+      doThrow(AccountNotFoundException.withDefaultMessage()).when(accountService)
+                                                            .getAccountETag(any(), eq(accountId));
+
+      mockMvc.perform(get("/api/accounts/{accountId}", accountId)
+                          .with(jwt().jwt(token -> token.claim(userIdClaim, UUID.randomUUID().toString())))
+                          .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+             .andExpect(status().isNotFound());
+
+      verify(accountService, never()).getAccount(any(), any());
+    }
+
+    @Test
+    void whenOwnerSendsMatchingIfNoneMatch_thenReturnsNotModified() throws Exception {
+      when(accountService.getAccountETag(any(), eq(accountId))).thenReturn(ETAG);
+
+      mockMvc.perform(get("/api/accounts/{accountId}", accountId)
+                          .with(jwt().jwt(token -> token.claim(userIdClaim, UUID.randomUUID().toString())))
+                          .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+             .andExpect(status().isNotModified());
+
+      verify(accountService, never()).getAccount(any(), any());
+    }
+  }
+}
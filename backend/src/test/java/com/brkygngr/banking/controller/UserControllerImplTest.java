@@ -7,6 +7,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.brkygngr.banking.cache.UserIdentityCache;
 import com.brkygngr.banking.configuration.MessageConfig;
 import com.brkygngr.banking.configuration.SecurityConfig;
 import com.brkygngr.banking.dto.ExceptionResponse;
@@ -48,6 +49,9 @@ class UserControllerImplTest {
   @MockBean
   private UserService userService;
 
+  @MockBean
+  private UserIdentityCache userIdentityCache;
+
   @Nested
   class RegisterUser {
 
@@ -0,0 +1,38 @@
+package com.brkygngr.banking.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class TransactionIdsTest {
+
+  @Test
+  void next_whenIssued_thenIsAnIetfVersionSevenId() {
+    UUID transactionId = TransactionIds.next();
+
+    assertEquals(7, transactionId.version());
+    assertEquals(2, transactionId.variant());
+  }
+
+  @Test
+  void createdAt_whenIdIsTimeOrdered_thenReturnsTheMillisecondItWasIssued() {
+    LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    UUID transactionId = TransactionIds.next();
+    LocalDateTime after = LocalDateTime.now();
+
+    LocalDateTime createdAt = TransactionIds.createdAt(transactionId).orElseThrow();
+
+    assertFalse(createdAt.isBefore(before));
+    assertFalse(createdAt.isAfter(after));
+  }
+
+  @Test
+  void createdAt_whenIdIsRandom_thenReturnsEmpty() {
+    assertTrue(TransactionIds.createdAt(UUID.randomUUID()).isEmpty());
+  }
+}
@@ -0,0 +1,68 @@
+package com.brkygngr.banking.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class AccountEventBusTest {
+
+  private final AccountEventBus accountEventBus = new AccountEventBus(new SimpleMeterRegistry(), 2);
+
+  private final UUID userId = UUID.randomUUID();
+
+  @Test
+  void onAccountActivity_whenUserIsSubscribed_thenDeliversOnlyThatUsersEvents() throws Exception {
+    AccountEventSubscription subscription = accountEventBus.subscribe(userId);
+    AccountActivityEvent event = createEvent(userId);
+
+    accountEventBus.onAccountActivity(event);
+    accountEventBus.onAccountActivity(createEvent(UUID.randomUUID()));
+
+    assertEquals(List.of(event), subscription.poll(0));
+    assertEquals(List.of(), subscription.poll(0));
+  }
+
+  @Test
+  void onAccountActivity_whenBufferIsFull_thenMarksSubscriptionOverflowed() {
+    AccountEventSubscription subscription = accountEventBus.subscribe(userId);
+
+    accountEventBus.onAccountActivity(createEvent(userId));
+    accountEventBus.onAccountActivity(createEvent(userId));
+
+    assertFalse(subscription.isOverflowed());
+
+    accountEventBus.onAccountActivity(createEvent(userId));
+
+    assertTrue(subscription.isOverflowed());
+  }
+
+  @Test
+  void close_whenSubscriptionIsClosed_thenStopsDeliveringEvents() throws Exception {
+    AccountEventSubscription subscription = accountEventBus.subscribe(userId);
+
+    subscription.close();
+    accountEventBus.onAccountActivity(createEvent(userId));
+
+    assertEquals(List.of(), subscription.poll(0));
+    assertEquals(0, accountEventBus.subscriberCount());
+  }
+
+  private AccountActivityEvent createEvent(final UUID eventUserId) {
+    return new AccountActivityEvent(eventUserId,
+                                    List.of(new TransactionHistoryResponse(UUID.randomUUID(),
+                                                                           UUID.randomUUID(),
+                                                                           UUID.randomUUID(),
+                                                                           Money.valueOf(1),
+                                                                           LocalDateTime.now(),
+                                                                           TransactionStatus.SUCCESS)));
+  }
+}
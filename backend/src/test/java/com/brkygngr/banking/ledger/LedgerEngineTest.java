@@ -0,0 +1,194 @@
+package com.brkygngr.banking.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.exception.LedgerUnavailableException;
+import com.brkygngr.banking.money.Money;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class LedgerEngineTest {
+
+  private static final Money TEN = Money.valueOf(10);
+
+  private static final Money ZERO = Money.valueOf(0);
+
+  @TempDir
+  private Path directory;
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private LedgerPersister ledgerPersister;
+
+  @Mock
+  private LedgerNodeLock ledgerNodeLock;
+
+  private final UUID from = UUID.randomUUID();
+
+  private final UUID to = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void submit_whenBalanceIsEnough_thenAppliesTransferInMemory() throws Exception {
+    LedgerEngine ledgerEngine = startEngine();
+
+    LedgerRecord first = submit(ledgerEngine, Money.valueOf(6));
+    LedgerRecord second = submit(ledgerEngine, Money.valueOf(6));
+
+    ledgerEngine.stop();
+
+    assertEquals(TransactionStatus.SUCCESS, first.status());
+    assertEquals(Money.valueOf(4), first.fromBalance());
+    assertEquals(Money.valueOf(6), first.toBalance());
+    assertEquals(TransactionStatus.FAILED, second.status());
+    assertEquals(first.sequence() + 1, second.sequence());
+  }
+
+  @Test
+  void start_whenJournalHasRecords_thenRecoversBalancesAndReplaysUnpersistedRecords() throws Exception {
+    LedgerEngine ledgerEngine = startEngine();
+
+    submit(ledgerEngine, Money.valueOf(3));
+
+    ledgerEngine.stop();
+
+    LedgerEngine recoveredEngine = startEngine();
+
+    LedgerRecord record = submit(recoveredEngine, Money.valueOf(3));
+
+    recoveredEngine.stop();
+
+    assertEquals(Money.valueOf(4), record.fromBalance());
+    assertEquals(Money.valueOf(6), record.toBalance());
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<LedgerRecord>> recordCaptor = ArgumentCaptor.forClass(List.class);
+
+    verify(ledgerPersister, atLeastOnce()).enqueue(recordCaptor.capture());
+
+    assertEquals(1, recordCaptor.getAllValues().get(2).size());
+  }
+
+  @Test
+  void start_whenFirstRecordOfSegmentIsTorn_thenKeepsRecordsAppendedAfterRecovery() throws Exception {
+    LedgerEngine ledgerEngine = startEngine();
+
+    submit(ledgerEngine, Money.valueOf(3));
+
+    ledgerEngine.stop();
+
+    Files.write(directory.resolve("journal-2.log"), new byte[LedgerRecord.SIZE / 2], StandardOpenOption.APPEND);
+
+    LedgerEngine recoveredEngine = startEngine();
+
+    submit(recoveredEngine, Money.valueOf(3));
+
+    recoveredEngine.stop();
+
+    startEngine().stop();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<LedgerRecord>> recordCaptor = ArgumentCaptor.forClass(List.class);
+
+    verify(ledgerPersister, atLeastOnce()).enqueue(recordCaptor.capture());
+
+    assertEquals(List.of(1L, 2L), recordCaptor.getValue().stream().map(LedgerRecord::sequence).toList());
+  }
+
+  @Test
+  void submit_whenPersisterHasFailed_thenRejectsTransfer() throws Exception {
+    LedgerEngine ledgerEngine = startEngine();
+
+    when(ledgerPersister.isFailed()).thenReturn(true);
+
+    ExecutionException exception = assertThrows(ExecutionException.class,
+                                                 () -> submit(ledgerEngine, Money.valueOf(3)));
+
+    ledgerEngine.stop();
+
+    assertInstanceOf(LedgerUnavailableException.class, exception.getCause());
+  }
+
+  @Test
+  void start_whenAnotherNodeHoldsTheLock_thenFailsBeforeRecovering() throws Exception {
+    doThrow(new IllegalStateException("locked")).when(ledgerNodeLock).acquire();
+
+    assertThrows(IllegalStateException.class, this::startEngine);
+    verify(ledgerPersister, never()).restore(anyLong());
+  }
+
+  @Test
+  void stop_whenEngineStops_thenReleasesTheLock() throws Exception {
+    startEngine().stop();
+
+    verify(ledgerNodeLock).acquire();
+    verify(ledgerNodeLock).release();
+  }
+
+  @Test
+  void find_whenTransferIsJournaled_thenAnswersFromThePersister() throws Exception {
+    LedgerEngine ledgerEngine = startEngine();
+
+    LedgerRecord record = submit(ledgerEngine, Money.valueOf(3));
+
+    when(ledgerPersister.find(record.transactionId())).thenReturn(Optional.of(record));
+
+    Optional<TransactionHistoryResponse> found = ledgerEngine.find(record.transactionId());
+
+    ledgerEngine.stop();
+
+    assertEquals(Optional.of(TransactionHistoryResponse.fromLedgerRecord(record)), found);
+    assertEquals(Optional.empty(), ledgerEngine.find(UUID.randomUUID()));
+  }
+
+  private LedgerEngine startEngine() throws Exception {
+    LedgerEngine ledgerEngine = new LedgerEngine(ledgerPersister,
+                                                 ledgerNodeLock,
+                                                 directory.toString(),
+                                                 16,
+                                                 8,
+                                                 60_000);
+    ledgerEngine.start();
+
+    return ledgerEngine;
+  }
+
+  private LedgerRecord submit(final LedgerEngine ledgerEngine, final Money amount) throws Exception {
+    return ledgerEngine.submit(new LedgerTransfer(UUID.randomUUID(), from, to, amount, TEN, ZERO, LocalDateTime.now()))
+                       .get(5, TimeUnit.SECONDS);
+  }
+}
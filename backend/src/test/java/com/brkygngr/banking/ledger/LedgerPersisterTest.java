@@ -0,0 +1,101 @@
+package com.brkygngr.banking.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.money.Money;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@JdbcTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// The persister commits on its own thread, so the accounts it references must be committed as well.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerPersisterTest {
+
+  @Container
+  @ServiceConnection
+  private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void stop_whenRecordIsReplayed_thenInsertsItOnceIntoPartitionedTransactionTable() throws Exception {
+    UUID userId = insertUser();
+    UUID from = insertAccount(userId);
+    UUID to = insertAccount(userId);
+
+    LedgerRecord record = new LedgerRecord(1,
+                                           UUID.randomUUID(),
+                                           from,
+                                           to,
+                                           Money.valueOf(3),
+                                           Money.valueOf(7),
+                                           Money.valueOf(3),
+                                           LocalDateTime.now(),
+                                           TransactionStatus.SUCCESS);
+
+    LedgerPersister ledgerPersister = new LedgerPersister(jdbcTemplate,
+                                                          transactionManager,
+                                                          10,
+                                                          10);
+
+    // A crash between the insert and the snapshot replays records the database already holds.
+    ledgerPersister.enqueue(List.of(record));
+    ledgerPersister.enqueue(List.of(record));
+
+    ledgerPersister.start();
+    ledgerPersister.stop();
+
+    assertFalse(ledgerPersister.isFailed());
+    assertEquals(1L, ledgerPersister.persistedSequence());
+    assertEquals(1, count("SELECT count(*) FROM transaction WHERE id = ?", record.transactionId()));
+    assertEquals(2, count("SELECT count(*) FROM ledger_entry WHERE transaction_id = ?", record.transactionId()));
+  }
+
+  private UUID insertUser() {
+    UUID userId = UUID.randomUUID();
+
+    jdbcTemplate.update("INSERT INTO app_user (id, username, password, email) VALUES (?, ?, '', ?)",
+                        userId,
+                        userId.toString(),
+                        userId + "@test");
+
+    return userId;
+  }
+
+  private UUID insertAccount(final UUID userId) {
+    UUID accountId = UUID.randomUUID();
+
+    jdbcTemplate.update("INSERT INTO account (id, number, name, balance, user_id) VALUES (?, ?, ?, 0, ?)",
+                        accountId,
+                        accountId.toString(),
+                        accountId.toString(),
+                        userId);
+
+    return accountId;
+  }
+
+  private int count(final String sql, final UUID transactionId) {
+    return jdbcTemplate.queryForObject(sql, Integer.class, transactionId);
+  }
+}
@@ -0,0 +1,187 @@
+package com.brkygngr.banking.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.dto.transaction.TransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.TransferMoneyResponse;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.event.AccountActivityEvent;
+import com.brkygngr.banking.exception.AccountNotFoundException;
+import com.brkygngr.banking.exception.LedgerUnavailableException;
+import com.brkygngr.banking.exception.TransactionNotFoundException;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.AccountRepository;
+import com.brkygngr.banking.repository.LedgerEntryRepository;
+import com.brkygngr.banking.service.DBTransactionService;
+import com.brkygngr.banking.service.TransferGuard;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.MessageSource;
+
+class LedgerTransactionServiceTest {
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private LedgerEngine ledgerEngine;
+
+  @Mock
+  private DBTransactionService dbTransactionService;
+
+  @Mock
+  private UserIdentityCache userIdentityCache;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private MessageSource messageSource;
+
+  @Mock
+  private TransferGuard<TransferMoneyResponse> transferGuard;
+
+  private LedgerTransactionService ledgerTransactionService;
+
+  private final User user = new User();
+
+  private CurrentUser currentUser;
+
+  private final TransferMoneyRequest request = new TransferMoneyRequest(UUID.randomUUID(),
+                                                                        UUID.randomUUID(),
+                                                                        Money.valueOf(1));
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    ledgerTransactionService = new LedgerTransactionService(ledgerEngine,
+                                                            dbTransactionService,
+                                                            userIdentityCache,
+                                                            accountRepository,
+                                                            ledgerEntryRepository,
+                                                            eventPublisher,
+                                                            messageSource,
+                                                            10);
+
+    user.setId(UUID.randomUUID());
+    user.setUsername("test user");
+
+    currentUser = new CurrentUser(user.getId(), user.getUsername());
+
+    when(userIdentityCache.getReference(currentUser)).thenReturn(user);
+    when(transferGuard.claim(any(UUID.class))).thenReturn(Optional.empty());
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void transferMoney_whenAckTimesOut_thenKeepsKeyAndCompletesItOnLateAck() {
+    CompletableFuture<LedgerRecord> future = new CompletableFuture<>();
+
+    stubBalances();
+    when(ledgerEngine.submit(any(LedgerTransfer.class))).thenReturn(future);
+
+    assertThrows(LedgerUnavailableException.class,
+                 () -> ledgerTransactionService.transferMoney(currentUser, request, transferGuard));
+    verify(transferGuard, never()).release();
+
+    future.complete(new LedgerRecord(1,
+                                     UUID.randomUUID(),
+                                     request.from(),
+                                     request.to(),
+                                     request.amount(),
+                                     Money.ZERO,
+                                     request.amount(),
+                                     LocalDateTime.now(),
+                                     TransactionStatus.SUCCESS));
+
+    verify(transferGuard, timeout(1000)).complete(new TransferMoneyResponse(TransactionStatus.SUCCESS, ""));
+    verify(eventPublisher, timeout(1000)).publishEvent(any(AccountActivityEvent.class));
+  }
+
+  @Test
+  void transferMoney_whenLedgerRejectsAdmission_thenReleasesKey() {
+    stubBalances();
+    when(ledgerEngine.submit(any(LedgerTransfer.class)))
+        .thenReturn(CompletableFuture.failedFuture(LedgerUnavailableException.withDefaultMessage()));
+
+    assertThrows(LedgerUnavailableException.class,
+                 () -> ledgerTransactionService.transferMoney(currentUser, request, transferGuard));
+    verify(transferGuard).release();
+    verify(transferGuard, never()).complete(any());
+  }
+
+  @Test
+  void transferMoney_whenAccountNotFound_thenReleasesKey() {
+    when(ledgerEntryRepository.findLiveBalanceMap(anyCollection())).thenReturn(Map.of());
+
+    assertThrows(AccountNotFoundException.class,
+                 () -> ledgerTransactionService.transferMoney(currentUser, request, transferGuard));
+    verify(transferGuard).release();
+    verify(ledgerEngine, never()).submit(any(LedgerTransfer.class));
+  }
+
+  @Test
+  void getTransaction_whenTransferIsNotPersistedYet_thenAnswersFromTheEngine() {
+    TransactionHistoryResponse pending = new TransactionHistoryResponse(UUID.randomUUID(),
+                                                                        request.from(),
+                                                                        request.to(),
+                                                                        request.amount(),
+                                                                        LocalDateTime.now(),
+                                                                        TransactionStatus.PENDING);
+
+    when(ledgerEngine.find(pending.id())).thenReturn(Optional.of(pending));
+    when(accountRepository.existsByIdAndUser(request.from(), user)).thenReturn(true);
+
+    assertEquals(pending, ledgerTransactionService.getTransaction(currentUser, pending.id()));
+    verify(dbTransactionService, never()).getTransaction(any(), any());
+  }
+
+  @Test
+  void getTransaction_whenUnpersistedTransferIsNotOwned_thenThrowsException() {
+    TransactionHistoryResponse pending = new TransactionHistoryResponse(UUID.randomUUID(),
+                                                                        request.from(),
+                                                                        request.to(),
+                                                                        request.amount(),
+                                                                        LocalDateTime.now(),
+                                                                        TransactionStatus.PENDING);
+
+    when(ledgerEngine.find(pending.id())).thenReturn(Optional.of(pending));
+
+    assertThrows(TransactionNotFoundException.class,
+                 () -> ledgerTransactionService.getTransaction(currentUser, pending.id()));
+  }
+
+  private void stubBalances() {
+    when(ledgerEntryRepository.findLiveBalanceMap(anyCollection()))
+        .thenReturn(Map.of(request.from(), Money.valueOf(10), request.to(), Money.ZERO));
+  }
+}
@@ -0,0 +1,52 @@
+package com.brkygngr.banking.money;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+  @Test
+  void parse_whenTextHasFraction_thenStoresMinorUnits() {
+    assertEquals(10_500_000L, Money.parse("10.5").minorUnits());
+    assertEquals(-1L, Money.parse("-0.000001").minorUnits());
+    assertEquals(Money.valueOf(1000), Money.parse("1e3"));
+    assertEquals(Money.valueOf(2), Money.parse("2.00000000"));
+  }
+
+  @Test
+  void parse_whenTextHasTooManyDecimals_thenThrowsException() {
+    assertThrows(ArithmeticException.class, () -> Money.parse("0.0000001"));
+  }
+
+  @Test
+  void parse_whenTextIsNotANumber_thenThrowsException() {
+    assertThrows(NumberFormatException.class, () -> Money.parse("-"));
+    assertThrows(NumberFormatException.class, () -> Money.parse("ten"));
+  }
+
+  @Test
+  void add_whenResultOverflows_thenThrowsException() {
+    Money max = Money.ofMinorUnits(Long.MAX_VALUE);
+
+    assertThrows(ArithmeticException.class, () -> max.add(Money.ofMinorUnits(1)));
+    assertThrows(ArithmeticException.class, () -> Money.parse("9223372036854.775808"));
+  }
+
+  @Test
+  void toString_whenFormatted_thenHasFixedScale() {
+    assertEquals("10.500000", Money.parse("10.5").toString());
+    assertEquals("-0.000001", Money.ofMinorUnits(-1).toString());
+    assertEquals("0.000000", Money.ZERO.toString());
+  }
+
+  @Test
+  void toBigDecimal_whenConvertedBack_thenKeepsValue() {
+    Money money = Money.parse("123.456789");
+
+    assertEquals(new BigDecimal("123.456789"), money.toBigDecimal());
+    assertEquals(money, Money.of(money.toBigDecimal()));
+  }
+}
@@ -0,0 +1,287 @@
+package com.brkygngr.banking.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.repository.specification.AccountSearchCriteria;
+import com.brkygngr.banking.repository.specification.AccountSpecification;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@DataJpaTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTest {
+
+  private static final Pattern COST = Pattern.compile("cost=[\\d.]+\\.\\.([\\d.]+)");
+
+  private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+  @Container
+  @ServiceConnection
+  private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private StatementCapture statementCapture;
+
+  @BeforeEach
+  void setUp() {
+    statementCapture.clear();
+  }
+
+  @Test
+  void findHistoryBetweenDescending_usesOneIndexPerBranchWithoutSort() {
+    disableSequentialScan();
+
+    String plan = explain(TransactionRepository.HISTORY_PAGE_DESCENDING, keysetParameters());
+
+    assertTrue(plan.contains("from_account_id_transaction_date_id_idx"), plan);
+    assertTrue(plan.contains("to_account_id_transaction_date_id_idx"), plan);
+    assertFalse(plan.contains("Sort"), plan);
+  }
+
+  @Test
+  void findPendingForUpdate_usesPendingIndex() {
+    disableSequentialScan();
+
+    String plan = explain(TransactionRepository.PENDING_FOR_UPDATE,
+                          Map.of("since", LocalDateTime.now().minusDays(1), "limit", 100));
+
+    assertTrue(plan.contains("_transaction_date_idx"), plan);
+  }
+
+  @Test
+  void findHistoryBetweenDescending_whenRangeIsOneMonth_thenPrunesOtherPartitions() {
+    disableSequentialScan();
+
+    YearMonth currentMonth = YearMonth.now();
+
+    String plan = explain(TransactionRepository.HISTORY_PAGE_DESCENDING,
+                          Map.of("accountId", UUID.randomUUID(),
+                                 "lowerDate", currentMonth.atDay(1).atStartOfDay(),
+                                 "lowerId", new UUID(0L, 0L),
+                                 "upperDate", currentMonth.atDay(2).atStartOfDay(),
+                                 "upperId", new UUID(-1L, -1L),
+                                 "limit", 51));
+
+    assertTrue(plan.contains(partitionOf(currentMonth)), plan);
+    assertFalse(plan.contains(partitionOf(currentMonth.plusMonths(1))), plan);
+  }
+
+  @Test
+  void streamAllByAccountIdSince_whenAccountIsNewerThanAPartition_thenPrunesIt() {
+    YearMonth currentMonth = YearMonth.now();
+
+    String plan = explain(TransactionRepository.EXPORT_HISTORY,
+                          Map.of("accountId", UUID.randomUUID(),
+                                 "since", currentMonth.plusMonths(1).atDay(1).atStartOfDay()));
+
+    assertTrue(plan.contains(partitionOf(currentMonth.plusMonths(1))), plan);
+    assertFalse(plan.contains(partitionOf(currentMonth)), plan);
+  }
+
+  @Test
+  void findStateDigest_readsEveryInputThroughAnIndex() {
+    disableSequentialScan();
+
+    String plan = explain(AccountRepository.STATE_DIGEST,
+                          Map.of("accountId", UUID.randomUUID(), "userId", UUID.randomUUID()));
+
+    assertTrue(plan.contains("idx_ledger_entry_uncompacted"), plan);
+    assertTrue(plan.contains("from_account_id_idx"), plan);
+    assertTrue(plan.contains("to_account_id_idx"), plan);
+    assertTrue(plan.contains("from_account_id_transaction_date_id_idx"), plan);
+    assertTrue(plan.contains("to_account_id_transaction_date_id_idx"), plan);
+    assertFalse(plan.contains("Seq Scan"), plan);
+  }
+
+  @Test
+  void findSlice_whenPagingAfterAccount_thenUsesAccountUserIndexWithoutSort() {
+    disableSequentialScan();
+
+    User user = insertUser("keyset");
+
+    Specification<Account> specification = new AccountSpecification(new AccountSearchCriteria(user, "", ""));
+    Specification<Account> afterSpecification = (root, query, criteriaBuilder) -> criteriaBuilder
+        .greaterThan(root.get("id"), new UUID(0L, 0L));
+
+    accountRepository.findSlice(specification.and(afterSpecification), PageRequest.of(0, 20, Sort.by("id")));
+
+    String plan = explainGeneric(statementCapture.lastAccountQuery());
+
+    assertTrue(plan.contains("idx_account_user_id"), plan);
+    assertFalse(plan.contains("Sort"), plan);
+  }
+
+  @Test
+  void searchAccounts_whenUserOwnsManyAccounts_thenTrigramIndexesBeatUserIndexAndSequentialScan() {
+    User user = insertUser("search");
+
+    // One user owns every row, so the user index alone would read all of them before filtering.
+    jdbcTemplate.update("INSERT INTO account (id, number, name, balance, user_id) "
+                            + "SELECT gen_random_uuid(), lpad(i::text, 16, '0'), 'account ' || md5(i::text), 0, ? "
+                            + "FROM generate_series(1, 20000) i",
+                        user.getId());
+    jdbcTemplate.execute("ANALYZE account");
+
+    accountRepository.count(new AccountSpecification(new AccountSearchCriteria(user, "", "c4ca42")));
+    String nameQuery = statementCapture.lastAccountQuery();
+
+    accountRepository.count(new AccountSpecification(new AccountSearchCriteria(user, "00012345", "")));
+    String numberQuery = statementCapture.lastAccountQuery();
+
+    String namePlan = explain(nameQuery, user.getId(), "%c4ca42%");
+    String numberPlan = explain(numberQuery, user.getId(), "%00012345%");
+
+    assertTrue(namePlan.contains("idx_account_name_trgm"), namePlan);
+    assertTrue(numberPlan.contains("idx_account_number_trgm"), numberPlan);
+
+    // Trigram indexes are only reachable through bitmap scans, so this leaves the user index and the seq scan.
+    jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+
+    String nameFallbackPlan = explain(nameQuery, user.getId(), "%c4ca42%");
+    String numberFallbackPlan = explain(numberQuery, user.getId(), "%00012345%");
+
+    assertTrue(totalCost(namePlan) < totalCost(nameFallbackPlan), namePlan + "\n" + nameFallbackPlan);
+    assertTrue(totalCost(numberPlan) < totalCost(numberFallbackPlan), numberPlan + "\n" + numberFallbackPlan);
+  }
+
+  private Map<String, Object> keysetParameters() {
+    return Map.of("accountId", UUID.randomUUID(),
+                  "lowerDate", LocalDateTime.of(2000, 1, 1, 0, 0),
+                  "lowerId", new UUID(0L, 0L),
+                  "upperDate", LocalDateTime.of(2100, 1, 1, 0, 0),
+                  "upperId", new UUID(-1L, -1L),
+                  "limit", 51);
+  }
+
+  private String partitionOf(final YearMonth month) {
+    return String.format("transaction_p%d_%02d", month.getYear(), month.getMonthValue());
+  }
+
+  // The test tables are tiny, so the planner would otherwise prefer a sequential scan over any index.
+  private void disableSequentialScan() {
+    jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+  }
+
+  private User insertUser(final String username) {
+    UUID userId = UUID.randomUUID();
+
+    jdbcTemplate.update("INSERT INTO app_user (id, username, password, email) VALUES (?, ?, '', ?)",
+                        userId,
+                        username,
+                        username + "@test");
+
+    return entityManager.getReference(User.class, userId);
+  }
+
+  private String explain(final String sql, final Map<String, Object> parameters) {
+    return String.join("\n", namedParameterJdbcTemplate.queryForList("EXPLAIN " + sql, parameters, String.class));
+  }
+
+  private String explain(final String sql, final Object... parameters) {
+    return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+  }
+
+  private double totalCost(final String plan) {
+    Matcher matcher = COST.matcher(plan);
+
+    assertTrue(matcher.find(), plan);
+
+    return Double.parseDouble(matcher.group(1));
+  }
+
+  // Hibernate binds every parameter as '?', the generic plan needs them numbered instead.
+  private String explainGeneric(final String sql) {
+    Matcher matcher = PARAMETER.matcher(sql);
+    StringBuilder numbered = new StringBuilder();
+    int index = 0;
+
+    while (matcher.find()) {
+      matcher.appendReplacement(numbered, "\\$" + ++index);
+    }
+
+    matcher.appendTail(numbered);
+
+    return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class));
+  }
+
+  // Plans are taken from the statements Hibernate actually sends, so they can not drift from the repository queries.
+  @TestConfiguration
+  static class StatementCaptureConfiguration {
+
+    @Bean
+    StatementCapture statementCapture() {
+      return new StatementCapture();
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer statementCaptureCustomizer(final StatementCapture statementCapture) {
+      return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCapture);
+    }
+  }
+
+  static class StatementCapture implements StatementInspector {
+
+    private final List<String> statementList = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(final String sql) {
+      statementList.add(sql);
+
+      return sql;
+    }
+
+    void clear() {
+      statementList.clear();
+    }
+
+    String lastAccountQuery() {
+      return statementList.reversed()
+                          .stream()
+                          .filter(sql -> sql.contains(" from account "))
+                          .findFirst()
+                          .orElseThrow();
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.brkygngr.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class AccountNumberAllocatorTest {
+
+  private static final long BLOCK_SIZE = 3;
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private final AtomicLong sequence = new AtomicLong(100000000000000L);
+
+  private AccountNumberAllocator accountNumberAllocator;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    accountNumberAllocator = new AccountNumberAllocator(jdbcTemplate);
+
+    when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+      long start = sequence.getAndAdd(BLOCK_SIZE);
+      ResultSet resultSet = mock(ResultSet.class);
+
+      when(resultSet.getLong(1)).thenReturn(start);
+      when(resultSet.getLong(2)).thenReturn(BLOCK_SIZE);
+
+      return invocation.getArgument(1, RowMapper.class).mapRow(resultSet, 0);
+    });
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void allocate_whenBlockRunsOut_thenReservesNextBlockAndAppendsLuhnDigit() {
+    List<String> numberList = accountNumberAllocator.allocate(4);
+
+    assertEquals(List.of("1000000000000008", "1000000000000016", "1000000000000024", "1000000000000032"),
+                 numberList);
+    verify(jdbcTemplate, times(2)).queryForObject(anyString(), any(RowMapper.class));
+  }
+
+  @Test
+  void allocate_whenCalledConcurrently_thenNeverRepeatsANumber() throws Exception {
+    Set<String> numberSet = ConcurrentHashMap.newKeySet();
+
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      for (int i = 0; i < 8; i++) {
+        executor.execute(() -> {
+          for (int j = 0; j < 100; j++) {
+            numberSet.add(accountNumberAllocator.allocate());
+          }
+        });
+      }
+
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    assertEquals(800, numberSet.size());
+  }
+
+  @Test
+  void luhnCheckDigit_whenBodyIsKnown_thenMatchesReferenceValue() {
+    assertEquals(3, AccountNumberAllocator.luhnCheckDigit("7992739871"));
+  }
+}
@@ -0,0 +1,143 @@
+package com.brkygngr.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.account.AccountStatementQuery;
+import com.brkygngr.banking.dto.account.AccountStatementResponse;
+import com.brkygngr.banking.dto.account.DailyStatementResponse;
+import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.exception.AccountNotFoundException;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.AccountRepository;
+import com.brkygngr.banking.repository.DailyAccountSummaryRepository;
+import com.brkygngr.banking.repository.LedgerEntryRepository;
+import com.brkygngr.banking.repository.projection.DailySummaryRow;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class AccountStatementServiceTest {
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private UserIdentityCache userIdentityCache;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @Mock
+  private DailyAccountSummaryRepository dailyAccountSummaryRepository;
+
+  private AccountStatementService accountStatementService;
+
+  private final CurrentUser currentUser = new CurrentUser(UUID.randomUUID(), "username");
+
+  private final User user = new User();
+
+  private final LocalDate from = LocalDate.of(2024, 3, 1);
+
+  private final LocalDate to = LocalDate.of(2024, 3, 4);
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    accountStatementService = new AccountStatementService(userIdentityCache,
+                                                          accountRepository,
+                                                          ledgerEntryRepository,
+                                                          dailyAccountSummaryRepository);
+
+    when(userIdentityCache.getReference(currentUser)).thenReturn(user);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void getStatement_whenEntriesAreNotSummarizedYet_thenMergesThemAndWalksBalancesBackFromLiveBalance() {
+    Account account = new Account();
+    account.setId(UUID.randomUUID());
+    account.setBalance(Money.valueOf(100));
+
+    when(accountRepository.findByIdAndUser(account.getId(), user)).thenReturn(Optional.of(account));
+    when(dailyAccountSummaryRepository.findRowsBetween(account.getId(), from, to))
+        .thenReturn(List.of(createRow(from, 50, 0, 1), createRow(from.plusDays(2), 0, 20, 1)));
+    when(dailyAccountSummaryRepository.sumNetAfter(account.getId(), to)).thenReturn(new BigDecimal("5"));
+    when(ledgerEntryRepository.sumUnsummarizedAmountsByDay(account.getId()))
+        .thenReturn(List.of(createRow(from.plusDays(2), 10, 0, 1), createRow(to.plusDays(1), 30, 0, 1)));
+    when(ledgerEntryRepository.findLiveBalanceMap(List.of(account)))
+        .thenReturn(Map.of(account.getId(), Money.valueOf(100)));
+
+    AccountStatementResponse response = accountStatementService.getStatement(currentUser,
+                                                                             account.getId(),
+                                                                             new AccountStatementQuery(from, to));
+
+    assertEquals(List.of(new DailyStatementResponse(from, Money.valueOf(50), Money.ZERO, 1, Money.valueOf(75)),
+                         new DailyStatementResponse(from.plusDays(2),
+                                                    Money.valueOf(10),
+                                                    Money.valueOf(20),
+                                                    2,
+                                                    Money.valueOf(65))),
+                 response.days());
+    assertEquals(Money.valueOf(25), response.openingBalance());
+    assertEquals(Money.valueOf(65), response.closingBalance());
+    assertEquals(Money.valueOf(60), response.inflow());
+    assertEquals(Money.valueOf(20), response.outflow());
+    assertEquals(3, response.transactionCount());
+  }
+
+  @Test
+  void getStatement_whenAccountNotFound_thenThrowsException() {
+    UUID accountId = UUID.randomUUID();
+
+    when(accountRepository.findByIdAndUser(accountId, user)).thenReturn(Optional.empty());
+
+    assertThrows(AccountNotFoundException.class,
+                 () -> accountStatementService.getStatement(currentUser,
+                                                            accountId,
+                                                            new AccountStatementQuery(from, to)));
+  }
+
+  private DailySummaryRow createRow(final LocalDate date, final long inflow, final long outflow, final long count) {
+    return new DailySummaryRow() {
+
+      @Override
+      public LocalDate getSummaryDate() {
+        return date;
+      }
+
+      @Override
+      public BigDecimal getInflow() {
+        return BigDecimal.valueOf(inflow);
+      }
+
+      @Override
+      public BigDecimal getOutflow() {
+        return BigDecimal.valueOf(outflow);
+      }
+
+      @Override
+      public long getTransactionCount() {
+        return count;
+      }
+    };
+  }
+}
@@ -1,25 +1,43 @@
 package com.brkygngr.banking.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.AccountCountCache;
+import com.brkygngr.banking.cache.UserIdentityCache;
 import com.brkygngr.banking.dto.account.AccountResponse;
+import com.brkygngr.banking.dto.account.BulkAccountResult;
+import com.brkygngr.banking.dto.account.BulkAccountResult.BulkAccountStatus;
+import com.brkygngr.banking.dto.account.BulkAccountsResponse;
+import com.brkygngr.banking.dto.account.BulkCreateAccountsRequest;
+import com.brkygngr.banking.dto.account.BulkUpdateAccountRequest;
+import com.brkygngr.banking.dto.account.BulkUpdateAccountsRequest;
 import com.brkygngr.banking.dto.account.CreateAccountRequest;
 import com.brkygngr.banking.dto.account.CreateAccountResponse;
 import com.brkygngr.banking.dto.account.SearchAccountsQuery;
 import com.brkygngr.banking.dto.account.UpdateAccountRequest;
 import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.entity.LedgerEntry;
 import com.brkygngr.banking.entity.User;
 import com.brkygngr.banking.exception.AccountNotFoundException;
-import com.brkygngr.banking.exception.UserNotFoundException;
+import com.brkygngr.banking.exception.BalanceManagedByLedgerException;
+import com.brkygngr.banking.money.Money;
 import com.brkygngr.banking.repository.AccountRepository;
-import com.brkygngr.banking.repository.UserRepository;
+import com.brkygngr.banking.repository.LedgerEntryRepository;
 import com.brkygngr.banking.repository.specification.AccountSpecification;
-import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.AfterEach;
@@ -29,8 +47,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 class DBAccountServiceTest {
 
@@ -39,18 +62,40 @@ class DBAccountServiceTest {
   @Captor
   private ArgumentCaptor<Account> accountArgumentCaptor;
 
+  @Captor
+  private ArgumentCaptor<LedgerEntry> ledgerEntryArgumentCaptor;
+
+  @Captor
+  private ArgumentCaptor<List<Account>> accountListArgumentCaptor;
+
+  @Captor
+  private ArgumentCaptor<List<LedgerEntry>> ledgerEntryListArgumentCaptor;
+
   @Mock
-  private UserRepository userRepository;
+  private UserIdentityCache userIdentityCache;
 
   @Mock
   private AccountRepository accountRepository;
 
+  @Mock
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  private final AccountCountCache accountCountCache = new AccountCountCache(10, 60000);
+
+  @Mock
+  private AccountNumberAllocator accountNumberAllocator;
+
+  @Mock
+  private MessageSource messageSource;
+
   private DBAccountService dbAccountService;
 
   @BeforeEach
   void setUp() {
     autoCloseable = MockitoAnnotations.openMocks(this);
-    dbAccountService = new DBAccountService(userRepository, accountRepository);
+    dbAccountService = createService(TransferEngine.DATABASE);
+
+    when(ledgerEntryRepository.findLiveBalanceMap(anyCollection())).thenCallRealMethod();
   }
 
   @AfterEach
@@ -59,18 +104,7 @@ class DBAccountServiceTest {
   }
 
   @Test
-  void createAccount_whenUserNotFound_thenThrowException() {
-    String username = "nonExistentUser";
-
-    CreateAccountRequest request = new CreateAccountRequest("Test Account");
-
-    when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
-
-    assertThrows(UserNotFoundException.class, () -> dbAccountService.createAccount(username, request));
-  }
-
-  @Test
-  void createAccount_whenAccountIsCreated_thenRandomNumberIsAssigned() {
+  void createAccount_whenAccountIsCreated_thenAllocatedNumberIsAssigned() {
     User user = new User();
     user.setUsername("test user");
     user.setId(UUID.randomUUID());
@@ -79,28 +113,44 @@ class DBAccountServiceTest {
     account.setNumber("123");
     account.setName("test acc");
     account.setUser(user);
-    account.setBalance(BigDecimal.ZERO);
+    account.setBalance(Money.ZERO);
 
-    when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountNumberAllocator.allocate()).thenReturn("1000000000000008");
     when(accountRepository.save(accountArgumentCaptor.capture())).thenReturn(account);
 
-    CreateAccountResponse response = dbAccountService.createAccount(user.getUsername(),
+    CreateAccountResponse response = dbAccountService.createAccount(currentUser,
                                                                     new CreateAccountRequest("Test Account"));
 
     assertEquals(account.getId(), response.accountId());
-    assertNotNull(accountArgumentCaptor.getValue().getNumber());
+    assertEquals("1000000000000008", accountArgumentCaptor.getValue().getNumber());
   }
 
   @Test
-  void searchAccounts_whenUserNotFound_thenThrowException() {
-    String username = "nonExistentUser";
-
-    SearchAccountsQuery searchAccountsQuery = new SearchAccountsQuery(Optional.of("number"), Optional.of("name"));
-
-    when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
-
-    assertThrows(UserNotFoundException.class,
-                 () -> dbAccountService.searchAccounts(username, searchAccountsQuery, Pageable.unpaged()));
+  void createAccounts_whenNameIsTakenOrRepeated_thenFailsThoseItemsAndSavesTheRestInOneBatch() {
+    User user = createUser();
+
+    BulkCreateAccountsRequest request = new BulkCreateAccountsRequest(List.of(new CreateAccountRequest("first"),
+                                                                              new CreateAccountRequest("taken"),
+                                                                              new CreateAccountRequest("second"),
+                                                                              new CreateAccountRequest("first")));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findNamesByNameIn(anyCollection())).thenReturn(List.of("taken"));
+    when(accountNumberAllocator.allocate(anyInt())).thenReturn(List.of("1000000000000008", "1000000000000016"));
+    when(messageSource.getMessage(eq("app.account.name.already.exists"), any(), any())).thenReturn("taken");
+
+    BulkAccountsResponse response = dbAccountService.createAccounts(currentUser, request);
+
+    verify(accountNumberAllocator).allocate(2);
+    verify(accountRepository).saveAll(accountListArgumentCaptor.capture());
+    assertEquals(List.of("first", "second"),
+                 accountListArgumentCaptor.getValue().stream().map(Account::getName).toList());
+    assertEquals(List.of(BulkAccountStatus.SUCCESS,
+                         BulkAccountStatus.FAILED,
+                         BulkAccountStatus.SUCCESS,
+                         BulkAccountStatus.FAILED),
+                 response.results().stream().map(BulkAccountResult::status).toList());
   }
 
   @Test
@@ -109,16 +159,83 @@ class DBAccountServiceTest {
     user.setId(UUID.randomUUID());
     user.setUsername("test user");
 
-    SearchAccountsQuery searchAccountsQuery = new SearchAccountsQuery(Optional.of("number"), Optional.of("name"));
+    SearchAccountsQuery searchAccountsQuery = new SearchAccountsQuery(Optional.of("number"),
+                                                                      Optional.of("name"),
+                                                                      Optional.empty(),
+                                                                      Optional.empty());
 
-    when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
-    when(accountRepository.findAll(any(AccountSpecification.class), any(Pageable.class))).thenReturn(Page.empty());
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findSlice(any(AccountSpecification.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of()));
 
-    dbAccountService.searchAccounts(user.getUsername(),
+    dbAccountService.searchAccounts(currentUser,
                                     searchAccountsQuery,
                                     Pageable.unpaged());
 
-    verify(accountRepository).findAll(any(AccountSpecification.class), any(Pageable.class));
+    verify(accountRepository).findSlice(any(AccountSpecification.class), any(Pageable.class));
+  }
+
+  @Test
+  void searchAccounts_whenTotalIsRequestedTwice_thenCountsOnceAndAnswersFromCache() {
+    User user = createUser();
+    Pageable pageable = PageRequest.of(0, 2);
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findSlice(any(AccountSpecification.class), eq(pageable)))
+        .thenReturn(new SliceImpl<>(List.of(createAccount(user), createAccount(user)), pageable, true));
+    when(accountRepository.count(any(AccountSpecification.class))).thenReturn(5L);
+
+    Slice<AccountResponse> first = dbAccountService.searchAccounts(currentUser,
+                                                                   SearchAccountsQuery.empty(),
+                                                                   pageable);
+    Slice<AccountResponse> second = dbAccountService.searchAccounts(currentUser,
+                                                                    SearchAccountsQuery.empty(),
+                                                                    pageable);
+
+    assertEquals(5, ((Page<AccountResponse>) first).getTotalElements());
+    assertEquals(5, ((Page<AccountResponse>) second).getTotalElements());
+    verify(accountRepository, times(1)).count(any(AccountSpecification.class));
+  }
+
+  @Test
+  void searchAccounts_whenTotalIsNotRequested_thenSkipsCount() {
+    User user = createUser();
+    Pageable pageable = PageRequest.of(0, 2);
+
+    SearchAccountsQuery searchAccountsQuery = new SearchAccountsQuery(Optional.empty(),
+                                                                      Optional.empty(),
+                                                                      Optional.of(false),
+                                                                      Optional.empty());
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findSlice(any(AccountSpecification.class), eq(pageable)))
+        .thenReturn(new SliceImpl<>(List.of(createAccount(user), createAccount(user)), pageable, true));
+
+    Slice<AccountResponse> response = dbAccountService.searchAccounts(currentUser,
+                                                                      searchAccountsQuery,
+                                                                      pageable);
+
+    assertTrue(response.hasNext());
+    assertFalse(response instanceof Page);
+    verify(accountRepository, never()).count(any(AccountSpecification.class));
+  }
+
+  @Test
+  void searchAccounts_whenAfterIsGiven_thenReadsNextKeysetPageOrderedById() {
+    User user = createUser();
+
+    SearchAccountsQuery searchAccountsQuery = new SearchAccountsQuery(Optional.empty(),
+                                                                      Optional.empty(),
+                                                                      Optional.empty(),
+                                                                      Optional.of(UUID.randomUUID()));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findSlice(any(), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of()));
+
+    dbAccountService.searchAccounts(currentUser, searchAccountsQuery, PageRequest.of(3, 20));
+
+    verify(accountRepository).findSlice(any(), eq(PageRequest.of(0, 20, Sort.by("id"))));
+    verify(accountRepository, never()).count(any(AccountSpecification.class));
   }
 
   @Test
@@ -129,14 +246,14 @@ class DBAccountServiceTest {
 
     UUID accountId = UUID.randomUUID();
 
-    when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+    CurrentUser currentUser = stubCurrentUser(user);
     when(accountRepository.findByIdAndUser(accountId, user)).thenReturn(Optional.empty());
 
     assertThrows(AccountNotFoundException.class,
-                 () -> dbAccountService.updateAccount(user.getUsername(),
+                 () -> dbAccountService.updateAccount(currentUser,
                                                       accountId,
                                                       new UpdateAccountRequest("Updated Account Name",
-                                                                               BigDecimal.ZERO)));
+                                                                               Money.ZERO)));
   }
 
   @Test
@@ -148,46 +265,114 @@ class DBAccountServiceTest {
     Account account = new Account();
     account.setId(UUID.randomUUID());
     account.setName("Old Account Name");
+    account.setBalance(Money.ZERO);
 
-    UpdateAccountRequest request = new UpdateAccountRequest("Updated Account Name", BigDecimal.ZERO);
+    UpdateAccountRequest request = new UpdateAccountRequest("Updated Account Name", Money.ZERO);
 
-    when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+    CurrentUser currentUser = stubCurrentUser(user);
     when(accountRepository.findByIdAndUser(account.getId(), user)).thenReturn(Optional.of(account));
 
-    dbAccountService.updateAccount(user.getUsername(), account.getId(), request);
+    dbAccountService.updateAccount(currentUser, account.getId(), request);
 
     assertEquals(request.name(), account.getName());
   }
 
   @Test
-  void updateAccount_whenAccountExists_thenUpdatesAccountBalance() {
+  void updateAccount_whenBalanceChanges_thenWritesAdjustmentEntry() {
     User user = new User();
     user.setId(UUID.randomUUID());
     user.setUsername("test user");
 
     Account account = new Account();
     account.setId(UUID.randomUUID());
-    account.setBalance(BigDecimal.TWO);
+    account.setBalance(Money.valueOf(2));
 
-    UpdateAccountRequest request = new UpdateAccountRequest("Updated Account Name", BigDecimal.TEN);
+    UpdateAccountRequest request = new UpdateAccountRequest("Updated Account Name", Money.valueOf(10));
 
-    when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+    CurrentUser currentUser = stubCurrentUser(user);
     when(accountRepository.findByIdAndUser(account.getId(), user)).thenReturn(Optional.of(account));
 
-    dbAccountService.updateAccount(user.getUsername(), account.getId(), request);
+    dbAccountService.updateAccount(currentUser, account.getId(), request);
 
-    assertEquals(request.balance(), account.getBalance());
+    verify(ledgerEntryRepository).save(ledgerEntryArgumentCaptor.capture());
+    assertEquals(Money.valueOf(8), ledgerEntryArgumentCaptor.getValue().getAmount());
+    assertEquals(Money.valueOf(2), account.getBalance());
   }
 
   @Test
-  void deleteAccount_whenUserNotFound_thenThrowsException() {
-    String username = "nonExistentUser";
+  void updateAccounts_whenAccountsAreLoadedOnce_thenWritesAdjustmentsAndFailsMissingAccounts() {
+    User user = createUser();
+
+    Account account = createAccount(user);
+    account.setName("old");
+    account.setBalance(Money.valueOf(2));
+
+    UUID missingAccountId = UUID.randomUUID();
+
+    BulkUpdateAccountsRequest request = new BulkUpdateAccountsRequest(
+        List.of(new BulkUpdateAccountRequest(account.getId(), "new", Money.valueOf(10)),
+                new BulkUpdateAccountRequest(missingAccountId, "other", Money.ZERO),
+                new BulkUpdateAccountRequest(account.getId(), "new", Money.valueOf(7))));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUser(anyList(), eq(user))).thenReturn(List.of(account));
+    when(accountRepository.findNamesByNameIn(anyCollection())).thenReturn(List.of());
+    when(messageSource.getMessage(eq("app.account.not.found"), any(), any())).thenReturn("not found");
+
+    BulkAccountsResponse response = dbAccountService.updateAccounts(currentUser, request);
+
+    verify(accountRepository, times(1)).findAllByIdInAndUser(List.of(account.getId(), missingAccountId), user);
+    verify(ledgerEntryRepository).saveAll(ledgerEntryListArgumentCaptor.capture());
+    assertEquals(List.of(Money.valueOf(8), Money.valueOf(-3)),
+                 ledgerEntryListArgumentCaptor.getValue().stream().map(LedgerEntry::getAmount).toList());
+    assertEquals("new", account.getName());
+    assertEquals(List.of(BulkAccountStatus.SUCCESS, BulkAccountStatus.FAILED, BulkAccountStatus.SUCCESS),
+                 response.results().stream().map(BulkAccountResult::status).toList());
+  }
 
-    UUID accountId = UUID.randomUUID();
+  @Test
+  void updateAccount_whenLedgerEngineRunsAndBalanceChanges_thenThrowsException() {
+    User user = createUser();
+
+    Account account = createAccount(user);
+    account.setBalance(Money.valueOf(2));
 
-    when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+    UpdateAccountRequest request = new UpdateAccountRequest("Updated Account Name", Money.valueOf(10));
 
-    assertThrows(UserNotFoundException.class, () -> dbAccountService.deleteAccount(username, accountId));
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findByIdAndUser(account.getId(), user)).thenReturn(Optional.of(account));
+
+    DBAccountService ledgerAccountService = createService(TransferEngine.LEDGER);
+
+    assertThrows(BalanceManagedByLedgerException.class,
+                 () -> ledgerAccountService.updateAccount(currentUser, account.getId(), request));
+    verify(ledgerEntryRepository, never()).save(any(LedgerEntry.class));
+  }
+
+  @Test
+  void updateAccounts_whenLedgerEngineRuns_thenFailsOnlyBalanceChanges() {
+    User user = createUser();
+
+    Account account = createAccount(user);
+    account.setName("old");
+    account.setBalance(Money.valueOf(2));
+
+    BulkUpdateAccountsRequest request = new BulkUpdateAccountsRequest(
+        List.of(new BulkUpdateAccountRequest(account.getId(), "new", Money.valueOf(10)),
+                new BulkUpdateAccountRequest(account.getId(), "new", Money.valueOf(2))));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUser(anyList(), eq(user))).thenReturn(List.of(account));
+    when(accountRepository.findNamesByNameIn(anyCollection())).thenReturn(List.of());
+    when(messageSource.getMessage(eq("app.account.balance.ledger"), any(), any())).thenReturn("ledger");
+
+    BulkAccountsResponse response = createService(TransferEngine.LEDGER).updateAccounts(currentUser, request);
+
+    verify(ledgerEntryRepository).saveAll(ledgerEntryListArgumentCaptor.capture());
+    assertEquals(List.of(), ledgerEntryListArgumentCaptor.getValue());
+    assertEquals("new", account.getName());
+    assertEquals(List.of(BulkAccountStatus.FAILED, BulkAccountStatus.SUCCESS),
+                 response.results().stream().map(BulkAccountResult::status).toList());
   }
 
   @Test
@@ -200,10 +385,10 @@ class DBAccountServiceTest {
 
     UUID accountId = UUID.randomUUID();
 
-    when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+    CurrentUser currentUser = stubCurrentUser(user);
     when(accountRepository.existsByIdAndUser(accountId, user)).thenReturn(false);
 
-    assertThrows(AccountNotFoundException.class, () -> dbAccountService.deleteAccount(username, accountId));
+    assertThrows(AccountNotFoundException.class, () -> dbAccountService.deleteAccount(currentUser, accountId));
   }
 
   @Test
@@ -216,23 +401,40 @@ class DBAccountServiceTest {
 
     UUID accountId = UUID.randomUUID();
 
-    when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+    CurrentUser currentUser = stubCurrentUser(user);
     when(accountRepository.existsByIdAndUser(accountId, user)).thenReturn(true);
 
-    dbAccountService.deleteAccount(username, accountId);
+    dbAccountService.deleteAccount(currentUser, accountId);
 
     verify(accountRepository).deleteByIdAndUser(accountId, user);
   }
 
   @Test
-  void getAccount_whenUserNotFound_thenThrowsException() {
-    String username = "nonExistentUser";
+  void getAccountETag_whenAccountBelongsToAnotherUser_thenThrowsException() {
+    User user = new User();
+    user.setUsername("testUser");
+    user.setId(UUID.randomUUID());
+
+    UUID accountId = UUID.randomUUID();
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findStateDigest(accountId, user.getId())).thenReturn(Optional.empty());
+
+    assertThrows(AccountNotFoundException.class, () -> dbAccountService.getAccountETag(currentUser, accountId));
+  }
+
+  @Test
+  void getAccountETag_whenAccountExists_thenQuotesStateDigest() {
+    User user = new User();
+    user.setUsername("testUser");
+    user.setId(UUID.randomUUID());
 
     UUID accountId = UUID.randomUUID();
 
-    when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findStateDigest(accountId, user.getId())).thenReturn(Optional.of("digest"));
 
-    assertThrows(UserNotFoundException.class, () -> dbAccountService.getAccount(username, accountId));
+    assertEquals("\"digest\"", dbAccountService.getAccountETag(currentUser, accountId));
   }
 
   @Test
@@ -245,10 +447,10 @@ class DBAccountServiceTest {
 
     UUID accountId = UUID.randomUUID();
 
-    when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+    CurrentUser currentUser = stubCurrentUser(user);
     when(accountRepository.findByIdAndUser(accountId, user)).thenReturn(Optional.empty());
 
-    assertThrows(AccountNotFoundException.class, () -> dbAccountService.getAccount(username, accountId));
+    assertThrows(AccountNotFoundException.class, () -> dbAccountService.getAccount(currentUser, accountId));
   }
 
   @Test
@@ -263,14 +465,50 @@ class DBAccountServiceTest {
     account.setId(accountId);
     account.setNumber("12345");
     account.setName("Test Account");
+    account.setBalance(Money.valueOf(1));
 
-    when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+    CurrentUser currentUser = stubCurrentUser(user);
     when(accountRepository.findByIdAndUser(accountId, user)).thenReturn(Optional.of(account));
 
     AccountResponse expectedResponse = AccountResponse.fromAccount(account);
 
-    AccountResponse response = dbAccountService.getAccount(username, accountId);
+    AccountResponse response = dbAccountService.getAccount(currentUser, accountId);
 
     assertEquals(expectedResponse, response);
   }
-}
\ No newline at end of file
+
+  private DBAccountService createService(final TransferEngine transferEngine) {
+    return new DBAccountService(userIdentityCache,
+                                accountRepository,
+                                ledgerEntryRepository,
+                                accountCountCache,
+                                accountNumberAllocator,
+                                messageSource,
+                                transferEngine);
+  }
+
+  private User createUser() {
+    User user = new User();
+    user.setId(UUID.randomUUID());
+    user.setUsername("test user");
+
+    return user;
+  }
+
+  private Account createAccount(final User user) {
+    Account account = new Account();
+    account.setId(UUID.randomUUID());
+    account.setUser(user);
+    account.setBalance(Money.ZERO);
+
+    return account;
+  }
+
+  private CurrentUser stubCurrentUser(final User user) {
+    CurrentUser currentUser = new CurrentUser(user.getId(), user.getUsername());
+
+    when(userIdentityCache.getReference(currentUser)).thenReturn(user);
+
+    return currentUser;
+  }
+}
@@ -0,0 +1,660 @@
+package com.brkygngr.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.brkygngr.banking.archive.TransactionArchive;
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.transaction.AccountHistoryQuery;
+import com.brkygngr.banking.dto.transaction.AccountHistoryResponse;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.BatchTransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.TransactionCursor;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.dto.transaction.TransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.TransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.TransferSubmittedResponse;
+import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.entity.LedgerEntry;
+import com.brkygngr.banking.entity.Transaction;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.entity.TransactionIds;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.event.AccountActivityEvent;
+import com.brkygngr.banking.exception.AccountNotFoundException;
+import com.brkygngr.banking.exception.InvalidCursorException;
+import com.brkygngr.banking.exception.TransactionNotFoundException;
+import com.brkygngr.banking.exception.TransferConflictException;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.AccountRepository;
+import com.brkygngr.banking.repository.LedgerEntryRepository;
+import com.brkygngr.banking.repository.TransactionRepository;
+import com.brkygngr.banking.repository.projection.AccountBalanceDelta;
+import com.brkygngr.banking.repository.projection.PendingTransaction;
+import com.brkygngr.banking.repository.projection.TransactionHistoryRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.MessageSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class DBTransactionServiceTest {
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  @Mock
+  private TransactionArchive transactionArchive;
+
+  @Mock
+  private UserIdentityCache userIdentityCache;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private LedgerEntryRepository ledgerEntryRepository;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private MessageSource messageSource;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private TransferGuard<TransferMoneyResponse> transferGuard;
+
+  @Captor
+  private ArgumentCaptor<List<LedgerEntry>> entryListCaptor;
+
+  @Captor
+  private ArgumentCaptor<Transaction> transactionCaptor;
+
+  @Captor
+  private ArgumentCaptor<AccountActivityEvent> activityEventCaptor;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private DBTransactionService dbTransactionService;
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    meterRegistry = new SimpleMeterRegistry();
+    dbTransactionService = createService(TransferConcurrencyMode.PESSIMISTIC);
+
+    when(ledgerEntryRepository.findLiveBalanceMap(anyCollection())).thenCallRealMethod();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void transferMoney_whenAccountNotFound_thenThrowsException() {
+    User user = createUser();
+    Account from = createAccount(user, Money.valueOf(10));
+
+    TransferMoneyRequest request = new TransferMoneyRequest(from.getId(), UUID.randomUUID(), Money.valueOf(1));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUserForUpdate(anyList(), eq(user))).thenReturn(List.of(from));
+
+    assertThrows(AccountNotFoundException.class,
+                 () -> dbTransactionService.transferMoney(currentUser, request));
+  }
+
+  @Test
+  void transferMoney_whenBalanceIsNotEnough_thenSavesFailedTransaction() {
+    User user = createUser();
+    Account from = createAccount(user, Money.valueOf(1));
+    Account to = createAccount(user, Money.ZERO);
+
+    TransferMoneyRequest request = new TransferMoneyRequest(from.getId(), to.getId(), Money.valueOf(10));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUserForUpdate(anyList(), eq(user))).thenReturn(List.of(from));
+    when(accountRepository.findAllByIdInAndUser(anyList(), eq(user))).thenReturn(List.of(to));
+    when(messageSource.getMessage(eq("app.transaction.not.enough.money"), any(), any())).thenReturn("No money");
+
+    TransferMoneyResponse response = dbTransactionService.transferMoney(currentUser, request);
+
+    assertEquals(TransactionStatus.FAILED, response.status());
+    verify(transactionRepository).save(any(Transaction.class));
+    verify(ledgerEntryRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void transferMoney_whenUncompactedEntriesExist_thenChecksLiveBalance() {
+    User user = createUser();
+    Account from = createAccount(user, Money.ZERO);
+    Account to = createAccount(user, Money.ZERO);
+
+    TransferMoneyRequest request = new TransferMoneyRequest(from.getId(), to.getId(), Money.valueOf(1));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUserForUpdate(anyList(), eq(user))).thenReturn(List.of(from));
+    when(accountRepository.findAllByIdInAndUser(anyList(), eq(user))).thenReturn(List.of(to));
+    when(ledgerEntryRepository.sumUncompactedAmounts(anyCollection()))
+        .thenReturn(List.of(createDelta(from.getId(), BigDecimal.TEN)));
+
+    TransferMoneyResponse response = dbTransactionService.transferMoney(currentUser, request);
+
+    assertEquals(TransactionStatus.SUCCESS, response.status());
+  }
+
+  @Test
+  void transferMoney_whenBalanceIsEnough_thenLocksSourceAndWritesLedgerEntries() {
+    User user = createUser();
+    Account from = createAccount(user, Money.valueOf(10));
+    Account to = createAccount(user, Money.ZERO);
+
+    TransferMoneyRequest request = new TransferMoneyRequest(from.getId(), to.getId(), Money.valueOf(1));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUserForUpdate(List.of(from.getId()), user)).thenReturn(List.of(from));
+    when(accountRepository.findAllByIdInAndUser(List.of(to.getId()), user)).thenReturn(List.of(to));
+
+    TransferMoneyResponse response = dbTransactionService.transferMoney(currentUser, request);
+
+    assertEquals(TransactionStatus.SUCCESS, response.status());
+    assertEquals(Money.valueOf(10), from.getBalance());
+    assertEquals(Money.ZERO, to.getBalance());
+    verify(ledgerEntryRepository).saveAll(entryListCaptor.capture());
+    assertEquals(List.of(from, to), entryListCaptor.getValue().stream().map(LedgerEntry::getAccount).toList());
+    assertEquals(List.of(Money.valueOf(1).negate(), Money.valueOf(1)),
+                 entryListCaptor.getValue().stream().map(LedgerEntry::getAmount).toList());
+    verify(accountRepository, never()).saveAll(anyList());
+    verify(eventPublisher).publishEvent(activityEventCaptor.capture());
+    assertEquals(user.getId(), activityEventCaptor.getValue().userId());
+    assertEquals(Set.of(from.getId(), to.getId()), activityEventCaptor.getValue().accountIds());
+  }
+
+  @Test
+  void transferMoney_whenGuardIsClaimed_thenCompletesItInsideTheTransfer() {
+    User user = createUser();
+    Account from = createAccount(user, Money.valueOf(10));
+    Account to = createAccount(user, Money.ZERO);
+
+    TransferMoneyRequest request = new TransferMoneyRequest(from.getId(), to.getId(), Money.valueOf(1));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUserForUpdate(List.of(from.getId()), user)).thenReturn(List.of(from));
+    when(accountRepository.findAllByIdInAndUser(List.of(to.getId()), user)).thenReturn(List.of(to));
+    when(transferGuard.claim(null)).thenReturn(Optional.empty());
+
+    TransferMoneyResponse response = dbTransactionService.transferMoney(currentUser, request, transferGuard);
+
+    InOrder inOrder = inOrder(transactionManager, transferGuard);
+    inOrder.verify(transactionManager).getTransaction(any());
+    inOrder.verify(transferGuard).claim(null);
+    inOrder.verify(transferGuard).complete(response);
+    inOrder.verify(transactionManager).commit(any());
+  }
+
+  @Test
+  void transferMoney_whenGuardHasStoredResponse_thenSkipsTransfer() {
+    User user = createUser();
+    CurrentUser currentUser = stubCurrentUser(user);
+
+    TransferMoneyRequest request = new TransferMoneyRequest(UUID.randomUUID(), UUID.randomUUID(), Money.valueOf(1));
+    TransferMoneyResponse stored = new TransferMoneyResponse(TransactionStatus.SUCCESS, "");
+
+    when(transferGuard.claim(null)).thenReturn(Optional.of(stored));
+
+    assertEquals(stored, dbTransactionService.transferMoney(currentUser, request, transferGuard));
+    verify(transactionRepository, never()).save(any(Transaction.class));
+    verify(transferGuard, never()).complete(any());
+  }
+
+  @Test
+  void transferMoneyBatch_whenTransfersAreApplied_thenLoadsAccountsOnceAndReturnsResultPerItem() {
+    User user = createUser();
+    Account first = createAccount(user, Money.valueOf(10));
+    Account second = createAccount(user, Money.ZERO);
+
+    BatchTransferMoneyRequest request = new BatchTransferMoneyRequest(List.of(
+        new TransferMoneyRequest(first.getId(), second.getId(), Money.valueOf(6)),
+        new TransferMoneyRequest(first.getId(), second.getId(), Money.valueOf(6)),
+        new TransferMoneyRequest(second.getId(), UUID.randomUUID(), Money.valueOf(1)),
+        new TransferMoneyRequest(second.getId(), first.getId(), Money.valueOf(1))));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUserForUpdate(List.of(first.getId(), second.getId()), user))
+        .thenReturn(List.of(first, second));
+    when(messageSource.getMessage(any(String.class), any(), any())).thenReturn("reason");
+
+    BatchTransferMoneyResponse response = dbTransactionService.transferMoneyBatch(currentUser, request);
+
+    assertEquals(List.of(TransactionStatus.SUCCESS,
+                         TransactionStatus.FAILED,
+                         TransactionStatus.FAILED,
+                         TransactionStatus.SUCCESS),
+                 response.results().stream().map(TransferMoneyResponse::status).toList());
+    verify(accountRepository, times(1)).findAllByIdInAndUserForUpdate(anyList(), eq(user));
+    verify(transactionRepository, never()).save(any(Transaction.class));
+    verify(ledgerEntryRepository).saveAll(entryListCaptor.capture());
+    assertEquals(4, entryListCaptor.getValue().size());
+  }
+
+  @Test
+  void transferMoney_whenOptimisticModeConflicts_thenRetriesAndCountsConflict() {
+    DBTransactionService optimisticService = createService(TransferConcurrencyMode.OPTIMISTIC);
+
+    User user = createUser();
+    Account from = createAccount(user, Money.valueOf(10));
+    Account to = createAccount(user, Money.ZERO);
+
+    TransferMoneyRequest request = new TransferMoneyRequest(from.getId(), to.getId(), Money.valueOf(1));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUserForVersionIncrement(anyList(), eq(user))).thenReturn(List.of(from));
+    when(accountRepository.findAllByIdInAndUser(anyList(), eq(user))).thenReturn(List.of(to));
+    doThrow(new ObjectOptimisticLockingFailureException(Account.class, from.getId()))
+        .doNothing()
+        .when(transactionManager)
+        .commit(any());
+
+    TransferMoneyResponse response = optimisticService.transferMoney(currentUser, request);
+
+    assertEquals(TransactionStatus.SUCCESS, response.status());
+    assertEquals(1.0, meterRegistry.counter("transfer.optimistic.conflicts").count());
+    verify(accountRepository, times(2)).findAllByIdInAndUserForVersionIncrement(anyList(), eq(user));
+    verify(accountRepository, never()).findAllByIdInAndUserForUpdate(anyList(), any(User.class));
+  }
+
+  @Test
+  void transferMoney_whenOptimisticModeKeepsConflicting_thenThrowsException() {
+    DBTransactionService optimisticService = createService(TransferConcurrencyMode.OPTIMISTIC);
+
+    User user = createUser();
+    Account from = createAccount(user, Money.valueOf(10));
+    Account to = createAccount(user, Money.ZERO);
+
+    TransferMoneyRequest request = new TransferMoneyRequest(from.getId(), to.getId(), Money.valueOf(1));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUserForVersionIncrement(anyList(), eq(user))).thenReturn(List.of(from));
+    when(accountRepository.findAllByIdInAndUser(anyList(), eq(user))).thenReturn(List.of(to));
+    doThrow(new ObjectOptimisticLockingFailureException(Account.class, from.getId()))
+        .when(transactionManager)
+        .commit(any());
+
+    assertThrows(TransferConflictException.class,
+                 () -> optimisticService.transferMoney(currentUser, request));
+    assertEquals(3.0, meterRegistry.counter("transfer.optimistic.conflicts").count());
+  }
+
+  @Test
+  void submitTransfer_whenAccountsExist_thenSavesPendingTransaction() {
+    User user = createUser();
+    Account from = createAccount(user, Money.ZERO);
+    Account to = createAccount(user, Money.ZERO);
+
+    TransferMoneyRequest request = new TransferMoneyRequest(from.getId(), to.getId(), Money.valueOf(10));
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.findAllByIdInAndUser(anyList(), eq(user))).thenReturn(List.of(from, to));
+
+    TransferSubmittedResponse response = dbTransactionService.submitTransfer(currentUser, request);
+
+    assertEquals(TransactionStatus.PENDING, response.status());
+    verify(transactionRepository).save(transactionCaptor.capture());
+    assertEquals(TransactionStatus.PENDING, transactionCaptor.getValue().getStatus());
+    verify(ledgerEntryRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void processPendingTransfers_whenTransfersArePending_thenSettlesThemInOrder() {
+    User user = createUser();
+    Account from = createAccount(user, Money.valueOf(10));
+    Account to = createAccount(user, Money.ZERO);
+
+    Transaction first = createPendingTransaction(from, to, Money.valueOf(6), LocalDateTime.now().minusSeconds(1));
+    Transaction second = createPendingTransaction(from, to, Money.valueOf(6), LocalDateTime.now());
+
+    LocalDateTime since = LocalDateTime.now().minusHours(1);
+
+    when(transactionRepository.findPendingForUpdate(since, 10)).thenReturn(List.of(createPending(second),
+                                                                                   createPending(first)));
+    when(accountRepository.findAllByIdInForUpdate(List.of(from.getId()))).thenReturn(List.of(from));
+    when(transactionRepository.findAllByIdInAndTransactionDateGreaterThanEqual(anyList(),
+                                                                               eq(first.getTransactionDate())))
+        .thenReturn(List.of(second, first));
+
+    int processed = dbTransactionService.processPendingTransfers(since, 10);
+
+    assertEquals(2, processed);
+    assertEquals(TransactionStatus.SUCCESS, first.getStatus());
+    assertEquals(TransactionStatus.FAILED, second.getStatus());
+    verify(ledgerEntryRepository).saveAll(entryListCaptor.capture());
+    assertEquals(2, entryListCaptor.getValue().size());
+    verify(eventPublisher).publishEvent(activityEventCaptor.capture());
+    assertEquals(List.of(TransactionStatus.SUCCESS, TransactionStatus.FAILED),
+                 activityEventCaptor.getValue()
+                                    .transactionList()
+                                    .stream()
+                                    .map(TransactionHistoryResponse::status)
+                                    .toList());
+  }
+
+  @Test
+  void processPendingTransfers_whenNothingIsPending_thenLocksNothing() {
+    LocalDateTime since = LocalDateTime.now().minusHours(1);
+
+    when(transactionRepository.findPendingForUpdate(since, 10)).thenReturn(List.of());
+
+    assertEquals(0, dbTransactionService.processPendingTransfers(since, 10));
+    verify(accountRepository, never()).findAllByIdInForUpdate(anyList());
+  }
+
+  @Test
+  void getTransaction_whenIdIsTimeOrdered_thenBoundsLookupAroundItsTimestamp() {
+    User user = createUser();
+    UUID transactionId = TransactionIds.next();
+    LocalDateTime createdAt = TransactionIds.createdAt(transactionId).orElseThrow();
+    TransactionHistoryResponse expected = new TransactionHistoryResponse(transactionId,
+                                                                         UUID.randomUUID(),
+                                                                         UUID.randomUUID(),
+                                                                         Money.valueOf(1),
+                                                                         createdAt,
+                                                                         TransactionStatus.SUCCESS);
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(transactionRepository.findHistoryByIdAndFromUserBetween(transactionId,
+                                                                 user,
+                                                                 createdAt.minusDays(1),
+                                                                 createdAt.plusDays(1)))
+        .thenReturn(Optional.of(expected));
+
+    assertEquals(expected, dbTransactionService.getTransaction(currentUser, transactionId));
+    verify(transactionRepository, never()).findHistoryByIdAndFromUser(any(), any());
+  }
+
+  @Test
+  void getTransaction_whenIdIsRandom_thenSearchesEveryPartition() {
+    User user = createUser();
+    UUID transactionId = UUID.randomUUID();
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(transactionRepository.findHistoryByIdAndFromUser(transactionId, user)).thenReturn(Optional.empty());
+
+    assertThrows(TransactionNotFoundException.class,
+                 () -> dbTransactionService.getTransaction(currentUser, transactionId));
+    verify(transactionRepository, never()).findHistoryByIdAndFromUserBetween(any(), any(), any(), any());
+  }
+
+  @Test
+  void accountHistory_whenMoreRowsThanLimit_thenMergesSentAndReceivedAndReturnsNextCursor() {
+    User user = createUser();
+    Account account = createAccount(user, Money.ZERO);
+    LocalDateTime now = LocalDateTime.now();
+
+    TransactionHistoryRow newest = createRow(account.getId(), UUID.randomUUID(), now);
+    TransactionHistoryRow middle = createRow(UUID.randomUUID(), account.getId(), now.minusMinutes(1));
+    TransactionHistoryRow oldest = createRow(account.getId(), UUID.randomUUID(), now.minusMinutes(2));
+
+    AccountHistoryQuery query = new AccountHistoryQuery(2,
+                                                        Optional.empty(),
+                                                        Optional.empty(),
+                                                        Optional.empty(),
+                                                        Optional.empty());
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.existsByIdAndUser(account.getId(), user)).thenReturn(true);
+    when(transactionRepository.findHistoryBetweenDescending(eq(account.getId()), any(), any(), any(), any(), eq(3)))
+        .thenReturn(List.of(newest, oldest, middle));
+
+    AccountHistoryResponse response = dbTransactionService.accountHistory(currentUser, account.getId(), query);
+
+    assertEquals(List.of(newest.getId(), middle.getId()),
+                 response.transactions().stream().map(TransactionHistoryResponse::id).toList());
+    assertEquals(new TransactionCursor(middle.getTransactionDate(), middle.getId()).encode(), response.nextCursor());
+    assertNull(response.previousCursor());
+  }
+
+  @Test
+  void accountHistory_whenAfterCursorIsGiven_thenReadsNewerRowsAndReturnsThemNewestFirst() {
+    User user = createUser();
+    Account account = createAccount(user, Money.ZERO);
+    LocalDateTime now = LocalDateTime.now();
+
+    TransactionCursor cursor = new TransactionCursor(now.minusMinutes(2), UUID.randomUUID());
+    TransactionHistoryRow older = createRow(account.getId(), UUID.randomUUID(), now.minusMinutes(1));
+    TransactionHistoryRow newer = createRow(account.getId(), UUID.randomUUID(), now);
+
+    AccountHistoryQuery query = new AccountHistoryQuery(5,
+                                                        Optional.empty(),
+                                                        Optional.of(cursor.encode()),
+                                                        Optional.empty(),
+                                                        Optional.empty());
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.existsByIdAndUser(account.getId(), user)).thenReturn(true);
+    when(transactionRepository.findHistoryBetweenAscending(eq(account.getId()),
+                                                           eq(cursor.transactionDate()),
+                                                           eq(cursor.id()),
+                                                           any(),
+                                                           any(),
+                                                           eq(6)))
+        .thenReturn(List.of(older, newer));
+
+    AccountHistoryResponse response = dbTransactionService.accountHistory(currentUser, account.getId(), query);
+
+    assertEquals(List.of(newer.getId(), older.getId()),
+                 response.transactions().stream().map(TransactionHistoryResponse::id).toList());
+    assertEquals(new TransactionCursor(older.getTransactionDate(), older.getId()).encode(), response.nextCursor());
+    assertNull(response.previousCursor());
+  }
+
+  @Test
+  void accountHistory_whenOlderRowsAreArchived_thenMergesThemIntoThePage() {
+    User user = createUser();
+    Account account = createAccount(user, Money.ZERO);
+    LocalDateTime now = LocalDateTime.now();
+
+    TransactionHistoryRow live = createRow(account.getId(), UUID.randomUUID(), now);
+    TransactionHistoryResponse archived = new TransactionHistoryResponse(UUID.randomUUID(),
+                                                                         UUID.randomUUID(),
+                                                                         account.getId(),
+                                                                         Money.valueOf(1),
+                                                                         now.minusYears(3),
+                                                                         TransactionStatus.SUCCESS);
+
+    AccountHistoryQuery query = new AccountHistoryQuery(5,
+                                                        Optional.empty(),
+                                                        Optional.empty(),
+                                                        Optional.empty(),
+                                                        Optional.empty());
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.existsByIdAndUser(account.getId(), user)).thenReturn(true);
+    when(transactionRepository.findHistoryBetweenDescending(eq(account.getId()), any(), any(), any(), any(), eq(6)))
+        .thenReturn(List.of(live));
+    when(transactionArchive.findHistory(eq(account.getId()), any(), any(), eq(6), eq(false)))
+        .thenReturn(List.of(archived));
+
+    AccountHistoryResponse response = dbTransactionService.accountHistory(currentUser, account.getId(), query);
+
+    assertEquals(List.of(live.getId(), archived.id()),
+                 response.transactions().stream().map(TransactionHistoryResponse::id).toList());
+    assertNull(response.nextCursor());
+  }
+
+  @Test
+  void accountHistory_whenCursorIsMalformed_thenThrowsException() {
+    User user = createUser();
+    Account account = createAccount(user, Money.ZERO);
+
+    AccountHistoryQuery query = new AccountHistoryQuery(null,
+                                                        Optional.of("not a cursor"),
+                                                        Optional.empty(),
+                                                        Optional.empty(),
+                                                        Optional.empty());
+
+    CurrentUser currentUser = stubCurrentUser(user);
+    when(accountRepository.existsByIdAndUser(account.getId(), user)).thenReturn(true);
+
+    assertThrows(InvalidCursorException.class,
+                 () -> dbTransactionService.accountHistory(currentUser, account.getId(), query));
+  }
+
+  private DBTransactionService createService(final TransferConcurrencyMode concurrencyMode) {
+    return new DBTransactionService(transactionRepository,
+                                    transactionArchive,
+                                    userIdentityCache,
+                                    accountRepository,
+                                    ledgerEntryRepository,
+                                    eventPublisher,
+                                    messageSource,
+                                    transactionManager,
+                                    meterRegistry,
+                                    concurrencyMode,
+                                    3,
+                                    0);
+  }
+
+  private User createUser() {
+    User user = new User();
+    user.setId(UUID.randomUUID());
+    user.setUsername("test user");
+
+    return user;
+  }
+
+  private Account createAccount(final User user, final Money balance) {
+    Account account = new Account();
+    account.setId(UUID.randomUUID());
+    account.setUser(user);
+    account.setBalance(balance);
+
+    return account;
+  }
+
+  private Transaction createPendingTransaction(final Account from,
+                                               final Account to,
+                                               final Money amount,
+                                               final LocalDateTime transactionDate) {
+    Transaction transaction = new Transaction();
+    transaction.setId(UUID.randomUUID());
+    transaction.setFrom(from);
+    transaction.setTo(to);
+    transaction.setAmount(amount);
+    transaction.setTransactionDate(transactionDate);
+    transaction.setStatus(TransactionStatus.PENDING);
+
+    return transaction;
+  }
+
+  private PendingTransaction createPending(final Transaction transaction) {
+    return new PendingTransaction() {
+
+      @Override
+      public UUID getId() {
+        return transaction.getId();
+      }
+
+      @Override
+      public UUID getFromAccountId() {
+        return transaction.getFrom().getId();
+      }
+
+      @Override
+      public LocalDateTime getTransactionDate() {
+        return transaction.getTransactionDate();
+      }
+    };
+  }
+
+  private AccountBalanceDelta createDelta(final UUID accountId, final BigDecimal amount) {
+    return new AccountBalanceDelta() {
+
+      @Override
+      public UUID getAccountId() {
+        return accountId;
+      }
+
+      @Override
+      public BigDecimal getAmount() {
+        return amount;
+      }
+    };
+  }
+
+  private TransactionHistoryRow createRow(final UUID from, final UUID to, final LocalDateTime transactionDate) {
+    UUID id = UUID.randomUUID();
+
+    return new TransactionHistoryRow() {
+
+      @Override
+      public UUID getId() {
+        return id;
+      }
+
+      @Override
+      public UUID getFromAccountId() {
+        return from;
+      }
+
+      @Override
+      public UUID getToAccountId() {
+        return to;
+      }
+
+      @Override
+      public BigDecimal getAmount() {
+        return BigDecimal.ONE;
+      }
+
+      @Override
+      public LocalDateTime getTransactionDate() {
+        return transactionDate;
+      }
+
+      @Override
+      public TransactionStatus getStatus() {
+        return TransactionStatus.SUCCESS;
+      }
+    };
+  }
+
+  private CurrentUser stubCurrentUser(final User user) {
+    CurrentUser currentUser = new CurrentUser(user.getId(), user.getUsername());
+
+    when(userIdentityCache.getReference(currentUser)).thenReturn(user);
+
+    return currentUser;
+  }
+}
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.brkygngr.banking.accessor.KeycloakAccessor;
+import com.brkygngr.banking.cache.UserIdentityCache;
 import com.brkygngr.banking.dto.keycloak.KeycloakTokenResponse;
 import com.brkygngr.banking.dto.user.LoginUserRequest;
 import com.brkygngr.banking.dto.user.LoginUserResponse;
@@ -41,6 +42,9 @@ class DBUserServiceTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private UserIdentityCache userIdentityCache;
+
   @Mock
   private KeycloakAccessor keycloakAccessor;
 
@@ -52,7 +56,7 @@ class DBUserServiceTest {
   @BeforeEach
   void setUp() {
     autoCloseable = MockitoAnnotations.openMocks(this);
-    dbUserService = new DBUserService(userRepository, keycloakAccessor, passwordEncoder);
+    dbUserService = new DBUserService(userRepository, userIdentityCache, keycloakAccessor, passwordEncoder);
   }
 
   @AfterEach
@@ -90,6 +94,7 @@ class DBUserServiceTest {
 
       User saved = new User();
       saved.setId(UUID.randomUUID());
+      saved.setUsername(registerUserRequest.username());
 
       when(userRepository.existsByUsernameOrEmail(anyString(), anyString())).thenReturn(false);
       when(passwordEncoder.encode(registerUserRequest.password())).thenReturn("encryptedPassword");
@@ -98,6 +103,8 @@ class DBUserServiceTest {
       RegisterUserResponse actual = dbUserService.registerUser(registerUserRequest);
 
       verify(userRepository).save(any(User.class));
+      verify(keycloakAccessor).registerUser(saved);
+      verify(userIdentityCache).invalidate(registerUserRequest.username());
       assertEquals(actual.userId(), saved.getId());
     }
 
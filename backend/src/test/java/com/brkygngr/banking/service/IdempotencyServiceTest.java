@@ -0,0 +1,313 @@
+package com.brkygngr.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.dto.transaction.TransferMoneyRequest;
+import com.brkygngr.banking.dto.transaction.TransferMoneyResponse;
+import com.brkygngr.banking.dto.transaction.TransferSubmittedResponse;
+import com.brkygngr.banking.entity.IdempotencyRecord;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.exception.AccountNotFoundException;
+import com.brkygngr.banking.exception.IdempotencyKeyConflictException;
+import com.brkygngr.banking.exception.InvalidIdempotencyKeyException;
+import com.brkygngr.banking.exception.LedgerUnavailableException;
+import com.brkygngr.banking.exception.TransactionNotFoundException;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.IdempotencyRecordRepository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.MessageSource;
+
+class IdempotencyServiceTest {
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private TransactionService transactionService;
+
+  @Mock
+  private UserIdentityCache userIdentityCache;
+
+  @Mock
+  private IdempotencyRecordRepository idempotencyRecordRepository;
+
+  @Mock
+  private MessageSource messageSource;
+
+  private IdempotencyService idempotencyService;
+
+  private final User user = new User();
+
+  private CurrentUser currentUser;
+
+  private final TransferMoneyRequest request = new TransferMoneyRequest(UUID.randomUUID(),
+                                                                        UUID.randomUUID(),
+                                                                        Money.valueOf(1));
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    idempotencyService = new IdempotencyService(transactionService,
+                                                userIdentityCache,
+                                                idempotencyRecordRepository,
+                                                messageSource,
+                                                10,
+                                                60_000,
+                                                24);
+
+    user.setId(UUID.randomUUID());
+    user.setUsername("test user");
+
+    currentUser = new CurrentUser(user.getId(), user.getUsername());
+
+    when(userIdentityCache.getReference(currentUser)).thenReturn(user);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void transferMoney_whenKeyIsRepeated_thenTransfersOnceAndServesCachedResponse() {
+    TransferMoneyResponse response = new TransferMoneyResponse(TransactionStatus.SUCCESS, "");
+
+    when(idempotencyRecordRepository.claim(any(UUID.class), anyString(), anyString())).thenReturn(1);
+    stubTransfer(response);
+
+    assertEquals(response, idempotencyService.transferMoney(currentUser, "key", request));
+    assertEquals(response, idempotencyService.transferMoney(currentUser, "key", request));
+
+    verify(transactionService, times(1)).transferMoney(eq(currentUser), eq(request), any());
+    verify(idempotencyRecordRepository).complete(user, "key", TransactionStatus.SUCCESS, "", null);
+  }
+
+  @Test
+  void transferMoney_whenKeyIsStored_thenServesStoredResponse() {
+    IdempotencyRecord record = new IdempotencyRecord();
+    record.setStatus(TransactionStatus.FAILED);
+    record.setReason("No money");
+
+    stubStoredRecord(record);
+    stubTransfer(new TransferMoneyResponse(TransactionStatus.SUCCESS, ""));
+
+    TransferMoneyResponse response = idempotencyService.transferMoney(currentUser, "key", request);
+
+    assertEquals(new TransferMoneyResponse(TransactionStatus.FAILED, "No money"), response);
+    verify(idempotencyRecordRepository, never()).complete(any(), anyString(), any(), anyString(), any());
+  }
+
+  @Test
+  void transferMoney_whenKeyIsInProgress_thenThrowsException() {
+    stubStoredRecord(new IdempotencyRecord());
+    stubTransfer(new TransferMoneyResponse(TransactionStatus.SUCCESS, ""));
+
+    assertThrows(IdempotencyKeyConflictException.class,
+                 () -> idempotencyService.transferMoney(currentUser, "key", request));
+    verify(idempotencyRecordRepository, never()).complete(any(), anyString(), any(), anyString(), any());
+  }
+
+  @Test
+  void transferMoney_whenUncompletedKeyHasAppliedTransaction_thenCompletesItFromTheTransaction() {
+    IdempotencyRecord record = new IdempotencyRecord();
+    record.setTransactionId(UUID.randomUUID());
+
+    stubStoredRecord(record);
+    stubTransfer(new TransferMoneyResponse(TransactionStatus.SUCCESS, ""));
+    when(transactionService.getTransaction(currentUser, record.getTransactionId()))
+        .thenReturn(new TransactionHistoryResponse(record.getTransactionId(),
+                                                   request.from(),
+                                                   request.to(),
+                                                   request.amount(),
+                                                   LocalDateTime.now(),
+                                                   TransactionStatus.SUCCESS));
+
+    TransferMoneyResponse response = idempotencyService.transferMoney(currentUser, "key", request);
+
+    assertEquals(new TransferMoneyResponse(TransactionStatus.SUCCESS, ""), response);
+    verify(idempotencyRecordRepository).complete(user,
+                                                 "key",
+                                                 TransactionStatus.SUCCESS,
+                                                 "",
+                                                 record.getTransactionId());
+  }
+
+  @Test
+  void transferMoney_whenUncompletedKeyHasUnknownTransaction_thenThrowsException() {
+    IdempotencyRecord record = new IdempotencyRecord();
+    record.setTransactionId(UUID.randomUUID());
+
+    stubStoredRecord(record);
+    stubTransfer(new TransferMoneyResponse(TransactionStatus.SUCCESS, ""));
+    when(transactionService.getTransaction(currentUser, record.getTransactionId()))
+        .thenThrow(TransactionNotFoundException.withDefaultMessage());
+
+    assertThrows(IdempotencyKeyConflictException.class,
+                 () -> idempotencyService.transferMoney(currentUser, "key", request));
+  }
+
+  @Test
+  void transferMoney_whenKeyIsReusedWithDifferentRequest_thenThrowsException() {
+    when(idempotencyRecordRepository.claim(any(UUID.class), anyString(), anyString())).thenReturn(1);
+    when(transactionService.transferMoney(any(CurrentUser.class), any(TransferMoneyRequest.class), any()))
+        .thenAnswer(invocation -> settle(invocation.getArgument(2),
+                                         new TransferMoneyResponse(TransactionStatus.SUCCESS, "")));
+
+    idempotencyService.transferMoney(currentUser, "key", request);
+
+    TransferMoneyRequest otherRequest = new TransferMoneyRequest(request.from(), request.to(), Money.valueOf(10));
+
+    assertThrows(IdempotencyKeyConflictException.class,
+                 () -> idempotencyService.transferMoney(currentUser, "key", otherRequest));
+  }
+
+  @Test
+  void transferMoney_whenTransferThrows_thenLeavesTheKeyToTheTransfer() {
+    when(idempotencyRecordRepository.claim(any(UUID.class), anyString(), anyString())).thenReturn(1);
+    when(transactionService.transferMoney(eq(currentUser), eq(request), any()))
+        .thenThrow(LedgerUnavailableException.withDefaultMessage());
+
+    assertThrows(LedgerUnavailableException.class,
+                 () -> idempotencyService.transferMoney(currentUser, "key", request));
+    verify(idempotencyRecordRepository, never()).release(user, "key");
+  }
+
+  @Test
+  void transferMoney_whenTransferIsRejectedBeforeApplying_thenReleasedKeyIsClaimedAgain() {
+    TransferMoneyResponse response = new TransferMoneyResponse(TransactionStatus.SUCCESS, "");
+
+    when(idempotencyRecordRepository.claim(any(UUID.class), anyString(), anyString())).thenReturn(1);
+    when(transactionService.transferMoney(eq(currentUser), eq(request), any()))
+        .thenAnswer(invocation -> {
+          TransferGuard<TransferMoneyResponse> guard = invocation.getArgument(2);
+          guard.claim(null);
+          guard.release();
+
+          throw AccountNotFoundException.withDefaultMessage();
+        })
+        .thenAnswer(invocation -> settle(invocation.getArgument(2), response));
+
+    assertThrows(AccountNotFoundException.class,
+                 () -> idempotencyService.transferMoney(currentUser, "key", request));
+    assertEquals(response, idempotencyService.transferMoney(currentUser, "key", request));
+    verify(idempotencyRecordRepository).release(user, "key");
+  }
+
+  @Test
+  void transferMoney_whenTransactionIdIsClaimed_thenAttachesItToTheKey() {
+    UUID transactionId = UUID.randomUUID();
+    TransferMoneyResponse response = new TransferMoneyResponse(TransactionStatus.SUCCESS, "");
+
+    when(idempotencyRecordRepository.claim(any(UUID.class), anyString(), anyString())).thenReturn(1);
+    when(transactionService.transferMoney(eq(currentUser), eq(request), any())).thenAnswer(invocation -> {
+      TransferGuard<TransferMoneyResponse> guard = invocation.getArgument(2);
+      guard.claim(transactionId);
+      guard.complete(response);
+
+      return response;
+    });
+
+    idempotencyService.transferMoney(currentUser, "key", request);
+
+    verify(idempotencyRecordRepository).attachTransaction(user, "key", transactionId);
+    verify(idempotencyRecordRepository).complete(user, "key", TransactionStatus.SUCCESS, "", transactionId);
+  }
+
+  @Test
+  void submitTransfer_whenKeyIsRepeated_thenSubmitsOnceAndReplaysTransactionId() {
+    TransferSubmittedResponse response = new TransferSubmittedResponse(UUID.randomUUID(), TransactionStatus.PENDING);
+
+    when(idempotencyRecordRepository.claim(any(UUID.class), anyString(), anyString())).thenReturn(1);
+    stubSubmit(response);
+
+    assertEquals(response, idempotencyService.submitTransfer(currentUser, "key", request));
+    assertEquals(response, idempotencyService.submitTransfer(currentUser, "key", request));
+
+    verify(transactionService, times(1)).submitTransfer(eq(currentUser), eq(request), any());
+    verify(idempotencyRecordRepository).complete(user,
+                                                 "key",
+                                                 TransactionStatus.PENDING,
+                                                 "",
+                                                 response.transactionId());
+  }
+
+  @Test
+  void submitTransfer_whenKeyIsStored_thenServesStoredTransactionId() {
+    IdempotencyRecord record = new IdempotencyRecord();
+    record.setStatus(TransactionStatus.PENDING);
+    record.setReason("");
+    record.setTransactionId(UUID.randomUUID());
+
+    stubStoredRecord(record);
+    stubSubmit(new TransferSubmittedResponse(UUID.randomUUID(), TransactionStatus.PENDING));
+
+    TransferSubmittedResponse response = idempotencyService.submitTransfer(currentUser, "key", request);
+
+    assertEquals(new TransferSubmittedResponse(record.getTransactionId(), TransactionStatus.PENDING), response);
+    verify(idempotencyRecordRepository, never()).complete(any(), anyString(), any(), anyString(), any());
+  }
+
+  @Test
+  void transferMoney_whenKeyWasUsedForSubmission_thenThrowsException() {
+    when(idempotencyRecordRepository.claim(any(UUID.class), anyString(), anyString())).thenReturn(1);
+    stubSubmit(new TransferSubmittedResponse(UUID.randomUUID(), TransactionStatus.PENDING));
+
+    idempotencyService.submitTransfer(currentUser, "key", request);
+
+    assertThrows(IdempotencyKeyConflictException.class,
+                 () -> idempotencyService.transferMoney(currentUser, "key", request));
+    verify(transactionService, never()).transferMoney(any(CurrentUser.class), any(TransferMoneyRequest.class), any());
+  }
+
+  @Test
+  void transferMoney_whenKeyIsBlank_thenThrowsException() {
+    assertThrows(InvalidIdempotencyKeyException.class,
+                 () -> idempotencyService.transferMoney(currentUser, " ", request));
+  }
+
+  // Behaves like a transaction service: the guard is claimed first and completed with the applied transfer.
+  private void stubTransfer(final TransferMoneyResponse response) {
+    when(transactionService.transferMoney(eq(currentUser), eq(request), any()))
+        .thenAnswer(invocation -> settle(invocation.getArgument(2), response));
+  }
+
+  private void stubSubmit(final TransferSubmittedResponse response) {
+    when(transactionService.submitTransfer(eq(currentUser), eq(request), any()))
+        .thenAnswer(invocation -> settle(invocation.getArgument(2), response));
+  }
+
+  private void stubStoredRecord(final IdempotencyRecord record) {
+    when(idempotencyRecordRepository.claim(any(UUID.class), anyString(), anyString())).thenAnswer(invocation -> {
+      record.setRequestHash(invocation.getArgument(2));
+
+      return 0;
+    });
+    when(idempotencyRecordRepository.findByUserAndIdempotencyKey(user, "key")).thenReturn(Optional.of(record));
+  }
+
+  private <T> T settle(final TransferGuard<T> guard, final T response) {
+    return guard.claim(null).orElseGet(() -> {
+      guard.complete(response);
+
+      return response;
+    });
+  }
+}
@@ -0,0 +1,47 @@
+package com.brkygngr.banking.service;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class PendingTransferProcessorTest {
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private DBTransactionService dbTransactionService;
+
+  private PendingTransferProcessor pendingTransferProcessor;
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    pendingTransferProcessor = new PendingTransferProcessor(dbTransactionService, 1, 2, 168);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    pendingTransferProcessor.stop();
+    autoCloseable.close();
+  }
+
+  @Test
+  void sweep_whenBatchesAreFull_thenClaimsWithoutLookbackUntilDrained() {
+    LocalDateTime since = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    when(dbTransactionService.processPendingTransfers(eq(since), anyInt())).thenReturn(2, 2, 1);
+
+    pendingTransferProcessor.sweep();
+
+    verify(dbTransactionService, times(3)).processPendingTransfers(since, 2);
+  }
+}
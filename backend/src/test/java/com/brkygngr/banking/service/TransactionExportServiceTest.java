@@ -0,0 +1,222 @@
+package com.brkygngr.banking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import com.brkygngr.banking.archive.TransactionArchive;
+import com.brkygngr.banking.authentication.CurrentUser;
+import com.brkygngr.banking.cache.UserIdentityCache;
+import com.brkygngr.banking.dto.transaction.ExportFormat;
+import com.brkygngr.banking.dto.transaction.TransactionHistoryResponse;
+import com.brkygngr.banking.entity.Account;
+import com.brkygngr.banking.entity.Transaction.TransactionStatus;
+import com.brkygngr.banking.entity.User;
+import com.brkygngr.banking.exception.AccountNotFoundException;
+import com.brkygngr.banking.money.Money;
+import com.brkygngr.banking.repository.AccountRepository;
+import com.brkygngr.banking.repository.TransactionRepository;
+import com.brkygngr.banking.repository.projection.TransactionHistoryRow;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class TransactionExportServiceTest {
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private UserIdentityCache userIdentityCache;
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  @Mock
+  private TransactionArchive transactionArchive;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionExportService transactionExportService;
+
+  private final UUID accountId = UUID.randomUUID();
+
+  private final UUID otherAccountId = UUID.randomUUID();
+
+  private final UUID transactionId = UUID.randomUUID();
+
+  private final LocalDateTime transactionDate = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+
+  private final LocalDateTime since = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    transactionExportService = new TransactionExportService(userIdentityCache,
+                                                            accountRepository,
+                                                            transactionRepository,
+                                                            transactionArchive,
+                                                            JsonMapper.builder()
+                                                                      .findAndAddModules()
+                                                                      .disable(SerializationFeature
+                                                                                   .WRITE_DATES_AS_TIMESTAMPS)
+                                                                      .build(),
+                                                            transactionManager,
+                                                            3600000);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void exportAccountHistory_whenAccountNotFound_thenThrowsException() {
+    User user = new User();
+    CurrentUser currentUser = new CurrentUser(UUID.randomUUID(), "username");
+
+    when(userIdentityCache.getReference(currentUser)).thenReturn(user);
+    when(accountRepository.findByIdAndUser(accountId, user)).thenReturn(Optional.empty());
+
+    assertThrows(AccountNotFoundException.class,
+                 () -> transactionExportService.exportAccountHistory(currentUser, accountId, ExportFormat.CSV));
+  }
+
+  @Test
+  void exportAccountHistory_whenAccountExists_thenStreamsRowsFromTheDayBeforeItWasCreated() throws Exception {
+    User user = new User();
+    CurrentUser currentUser = new CurrentUser(UUID.randomUUID(), "username");
+    Account account = new Account();
+    account.setCreatedAt(since.plusDays(1));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    when(userIdentityCache.getReference(currentUser)).thenReturn(user);
+    when(accountRepository.findByIdAndUser(accountId, user)).thenReturn(Optional.of(account));
+    when(transactionRepository.streamAllByAccountIdSince(accountId, since)).thenReturn(Stream.of(createRow()));
+
+    transactionExportService.exportAccountHistory(currentUser, accountId, ExportFormat.CSV).writeTo(outputStream);
+
+    assertEquals(2, outputStream.toString(StandardCharsets.UTF_8).split("\n").length);
+  }
+
+  @Test
+  void write_whenFormatIsCsv_thenWritesHeaderAndOneLinePerRow() {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    when(transactionRepository.streamAllByAccountIdSince(accountId, since)).thenReturn(Stream.of(createRow()));
+
+    long count = transactionExportService.write(accountId, since, ExportFormat.CSV, outputStream);
+
+    assertEquals(1, count);
+    assertEquals("id,from,to,amount,transactionDate,status\n"
+                     + transactionId + "," + accountId + "," + otherAccountId
+                     + ",1.500000,2024-01-02T03:04:05,SUCCESS\n",
+                 outputStream.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void write_whenFormatIsNdjson_thenWritesOneJsonObjectPerLine() {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    when(transactionRepository.streamAllByAccountIdSince(accountId, since))
+        .thenReturn(Stream.of(createRow(), createRow()));
+
+    long count = transactionExportService.write(accountId, since, ExportFormat.NDJSON, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+    assertEquals(2, count);
+    assertEquals(2, lines.length);
+    assertEquals("{\"id\":\"" + transactionId + "\",\"from\":\"" + accountId + "\",\"to\":\"" + otherAccountId
+                     + "\",\"amount\":1.500000,\"transactionDate\":\"2024-01-02T03:04:05\",\"status\":\"SUCCESS\"}",
+                 lines[0]);
+  }
+
+  @Test
+  void write_whenMonthsAreArchived_thenWritesArchivedRowsBeforeLiveRows() {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    UUID archivedId = UUID.randomUUID();
+    YearMonth month = YearMonth.of(2020, 5);
+
+    when(transactionArchive.archivedMonths()).thenReturn(new TreeSet<>(List.of(month)));
+    TransactionHistoryResponse archived = new TransactionHistoryResponse(archivedId,
+                                                                         accountId,
+                                                                         otherAccountId,
+                                                                         Money.valueOf(2),
+                                                                         month.atDay(1).atStartOfDay(),
+                                                                         TransactionStatus.SUCCESS);
+
+    doAnswer(invocation -> {
+      invocation.<Consumer<TransactionHistoryResponse>>getArgument(2).accept(archived);
+
+      return null;
+    }).when(transactionArchive).forEachInMonth(eq(accountId), eq(month), any());
+    when(transactionRepository.streamAllByAccountIdSince(accountId, since)).thenReturn(Stream.of(createRow()));
+
+    long count = transactionExportService.write(accountId, since, ExportFormat.CSV, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+    assertEquals(2, count);
+    assertTrue(lines[1].startsWith(archivedId.toString()));
+    assertTrue(lines[2].startsWith(transactionId.toString()));
+  }
+
+  private TransactionHistoryRow createRow() {
+    return new TransactionHistoryRow() {
+
+      @Override
+      public UUID getId() {
+        return transactionId;
+      }
+
+      @Override
+      public UUID getFromAccountId() {
+        return accountId;
+      }
+
+      @Override
+      public UUID getToAccountId() {
+        return otherAccountId;
+      }
+
+      @Override
+      public BigDecimal getAmount() {
+        return new BigDecimal("1.5");
+      }
+
+      @Override
+      public LocalDateTime getTransactionDate() {
+        return transactionDate;
+      }
+
+      @Override
+      public TransactionStatus getStatus() {
+        return TransactionStatus.SUCCESS;
+      }
+    };
+  }
+}
@@ -0,0 +1,66 @@
+package com.brkygngr.banking.service;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class TransactionPartitionManagerTest {
+
+  private AutoCloseable autoCloseable;
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private TransactionPartitionManager transactionPartitionManager;
+
+  @BeforeEach
+  void setUp() {
+    autoCloseable = MockitoAnnotations.openMocks(this);
+    transactionPartitionManager = new TransactionPartitionManager(jdbcTemplate, 2, 12);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    autoCloseable.close();
+  }
+
+  @Test
+  void managePartitions_whenCalled_thenCreatesCurrentAndUpcomingMonths() {
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+    transactionPartitionManager.managePartitions(YearMonth.of(2024, 11));
+
+    verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS transaction_p2024_11 PARTITION OF transaction "
+                                     + "FOR VALUES FROM ('2024-11-01') TO ('2024-12-01')");
+    verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS transaction_p2024_12 PARTITION OF transaction "
+                                     + "FOR VALUES FROM ('2024-12-01') TO ('2025-01-01')");
+    verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS transaction_p2025_01 PARTITION OF transaction "
+                                     + "FOR VALUES FROM ('2025-01-01') TO ('2025-02-01')");
+    verify(jdbcTemplate, times(3)).execute(anyString());
+  }
+
+  @Test
+  void managePartitions_whenPartitionIsOlderThanRetention_thenDetachesOnlyThatPartition() {
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("transaction_p2023_10",
+                                                                                     "transaction_p2023_11",
+                                                                                     "transaction_p2024_11"));
+
+    transactionPartitionManager.managePartitions(YearMonth.of(2024, 11));
+
+    verify(jdbcTemplate).execute("ALTER TABLE transaction DETACH PARTITION transaction_p2023_10 CONCURRENTLY");
+    verify(jdbcTemplate, never()).execute("ALTER TABLE transaction DETACH PARTITION transaction_p2023_11 CONCURRENTLY");
+    verify(jdbcTemplate, never()).execute("ALTER TABLE transaction DETACH PARTITION transaction_p2024_11 CONCURRENTLY");
+  }
+}